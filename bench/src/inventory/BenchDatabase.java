@@ -0,0 +1,131 @@
+package inventory;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+/**
+ * Embedded H2 database in MySQL mode for the benchmarks. DBConnection is
+ * pointed at it through the same db.* system properties used in production,
+ * so every DAO call goes through the real pool and SQL.
+ *
+ * Run the benchmarks with main class org.openjdk.jmh.Main from the bench
+ * module, e.g. {@code org.openjdk.jmh.Main ProductDAOBenchmark -p size=100000}.
+ */
+final class BenchDatabase {
+    static final long SEED = 42;
+    static final String[] CATEGORIES = {"Lipstick", "Blush", "Foundation"};
+
+    private BenchDatabase() {
+    }
+
+    /**
+     * Points DBConnection at a fresh in-memory database with the production
+     * tables, already at the latest schema version. H2 has no STORED generated
+     * columns, so migration 2 is written here in H2's dialect and recorded
+     * as applied; SchemaMigrations then finds nothing left to do.
+     */
+    static void start(String name) throws Exception {
+        String url = "jdbc:h2:mem:" + name + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+        System.setProperty("db.url", url);
+        System.setProperty("db.user", "sa");
+        System.setProperty("db.pass", "");
+        System.setProperty("db.migrate", "true");
+        // Tables first, outside the pool, so SchemaMigrations sees them on DBConnection's first borrow.
+        try (Connection con = DriverManager.getConnection(url, "sa", "");
+             Statement st = con.createStatement()) {
+            st.executeUpdate("CREATE TABLE IF NOT EXISTS products ("
+                    + "id INT AUTO_INCREMENT PRIMARY KEY, "
+                    + "name VARCHAR(255) NOT NULL, "
+                    + "category VARCHAR(50) NOT NULL, "
+                    + "shade VARCHAR(10) NOT NULL, "
+                    + "price DECIMAL(10,2) NOT NULL, "
+                    + "no_of_items INT NOT NULL, "
+                    + "updated_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3), "
+                    + "name_key VARCHAR(255) GENERATED ALWAYS AS (LOWER(name)), "
+                    + "shade_key VARCHAR(255) GENERATED ALWAYS AS (LOWER(shade)))");
+            st.executeUpdate("CREATE INDEX IF NOT EXISTS idx_products_updated_at ON products(updated_at)");
+            st.executeUpdate("CREATE UNIQUE INDEX IF NOT EXISTS uq_products_name_shade ON products(name_key, shade_key)");
+            st.executeUpdate("CREATE TABLE IF NOT EXISTS product_tombstones ("
+                    + "product_id INT PRIMARY KEY, "
+                    + "deleted_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3))");
+            st.executeUpdate("CREATE INDEX IF NOT EXISTS idx_tombstones_deleted_at ON product_tombstones(deleted_at)");
+            st.executeUpdate("CREATE TABLE IF NOT EXISTS schema_version ("
+                    + "version INT PRIMARY KEY, applied_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP)");
+            st.executeUpdate("MERGE INTO schema_version(version) KEY(version) VALUES (1), (2)");
+            st.executeUpdate("CREATE TABLE IF NOT EXISTS users ("
+                    + "id INT AUTO_INCREMENT PRIMARY KEY, "
+                    + "username VARCHAR(50) NOT NULL UNIQUE, "
+                    + "password VARCHAR(255) NOT NULL, "
+                    + "role VARCHAR(20) NOT NULL DEFAULT 'employee')");
+        }
+        DBConnection.getConnection().close();
+    }
+
+    static void stop() {
+        DBConnection.shutdown();
+    }
+
+    static void truncate() throws Exception {
+        try (Connection con = DBConnection.getConnection();
+             Statement st = con.createStatement()) {
+            st.executeUpdate("DELETE FROM products");
+        }
+    }
+
+    /** Removes every product added after seeding; seeded rows have ids 1..lastSeededId. */
+    static void deleteAbove(int lastSeededId) throws Exception {
+        try (Connection con = DBConnection.getConnection();
+             Statement st = con.createStatement()) {
+            st.executeUpdate("DELETE FROM products WHERE id > " + lastSeededId);
+        }
+    }
+
+    /** Loads count generated products through the production import path. */
+    static void seed(int count) throws Exception {
+        new ProductDAO().importProducts(products(count, SEED), 5000, new ImportResult());
+    }
+
+    /** Product number i of a deterministic catalog; names and shades are unique per i. */
+    static Product product(int i, Random random) {
+        return new Product(0,
+                "Product " + i + " " + WORDS[random.nextInt(WORDS.length)],
+                CATEGORIES[random.nextInt(CATEGORIES.length)],
+                String.format("%03d", i % 1000),
+                Math.round(random.nextDouble() * 200_000) / 100.0,
+                random.nextInt(500));
+    }
+
+    static Iterator<Product> products(int count, long seed) {
+        Random random = new Random(seed);
+        return new Iterator<Product>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return next < count;
+            }
+
+            @Override
+            public Product next() {
+                if (next >= count) throw new NoSuchElementException();
+                return product(next++, random);
+            }
+        };
+    }
+
+    static List<Product> productList(int count, long seed) {
+        List<Product> list = new ArrayList<>(count);
+        products(count, seed).forEachRemaining(list::add);
+        return list;
+    }
+
+    private static final String[] WORDS = {
+            "Velvet", "Matte", "Rose", "Nude", "Coral", "Berry", "Satin", "Glow", "Ruby", "Peach"
+    };
+}
@@ -0,0 +1,67 @@
+package inventory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Retained heap of the catalog's product storage, old layout against new:
+ * a List of Product objects with a HashMap id lookup, versus ProductStore.
+ * Strings are copied per row, as JDBC hands them out. Run as a plain main
+ * class, e.g. {@code java -Xmx4g inventory.CatalogFootprint 1000000}.
+ */
+public class CatalogFootprint {
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+        long base = usedHeap();
+        List<Product> list = generate(count);
+        Map<Integer, Integer> slotById = new HashMap<>();
+        for (int i = 0; i < list.size(); i++) slotById.put(list.get(i).getId(), i);
+        long listBytes = usedHeap() - base;
+        System.out.printf("List<Product> + HashMap: %,d bytes (%.1f per product)%n", listBytes, (double) listBytes / count);
+        list = null;
+        slotById = null;
+
+        base = usedHeap();
+        ProductStore store = load(generate(count));
+        long storeBytes = usedHeap() - base;
+        System.out.printf("ProductStore:            %,d bytes (%.1f per product)%n", storeBytes, (double) storeBytes / count);
+        System.out.printf("Ratio: %.2f%n", (double) storeBytes / listBytes);
+        System.out.println(store.slotCount()); // keep the store reachable until measured
+    }
+
+    // In its own frame so the generated list is garbage by the time the heap is measured.
+    private static ProductStore load(List<Product> products) {
+        ProductStore store = new ProductStore();
+        for (Product p : products) store.append(p);
+        store.trimAfterLoad();
+        return store;
+    }
+
+    private static List<Product> generate(int count) {
+        Random random = new Random(BenchDatabase.SEED);
+        List<Product> list = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Product p = BenchDatabase.product(i, random);
+            list.add(new Product(i + 1, new String(p.getName()), new String(p.getCategory()),
+                    new String(p.getShade()), p.getPrice(), p.getNoOfItems()));
+        }
+        return list;
+    }
+
+    private static long usedHeap() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return rt.totalMemory() - rt.freeMemory();
+    }
+}
@@ -0,0 +1,126 @@
+package inventory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What InventoryGUI.applyFilters costs in local mode: ProductCatalog.filter
+ * with its trigram and price indexes, next to the plain scan it replaced.
+ * sequentialFilter is the same catalog with fork/join splitting turned off.
+ * linearScan and listSummary walk a List of Product objects (the old
+ * catalog layout); columnarScan and storeSummary do the same work over the
+ * ProductStore columns. No database is involved; the catalog is built from
+ * generated products.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class FilterBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    @Param({"search", "category", "price", "combined"})
+    public String kind;
+
+    private List<Product> products;
+    private ProductCatalog catalog;
+    private ProductFilter filter;
+    private ProductCatalog sequentialCatalog;
+    private ProductStore store;
+    private int[] allSlots;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        products = BenchDatabase.productList(size, BenchDatabase.SEED);
+        for (int i = 0; i < products.size(); i++) {
+            products.get(i).setId(i + 1);
+        }
+        catalog = new ProductCatalog();
+        catalog.load(products);
+        sequentialCatalog = new ProductCatalog(Integer.MAX_VALUE, ForkJoinPool.commonPool());
+        sequentialCatalog.load(products);
+        store = new ProductStore();
+        for (Product p : products) store.append(p);
+        store.trimAfterLoad();
+        allSlots = new int[products.size()];
+        for (int i = 0; i < allSlots.length; i++) allSlots[i] = i;
+        switch (kind) {
+            case "search":
+                filter = new ProductFilter("velvet", null, null, null);
+                break;
+            case "category":
+                filter = new ProductFilter(null, "Blush", null, null);
+                break;
+            case "price":
+                filter = new ProductFilter(null, null, 100.0, 150.0);
+                break;
+            default:
+                filter = new ProductFilter("rose", "Lipstick", 50.0, 500.0);
+        }
+    }
+
+    @Benchmark
+    public int[] indexedFilter() {
+        return catalog.filter(filter);
+    }
+
+    @Benchmark
+    public int linearScan() {
+        int matches = 0;
+        for (Product p : products) {
+            if (filter.matches(p)) matches++;
+        }
+        return matches;
+    }
+
+    @Benchmark
+    public ProductSummary filterAndSummarize() {
+        return catalog.summarize(filter, catalog.filter(filter));
+    }
+
+    @Benchmark
+    public int[] sequentialFilter() {
+        return sequentialCatalog.filter(filter);
+    }
+
+    @Benchmark
+    public int columnarScan() {
+        ProductStore.Matcher matcher = store.matcher(filter);
+        int matches = 0;
+        for (int slot = 0, n = store.slotCount(); slot < n; slot++) {
+            if (matcher.matches(slot)) matches++;
+        }
+        return matches;
+    }
+
+    @Benchmark
+    public double listSummary() {
+        double value = 0;
+        for (Product p : products) {
+            value += p.getPrice() * p.getNoOfItems();
+        }
+        return value;
+    }
+
+    @Benchmark
+    public ProductSummary storeSummary() {
+        return store.summarize(allSlots);
+    }
+}
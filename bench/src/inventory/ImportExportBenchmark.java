@@ -0,0 +1,76 @@
+package inventory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Whole-file CSV import through CsvImporter and CSV export through
+ * ProductDAO.exportProducts. Each call moves the full table, so these run
+ * as single shots rather than in a timed loop.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ImportExportBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Database {
+        @Param({"1000", "100000", "1000000"})
+        public int size;
+
+        Path csv;
+        Path out;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Exception {
+            BenchDatabase.start("io" + size);
+            BenchDatabase.seed(size);
+            csv = Files.createTempFile("bench-import", ".csv");
+            out = Files.createTempFile("bench-export", ".csv");
+            new ProductDAO().exportProducts(csv, ExportFormat.CSV);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws Exception {
+            BenchDatabase.stop();
+            Files.deleteIfExists(csv);
+            Files.deleteIfExists(out);
+        }
+    }
+
+    /** Empties the table before every import so each one inserts the whole file. */
+    @State(Scope.Benchmark)
+    public static class EmptyTable {
+        @Setup(Level.Invocation)
+        public void truncate(Database db) throws Exception {
+            BenchDatabase.truncate();
+        }
+    }
+
+    @Benchmark
+    public ImportResult importCsv(Database db, EmptyTable empty) throws Exception {
+        return new CsvImporter(new ProductDAO()).importFile(db.csv);
+    }
+
+    @Benchmark
+    public int exportCsv(Database db) throws Exception {
+        return new ProductDAO().exportProducts(db.out, ExportFormat.CSV);
+    }
+}
@@ -0,0 +1,107 @@
+package inventory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Point and page queries issued by the inventory screens, against a seeded
+ * products table. getAllProducts is what the local catalog load costs; the
+ * paged query and summary are what server mode pays per scroll or filter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ProductDAOBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private ProductDAO dao;
+    private Random random;
+    private int nextNew;
+    private List<Product> existing;
+
+    private static final ProductFilter LIPSTICK = new ProductFilter(null, "Lipstick", null, null);
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        BenchDatabase.start("dao" + size);
+        BenchDatabase.seed(size);
+        dao = new ProductDAO();
+        random = new Random(7);
+        nextNew = size;
+        // The seed generator is deterministic, so its head is a sample of rows known to exist.
+        existing = BenchDatabase.productList(Math.min(size, 1024), BenchDatabase.SEED);
+    }
+
+    // addProduct grows the table by one row per call; put it back to the seeded size so
+    // every iteration (and every later query) measures the same table.
+    @TearDown(Level.Iteration)
+    public void removeAdded() throws Exception {
+        if (nextNew > size) {
+            BenchDatabase.deleteAbove(size);
+            nextNew = size;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchDatabase.stop();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public ArrayList<Product> getAllProducts() {
+        return dao.getAllProducts();
+    }
+
+    @Benchmark
+    public boolean existsByNameAndShadeHit() {
+        Product p = existing.get(random.nextInt(existing.size()));
+        return dao.existsByNameAndShade(p.getName(), p.getShade(), null);
+    }
+
+    @Benchmark
+    public boolean existsByNameAndShadeMiss() {
+        return dao.existsByNameAndShade("No such product " + random.nextInt(), "000", null);
+    }
+
+    @Benchmark
+    public Product findById() {
+        return dao.findById(1 + random.nextInt(size));
+    }
+
+    @Benchmark
+    public WriteResult addProduct() {
+        return dao.addProduct(BenchDatabase.product(nextNew++, random));
+    }
+
+    @Benchmark
+    public ArrayList<Product> findProductsPage() {
+        return dao.findProducts(LIPSTICK, random.nextInt(size), 200);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public ProductSummary summarize() {
+        return dao.summarize(LIPSTICK);
+    }
+}
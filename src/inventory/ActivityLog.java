@@ -0,0 +1,197 @@
+package inventory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Appends activity entries to inventory_log.txt from a single writer thread.
+ * Callers only enqueue; the writer groups whatever has queued up into one
+ * channel write once log.flushEvery entries are pending or the oldest has
+ * waited log.flushIntervalMs, and optionally fsyncs (log.fsync) after each
+ * write. The queue is bounded (log.queueCapacity), so a stalled disk slows
+ * callers down instead of growing the heap.
+ *
+ * A failed open or write stops the writer; whatever it had not written stays
+ * unacknowledged, flush() reports it as an IOException and append() refuses
+ * further entries rather than waiting on a queue nobody drains.
+ */
+public class ActivityLog implements AutoCloseable {
+    public static final String DEFAULT_FILE = "inventory_log.txt";
+
+    // Identity marker asking the writer to write out everything queued so far.
+    private static final String FLUSH = new String("<flush>");
+
+    private static ActivityLog instance;
+
+    private final Path file;
+    private final BlockingQueue<String> queue;
+    private final int flushEvery;
+    private final long flushIntervalMs;
+    private final boolean fsync;
+    private final Thread writer;
+    private final AtomicLong appended = new AtomicLong();
+    private final Object progress = new Object();
+    private long written = 0; // guarded by progress
+    private volatile boolean closed = false;
+    private volatile IOException failure; // why the writer stopped, if it failed
+
+    public static synchronized ActivityLog get() {
+        if (instance == null) {
+            instance = new ActivityLog(Paths.get(DEFAULT_FILE),
+                    Integer.getInteger("log.queueCapacity", 10_000),
+                    Integer.getInteger("log.flushEvery", 64),
+                    Long.getLong("log.flushIntervalMs", 200L),
+                    Boolean.getBoolean("log.fsync"));
+            Runtime.getRuntime().addShutdownHook(new Thread(instance::close, "activity-log-shutdown"));
+        }
+        return instance;
+    }
+
+    public ActivityLog(Path file, int queueCapacity, int flushEvery, long flushIntervalMs, boolean fsync) {
+        this.file = file;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.flushEvery = Math.max(1, flushEvery);
+        this.flushIntervalMs = Math.max(1, flushIntervalMs);
+        this.fsync = fsync;
+        this.writer = new Thread(this::writeLoop, "activity-log-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Queues one complete line (including its line separator); blocks while the
+     * queue is full. Throws IllegalStateException once the log is closed or its
+     * writer has stopped.
+     */
+    public void append(String entry) {
+        if (closed) {
+            throw new IllegalStateException("Activity log is closed");
+        }
+        try {
+            do {
+                if (!writer.isAlive()) {
+                    throw new IllegalStateException("Activity log writer stopped", failure);
+                }
+            } while (!queue.offer(entry, 100, TimeUnit.MILLISECONDS));
+            appended.incrementAndGet();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Waits until every entry appended before this call has reached the file.
+     * Throws if the writer stopped before getting there.
+     */
+    public void flush() throws IOException {
+        long target = appended.get();
+        synchronized (progress) {
+            if (written >= target) return;
+        }
+        try {
+            while (!queue.offer(FLUSH, 100, TimeUnit.MILLISECONDS)) {
+                if (!writer.isAlive()) break;
+            }
+            synchronized (progress) {
+                while (written < target && writer.isAlive()) {
+                    progress.wait(100);
+                }
+                if (written < target) {
+                    throw new IOException("Activity log writer stopped with "
+                            + (target - written) + " entries not written", failure);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        queue.offer(FLUSH);
+        try {
+            writer.join(5_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeLoop() {
+        StringBuilder pending = new StringBuilder();
+        int pendingCount = 0;
+        long firstPendingAt = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            while (true) {
+                long waitMs = pendingCount == 0
+                        ? flushIntervalMs
+                        : Math.max(0, firstPendingAt + flushIntervalMs - System.currentTimeMillis());
+                String entry = queue.poll(waitMs, TimeUnit.MILLISECONDS);
+                boolean forced = false;
+                while (entry != null) {
+                    if (entry == FLUSH) {
+                        forced = true;
+                    } else {
+                        if (pendingCount == 0) firstPendingAt = System.currentTimeMillis();
+                        pending.append(entry);
+                        pendingCount++;
+                    }
+                    entry = pendingCount < flushEvery ? queue.poll() : null;
+                }
+
+                boolean due = pendingCount >= flushEvery
+                        || (pendingCount > 0 && System.currentTimeMillis() - firstPendingAt >= flushIntervalMs);
+                if (pendingCount > 0 && (due || forced || closed)) {
+                    write(channel, pending);
+                    markWritten(pendingCount);
+                    pending.setLength(0);
+                    pendingCount = 0;
+                }
+                if (closed && queue.isEmpty() && pendingCount == 0) {
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            failure = e;
+            e.printStackTrace();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            synchronized (progress) {
+                progress.notifyAll();
+            }
+        }
+    }
+
+    private void write(FileChannel channel, StringBuilder pending) throws IOException {
+        ByteBuffer buf = ByteBuffer.wrap(pending.toString().getBytes(StandardCharsets.UTF_8));
+        while (buf.hasRemaining()) {
+            channel.write(buf);
+        }
+        if (fsync) {
+            channel.force(false);
+        }
+    }
+
+    private void markWritten(int count) {
+        synchronized (progress) {
+            written += count;
+            progress.notifyAll();
+        }
+    }
+}
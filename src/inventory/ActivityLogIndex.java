@@ -0,0 +1,330 @@
+package inventory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Timestamp and product-id index over inventory_log.txt, persisted next to
+ * it as inventory_log.txt.idx. Only the part of the log appended since the
+ * last refresh is scanned; queries binary-search the index and then read the
+ * matching lines straight out of a memory mapping of the log.
+ */
+public class ActivityLogIndex {
+    private static final int MAGIC = 0x494C4F47; // "ILOG"
+    private static final int VERSION = 1;
+    private static final int MAP_WINDOW = 64 * 1024 * 1024;
+    private static final int HEAD_BYTES = 256;
+    // Times are stored relative to this so (time << 32 | index) sort keys stay positive.
+    private static final long TIME_BASE = LocalDateTime.of(2000, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC);
+
+    private final Path log;
+    private final Path sidecar;
+
+    private long indexedLength = 0;
+    private long headChecksum = 0;
+    private int size = 0;
+    private long[] times = new long[1024];
+    private int[] ids = new int[1024];
+    private long[] offsets = new long[1024];
+    private int[] byTime;
+    private int[] byProduct;
+
+    private ActivityLogIndex(Path log) {
+        this.log = log;
+        this.sidecar = log.resolveSibling(log.getFileName() + ".idx");
+    }
+
+    public static ActivityLogIndex open(Path log) throws IOException {
+        ActivityLogIndex index = new ActivityLogIndex(log);
+        index.loadSidecar();
+        index.refresh();
+        return index;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getIndexedLength() {
+        return indexedLength;
+    }
+
+    /** Indexes whatever was appended since the last call and saves the sidecar. */
+    public synchronized void refresh() throws IOException {
+        long length = Files.exists(log) ? Files.size(log) : 0;
+        if (length < indexedLength || (indexedLength > 0 && headChecksum != checksumHead())) {
+            // The log was truncated or replaced; start over.
+            clear();
+        }
+        if (length == indexedLength) {
+            return;
+        }
+        if (indexedLength == 0) {
+            headChecksum = checksumHead();
+        }
+
+        try (FileChannel ch = FileChannel.open(log, StandardOpenOption.READ)) {
+            long base = indexedLength;
+            while (base < length) {
+                int window = (int) Math.min(MAP_WINDOW, length - base);
+                MappedByteBuffer map = ch.map(FileChannel.MapMode.READ_ONLY, base, window);
+                int consumed = scan(map, base);
+                if (consumed == 0) {
+                    break; // trailing partial line, or a line longer than the window
+                }
+                base += consumed;
+            }
+            indexedLength = base;
+        }
+        byTime = null;
+        byProduct = null;
+        saveSidecar();
+    }
+
+    // Indexes every complete line in the buffer; returns the bytes consumed.
+    private int scan(ByteBuffer buf, long base) {
+        int lineStart = 0;
+        byte[] head = new byte[64];
+        for (int i = 0; i < buf.limit(); i++) {
+            if (buf.get(i) != '\n') continue;
+            int len = Math.min(head.length, i - lineStart);
+            for (int j = 0; j < len; j++) head[j] = buf.get(lineStart + j);
+            String prefix = new String(head, 0, len, StandardCharsets.ISO_8859_1);
+            long epoch = LogEntry.parseEpochSecond(prefix);
+            int id = parseId(prefix);
+            if (epoch != Long.MIN_VALUE && id != Integer.MIN_VALUE) {
+                append(epoch, id, base + lineStart);
+            }
+            lineStart = i + 1;
+        }
+        return lineStart;
+    }
+
+    private static int parseId(String prefix) {
+        int at = prefix.indexOf("| ID:");
+        if (at < 0) return Integer.MIN_VALUE;
+        int i = at + 5;
+        int end = i;
+        while (end < prefix.length() && Character.isDigit(prefix.charAt(end))) end++;
+        if (end == i) return Integer.MIN_VALUE;
+        try {
+            return Integer.parseInt(prefix.substring(i, end));
+        } catch (NumberFormatException e) {
+            return Integer.MIN_VALUE;
+        }
+    }
+
+    private void append(long epoch, int id, long offset) {
+        if (size == times.length) {
+            int cap = size * 2;
+            times = Arrays.copyOf(times, cap);
+            ids = Arrays.copyOf(ids, cap);
+            offsets = Arrays.copyOf(offsets, cap);
+        }
+        times[size] = epoch;
+        ids[size] = id;
+        offsets[size] = offset;
+        size++;
+    }
+
+    private void clear() {
+        size = 0;
+        indexedLength = 0;
+        headChecksum = 0;
+        byTime = null;
+        byProduct = null;
+    }
+
+    // ================= QUERIES =================
+
+    /** Entries with from <= time < to, oldest first. Null bounds are open. */
+    public List<LogEntry> between(LocalDateTime from, LocalDateTime to) throws IOException {
+        return between(from, to, Integer.MAX_VALUE);
+    }
+
+    /** Like between(from, to), but only the newest limit entries. */
+    public synchronized List<LogEntry> between(LocalDateTime from, LocalDateTime to, int limit) throws IOException {
+        ensureSorted();
+        long lo = from == null ? Long.MIN_VALUE : from.toEpochSecond(ZoneOffset.UTC);
+        long hi = to == null ? Long.MAX_VALUE : to.toEpochSecond(ZoneOffset.UTC);
+        int start = lowerBoundTime(lo);
+        int end = lowerBoundTime(hi);
+        start = (int) Math.max(start, (long) end - limit);
+        int[] picks = Arrays.copyOfRange(byTime, start, Math.max(start, end));
+        return read(picks);
+    }
+
+    /** History of one product within [from, to), oldest first. Null bounds are open. */
+    public List<LogEntry> forProduct(int productId, LocalDateTime from, LocalDateTime to) throws IOException {
+        return forProduct(productId, from, to, Integer.MAX_VALUE);
+    }
+
+    /** Like forProduct(productId, from, to), but only the last limit entries in the log. */
+    public synchronized List<LogEntry> forProduct(int productId, LocalDateTime from, LocalDateTime to, int limit)
+            throws IOException {
+        ensureSorted();
+        long lo = from == null ? Long.MIN_VALUE : from.toEpochSecond(ZoneOffset.UTC);
+        long hi = to == null ? Long.MAX_VALUE : to.toEpochSecond(ZoneOffset.UTC);
+        int start = lowerBoundProduct(productId);
+        int end = lowerBoundProduct(productId + 1L);
+        int[] picks = new int[end - start];
+        int n = 0;
+        for (int i = start; i < end; i++) {
+            int e = byProduct[i];
+            if (times[e] >= lo && times[e] < hi) picks[n++] = e;
+        }
+        return read(Arrays.copyOfRange(picks, Math.max(0, n - limit), n));
+    }
+
+    private int lowerBoundTime(long epoch) {
+        int lo = 0, hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (times[byTime[mid]] < epoch) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+
+    private int lowerBoundProduct(long productId) {
+        int lo = 0, hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (ids[byProduct[mid]] < productId) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+
+    // Sorts entry numbers by (time, position) and by (product id, position) using packed long keys.
+    private void ensureSorted() {
+        if (byTime != null) return;
+        long[] keys = new long[size];
+        for (int i = 0; i < size; i++) {
+            long t = Math.max(0, Math.min(Integer.MAX_VALUE, times[i] - TIME_BASE));
+            keys[i] = (t << 32) | i;
+        }
+        byTime = unpack(keys);
+        for (int i = 0; i < size; i++) {
+            keys[i] = ((long) ids[i] << 32) | i;
+        }
+        byProduct = unpack(keys);
+    }
+
+    private static int[] unpack(long[] keys) {
+        Arrays.sort(keys);
+        int[] order = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            order[i] = (int) keys[i];
+        }
+        return order;
+    }
+
+    private List<LogEntry> read(int[] entries) throws IOException {
+        List<LogEntry> result = new ArrayList<>(entries.length);
+        if (entries.length == 0) return result;
+        try (FileChannel ch = FileChannel.open(log, StandardOpenOption.READ)) {
+            long length = Math.min(ch.size(), indexedLength);
+            MappedByteBuffer map = null;
+            long mapBase = -1;
+            for (int e : entries) {
+                long offset = offsets[e];
+                if (map == null || offset < mapBase || offset >= mapBase + map.limit()) {
+                    mapBase = offset;
+                    map = ch.map(FileChannel.MapMode.READ_ONLY, mapBase, Math.min(MAP_WINDOW, length - mapBase));
+                }
+                LogEntry entry = LogEntry.parse(readLine(map, (int) (offset - mapBase)), offset);
+                if (entry != null) result.add(entry);
+            }
+        }
+        return result;
+    }
+
+    private static String readLine(ByteBuffer map, int pos) {
+        int end = pos;
+        while (end < map.limit() && map.get(end) != '\n') end++;
+        byte[] bytes = new byte[end - pos];
+        for (int i = 0; i < bytes.length; i++) bytes[i] = map.get(pos + i);
+        String line = new String(bytes, StandardCharsets.UTF_8);
+        return line.endsWith("\r") ? line.substring(0, line.length() - 1) : line;
+    }
+
+    // ================= SIDECAR =================
+
+    private long checksumHead() throws IOException {
+        if (!Files.exists(log)) return 0;
+        try (FileChannel ch = FileChannel.open(log, StandardOpenOption.READ)) {
+            ByteBuffer buf = ByteBuffer.allocate(HEAD_BYTES);
+            while (buf.hasRemaining() && ch.read(buf) > 0) {
+                // keep reading until full or EOF
+            }
+            buf.flip();
+            CRC32 crc = new CRC32();
+            crc.update(buf);
+            return crc.getValue();
+        }
+    }
+
+    private void loadSidecar() {
+        if (!Files.exists(sidecar)) return;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(sidecar)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) return;
+            long length = in.readLong();
+            long checksum = in.readLong();
+            int count = in.readInt();
+            times = new long[Math.max(1024, count)];
+            ids = new int[times.length];
+            offsets = new long[times.length];
+            for (int i = 0; i < count; i++) {
+                times[i] = in.readLong();
+                ids[i] = in.readInt();
+                offsets[i] = in.readLong();
+            }
+            size = count;
+            indexedLength = length;
+            headChecksum = checksum;
+        } catch (IOException e) {
+            // A damaged sidecar only costs a rescan.
+            clear();
+        }
+    }
+
+    private void saveSidecar() {
+        Path tmp = sidecar.resolveSibling(sidecar.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(indexedLength);
+            out.writeLong(headChecksum);
+            out.writeInt(size);
+            for (int i = 0; i < size; i++) {
+                out.writeLong(times[i]);
+                out.writeInt(ids[i]);
+                out.writeLong(offsets[i]);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+        try {
+            Files.move(tmp, sidecar, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
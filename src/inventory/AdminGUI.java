@@ -4,8 +4,10 @@ import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.KeyEvent;
-import java.io.FileWriter;
-import java.util.List;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 
 public class AdminGUI extends JFrame {
 
@@ -19,9 +21,12 @@ public class AdminGUI extends JFrame {
     private JTextField txtSearch;
     private JTable table;
     private DefaultTableModel model;
-    private final UserDAO userDAO = new UserDAO();
-    private final ProductDAO productDAO = new ProductDAO();
+    private final UserDAO userDAO = UserDAO.create();
+    private final ProductDAO productDAO = ProductDAO.create();
+    private final JProgressBar busyBar = new JProgressBar();
+    private final BackgroundTasks tasks = BackgroundTasks.forWindow(this, busyBar);
     private int selectedId = -1;
+    private final JLabel lblInventory = new JLabel("Inventory: loading...");
 
     public AdminGUI() {
         setTitle("Admin - Employee Management");
@@ -49,6 +54,9 @@ public class AdminGUI extends JFrame {
         JButton btnClear = new JButton("Clear");
         JButton btnExportCsv = new JButton("Export Inventory CSV");
         JButton btnExportTxt = new JButton("Export Inventory Notepad");
+        JButton btnSnapshot = new JButton("Snapshot Inventory");
+        JButton btnRestore = new JButton("Restore From Snapshot");
+        JButton btnMetrics = new JButton("Dump Metrics");
         JButton btnLogout = new JButton("Logout");
 
         gbc.gridx = 0; gbc.gridy = 0; gbc.weightx = 0;
@@ -69,7 +77,11 @@ public class AdminGUI extends JFrame {
         buttonRow.add(btnClear);
         buttonRow.add(btnExportCsv);
         buttonRow.add(btnExportTxt);
+        buttonRow.add(btnSnapshot);
+        buttonRow.add(btnRestore);
+        buttonRow.add(btnMetrics);
         buttonRow.add(btnLogout);
+        buttonRow.add(busyBar);
 
         JPanel topPanel = new JPanel(new BorderLayout());
         topPanel.setBackground(PRIMARY);
@@ -100,9 +112,18 @@ public class AdminGUI extends JFrame {
         searchPanel.add(txtSearch);
         searchPanel.add(btnSearch);
         searchPanel.add(btnClearSearch);
-        add(searchPanel, BorderLayout.SOUTH);
+
+        JPanel dashboardPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 8, 4));
+        dashboardPanel.setBackground(SECONDARY);
+        dashboardPanel.add(lblInventory);
+
+        JPanel southPanel = new JPanel(new BorderLayout());
+        southPanel.add(searchPanel, BorderLayout.NORTH);
+        southPanel.add(dashboardPanel, BorderLayout.SOUTH);
+        add(southPanel, BorderLayout.SOUTH);
 
         loadEmployees(null);
+        loadInventorySummary();
 
         table.getSelectionModel().addListSelectionListener(e -> {
             int row = table.getSelectedRow();
@@ -121,6 +142,9 @@ public class AdminGUI extends JFrame {
         btnClearSearch.addActionListener(e -> { txtSearch.setText(""); loadEmployees(null); });
         btnExportCsv.addActionListener(e -> exportInventoryCsv());
         btnExportTxt.addActionListener(e -> exportInventoryTxt());
+        btnSnapshot.addActionListener(e -> snapshotInventory());
+        btnRestore.addActionListener(e -> restoreInventory());
+        btnMetrics.addActionListener(e -> dumpMetrics());
         btnLogout.addActionListener(e -> {
             new LoginGUI().setVisible(true);
             dispose();
@@ -135,11 +159,30 @@ public class AdminGUI extends JFrame {
     }
 
     private void loadEmployees(String search) {
-        model.setRowCount(0);
-        List<User> users = userDAO.listEmployees(search);
-        for (User u : users) {
-            model.addRow(new Object[]{u.getId(), u.getUsername(), u.getRole()});
-        }
+        tasks.runLatest("load", () -> userDAO.listEmployees(search), users -> {
+            model.setRowCount(0);
+            for (User u : users) {
+                model.addRow(new Object[]{u.getId(), u.getUsername(), u.getRole()});
+            }
+        }, this::showDbError);
+    }
+
+    // One streaming pass builds the aggregates; the dashboard then reads O(1) totals.
+    private void loadInventorySummary() {
+        tasks.run("summary", () -> {
+            InventoryAggregates totals = new InventoryAggregates();
+            productDAO.forEachProduct((id, name, category, shade, price, items) ->
+                    totals.add(category, price == null ? 0 : price.doubleValue(), items));
+            return totals;
+        }, totals -> lblInventory.setText("Inventory: " + totals.describe()), e -> {
+            lblInventory.setText("Inventory: unavailable");
+            e.printStackTrace();
+        });
+    }
+
+    private void showDbError(Exception e) {
+        e.printStackTrace();
+        JOptionPane.showMessageDialog(this, "Database error: " + e.getMessage());
     }
 
     private void addEmployee() {
@@ -149,13 +192,15 @@ public class AdminGUI extends JFrame {
             JOptionPane.showMessageDialog(this, "Username and password are required.");
             return;
         }
-        if (userDAO.createUser(user, pass, "employee")) {
-            JOptionPane.showMessageDialog(this, "Employee added.");
-            clearForm();
-            loadEmployees(null);
-        } else {
-            JOptionPane.showMessageDialog(this, "Failed to add employee (maybe duplicate?).");
-        }
+        tasks.run("save", () -> userDAO.createUser(user, pass, "employee"), ok -> {
+            if (ok) {
+                JOptionPane.showMessageDialog(this, "Employee added.");
+                clearForm();
+                loadEmployees(null);
+            } else {
+                JOptionPane.showMessageDialog(this, "Failed to add employee (maybe duplicate?).");
+            }
+        }, this::showDbError);
     }
 
     private void updateEmployee() {
@@ -169,13 +214,16 @@ public class AdminGUI extends JFrame {
             JOptionPane.showMessageDialog(this, "Username is required.");
             return;
         }
-        if (userDAO.updateUser(selectedId, user, pass, "employee")) {
-            JOptionPane.showMessageDialog(this, "Employee updated.");
-            clearForm();
-            loadEmployees(null);
-        } else {
-            JOptionPane.showMessageDialog(this, "Failed to update employee.");
-        }
+        int id = selectedId;
+        tasks.run("save", () -> userDAO.updateUser(id, user, pass, "employee"), ok -> {
+            if (ok) {
+                JOptionPane.showMessageDialog(this, "Employee updated.");
+                clearForm();
+                loadEmployees(null);
+            } else {
+                JOptionPane.showMessageDialog(this, "Failed to update employee.");
+            }
+        }, this::showDbError);
     }
 
     private void deleteEmployee() {
@@ -185,13 +233,16 @@ public class AdminGUI extends JFrame {
         }
         int confirm = JOptionPane.showConfirmDialog(this, "Delete selected employee?", "Confirm", JOptionPane.YES_NO_OPTION);
         if (confirm != JOptionPane.YES_OPTION) return;
-        if (userDAO.deleteUser(selectedId)) {
-            JOptionPane.showMessageDialog(this, "Employee deleted.");
-            clearForm();
-            loadEmployees(null);
-        } else {
-            JOptionPane.showMessageDialog(this, "Failed to delete employee.");
-        }
+        int id = selectedId;
+        tasks.run("save", () -> userDAO.deleteUser(id), ok -> {
+            if (ok) {
+                JOptionPane.showMessageDialog(this, "Employee deleted.");
+                clearForm();
+                loadEmployees(null);
+            } else {
+                JOptionPane.showMessageDialog(this, "Failed to delete employee.");
+            }
+        }, this::showDbError);
     }
 
     private void clearForm() {
@@ -202,49 +253,53 @@ public class AdminGUI extends JFrame {
     }
 
     private void exportInventoryCsv() {
-        try (FileWriter fw = new FileWriter("inventory.csv")) {
-            fw.write("id,name,category,shade,price,no_of_items\n");
-            var products = productDAO.getAllProducts();
-            for (Product p : products) {
-                fw.write(String.format("%d,%s,%s,%s,%.2f,%d%n",
-                        p.getId(),
-                        escapeCsv(p.getName()),
-                        escapeCsv(p.getCategory()),
-                        escapeCsv(p.getShade()),
-                        p.getPrice(),
-                        p.getNoOfItems()));
-            }
-            JOptionPane.showMessageDialog(this, "Exported to inventory.csv");
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this, "Export failed.");
-            e.printStackTrace();
-        }
+        exportInventory(Paths.get("inventory.csv"), ExportFormat.CSV);
     }
 
     private void exportInventoryTxt() {
-        try (FileWriter fw = new FileWriter("inventory_backup.txt")) {
-            var products = productDAO.getAllProducts();
-            for (Product p : products) {
-                fw.write(String.format("%d | %s | %s | %s | %.2f | %d%n",
-                        p.getId(),
-                        p.getName(),
-                        p.getCategory(),
-                        p.getShade(),
-                        p.getPrice(),
-                        p.getNoOfItems()));
+        exportInventory(Paths.get("inventory_backup.txt"), ExportFormat.TXT);
+    }
+
+    private void exportInventory(Path file, ExportFormat format) {
+        tasks.run("export", () -> productDAO.exportProducts(file, format),
+                rows -> JOptionPane.showMessageDialog(this, "Exported " + rows + " products to " + file),
+                e -> {
+                    JOptionPane.showMessageDialog(this, "Export failed.");
+                    e.printStackTrace();
+                });
+    }
+
+    private void snapshotInventory() {
+        tasks.run("recovery", () -> new RecoveryEngine(productDAO).checkpointFromDatabase(),
+                snap -> JOptionPane.showMessageDialog(this,
+                        "Saved a snapshot of " + snap.getProducts().size() + " products."),
+                this::showDbError);
+    }
+
+    // Rebuilds the products table from the newest snapshot plus the activity log after it.
+    private void restoreInventory() {
+        int confirm = JOptionPane.showConfirmDialog(this,
+                "Replace the products table with the inventory recovered from the latest snapshot and activity log?",
+                "Restore Inventory", JOptionPane.YES_NO_OPTION);
+        if (confirm != JOptionPane.YES_OPTION) return;
+
+        tasks.run("recovery", () -> new RecoveryEngine(productDAO).restoreDatabase(), result -> {
+            JOptionPane.showMessageDialog(this, "Restored " + result);
+            loadInventorySummary();
+        }, e -> {
+            if (e instanceof IllegalStateException) {
+                JOptionPane.showMessageDialog(this, "Restore refused: " + e.getMessage());
+            } else {
+                showDbError(e);
             }
-            JOptionPane.showMessageDialog(this, "Exported to inventory_backup.txt");
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this, "Export failed.");
-            e.printStackTrace();
-        }
+        });
     }
 
-    private String escapeCsv(String value) {
-        if (value.contains(",") || value.contains("\"")) {
-            return "\"" + value.replace("\"", "\"\"") + "\"";
-        }
-        return value;
+    // Writes the DAO timing report next to the other exports.
+    private void dumpMetrics() {
+        Path file = Paths.get("metrics-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".txt");
+        tasks.run("metrics", () -> MetricsRegistry.get().dump(file),
+                path -> JOptionPane.showMessageDialog(this, "Metrics written to " + path),
+                this::showDbError);
     }
 }
-
@@ -0,0 +1,162 @@
+package inventory;
+
+import javax.swing.*;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Runs DAO work for one window on a small shared worker pool and posts
+ * results back to the Swing event thread.
+ *
+ * Every task has a key. run() ignores a task whose key is already in flight,
+ * which stops repeated clicks from submitting the same action twice.
+ * runLatest() instead remembers the newest request and runs it once the
+ * current one finishes, which suits reloads. All methods must be called on
+ * the event thread.
+ */
+public class BackgroundTasks {
+
+    private static final ExecutorService WORKERS = createWorkers();
+
+    @FunctionalInterface
+    public interface Task<T> {
+        T call() throws Exception;
+    }
+
+    private final Consumer<Boolean> busyListener;
+    private final Map<String, Runnable> inFlight = new HashMap<>();
+    private final Map<String, Queued> queued = new HashMap<>();
+
+    // A runLatest job waiting for its key; onFailure is told if the pool refuses it later.
+    private static class Queued {
+        final Runnable job;
+        final Consumer<Exception> onFailure;
+
+        Queued(Runnable job, Consumer<Exception> onFailure) {
+            this.job = job;
+            this.onFailure = onFailure;
+        }
+    }
+
+    public BackgroundTasks(Consumer<Boolean> busyListener) {
+        this.busyListener = busyListener;
+    }
+
+    // Shows the bar and a wait cursor on the frame while anything is running.
+    public static BackgroundTasks forWindow(JFrame frame, JProgressBar busyBar) {
+        busyBar.setIndeterminate(true);
+        busyBar.setVisible(false);
+        return new BackgroundTasks(busy -> {
+            busyBar.setVisible(busy);
+            frame.setCursor(busy ? java.awt.Cursor.getPredefinedCursor(java.awt.Cursor.WAIT_CURSOR) : null);
+        });
+    }
+
+    public <T> boolean run(String key, Task<T> work, Consumer<T> onSuccess, Consumer<Exception> onFailure) {
+        if (inFlight.containsKey(key)) {
+            return false;
+        }
+        start(key, wrap(key, work, onSuccess, onFailure));
+        return true;
+    }
+
+    public <T> void runLatest(String key, Task<T> work, Consumer<T> onSuccess, Consumer<Exception> onFailure) {
+        Runnable job = wrap(key, work, onSuccess, onFailure);
+        if (inFlight.containsKey(key)) {
+            queued.put(key, new Queued(job, onFailure));
+        } else {
+            start(key, job);
+        }
+    }
+
+    public boolean isBusy() {
+        return !inFlight.isEmpty();
+    }
+
+    private void start(String key, Runnable job) {
+        boolean wasIdle = inFlight.isEmpty();
+        inFlight.put(key, job);
+        try {
+            WORKERS.execute(job);
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(key);
+            throw e;
+        }
+        if (wasIdle) {
+            busyListener.accept(true);
+        }
+    }
+
+    // Errors are handed to onFailure wrapped in an ExecutionException, so the key is always
+    // released, and then rethrown to the worker thread.
+    private <T> Runnable wrap(String key, Task<T> work, Consumer<T> onSuccess, Consumer<Exception> onFailure) {
+        return () -> {
+            T result = null;
+            Throwable thrown = null;
+            try {
+                result = work.call();
+            } catch (Throwable t) {
+                thrown = t;
+            }
+            T value = result;
+            Exception error = thrown == null || thrown instanceof Exception
+                    ? (Exception) thrown
+                    : new ExecutionException(thrown);
+            SwingUtilities.invokeLater(() -> finish(key, value, error, onSuccess, onFailure));
+            if (thrown instanceof Error) {
+                throw (Error) thrown;
+            }
+        };
+    }
+
+    private <T> void finish(String key, T value, Exception error,
+                            Consumer<T> onSuccess, Consumer<Exception> onFailure) {
+        inFlight.remove(key);
+        try {
+            if (error == null) {
+                onSuccess.accept(value);
+            } else {
+                onFailure.accept(error);
+            }
+        } finally {
+            startQueued(key);
+        }
+    }
+
+    private void startQueued(String key) {
+        Queued next = queued.remove(key);
+        if (next != null) {
+            try {
+                start(key, next.job);
+                return;
+            } catch (RejectedExecutionException e) {
+                next.onFailure.accept(e);
+            }
+        }
+        if (inFlight.isEmpty()) {
+            busyListener.accept(false);
+        }
+    }
+
+    private static ExecutorService createWorkers() {
+        int threads = Integer.getInteger("gui.workerThreads", 4);
+        int queueSize = Integer.getInteger("gui.workerQueue", 64);
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads,
+                30, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueSize), r -> {
+            Thread t = new Thread(r, "db-worker-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
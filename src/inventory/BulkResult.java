@@ -0,0 +1,38 @@
+package inventory;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of a multi-row product write, which either commits as a whole or
+ * not at all. On success it carries the rows as they now stand (or as they
+ * were, for deletes) plus the ids that no longer existed and were skipped.
+ */
+public class BulkResult {
+    private final WriteResult.Status status;
+    private final List<Product> products;
+    private final List<Integer> missingIds;
+
+    private BulkResult(WriteResult.Status status, List<Product> products, List<Integer> missingIds) {
+        this.status = status;
+        this.products = products;
+        this.missingIds = missingIds;
+    }
+
+    static BulkResult ok(List<Product> products, List<Integer> missingIds) {
+        return new BulkResult(WriteResult.Status.OK, products, missingIds);
+    }
+
+    static BulkResult duplicate() {
+        return new BulkResult(WriteResult.Status.DUPLICATE, Collections.emptyList(), Collections.emptyList());
+    }
+
+    static BulkResult failed() {
+        return new BulkResult(WriteResult.Status.FAILED, Collections.emptyList(), Collections.emptyList());
+    }
+
+    public WriteResult.Status getStatus() { return status; }
+    public List<Product> getProducts() { return products; }
+    public List<Integer> getMissingIds() { return missingIds; }
+    public boolean isOk() { return status == WriteResult.Status.OK; }
+}
@@ -0,0 +1,253 @@
+package inventory;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Read-through cache in front of ProductDAO for point lookups: products by
+ * id, the ids owning each case-insensitive (name, shade) pair (including
+ * "none", which is what adds ask about), and the full product list.
+ *
+ * Entries are bounded by dao.cache.maxEntries (LRU) and expire after
+ * dao.cache.ttlMs. Writes through this DAO invalidate what they touch, and
+ * changes seen by a ChangeFeed poll invalidate other terminals' rows, so the
+ * TTL only bounds staleness for terminals that do not sync. Paged queries
+ * and summaries are not cached. Stats are reported by MetricsRegistry.
+ */
+public class CachingProductDAO extends ProductDAO {
+    private static final int[] NO_IDS = new int[0];
+
+    private final LruCache<Integer, Product> byId;
+    private final LruCache<String, int[]> byNameShade;
+    private final LruCache<String, List<Product>> allProducts;
+    // Bumped on every invalidation; a load that raced with one is not cached.
+    private long version = 0;
+
+    public CachingProductDAO() {
+        this(Integer.getInteger("dao.cache.maxEntries", 10_000), Long.getLong("dao.cache.ttlMs", 30_000));
+    }
+
+    public CachingProductDAO(int maxEntries, long ttlMillis) {
+        byId = new LruCache<>(maxEntries, ttlMillis);
+        byNameShade = new LruCache<>(maxEntries, ttlMillis);
+        allProducts = new LruCache<>(1, ttlMillis);
+        MetricsRegistry.get().addCache(this);
+    }
+
+    // ================= READS =================
+
+    @Override
+    public boolean existsByNameAndShade(String name, String shade, Integer excludeId) {
+        String key = nameShadeKey(name, shade);
+        int[] ids = byNameShade.get(key);
+        if (ids == null) {
+            long v = version();
+            try {
+                ids = findIdsByNameAndShade(name, shade);
+            } catch (Exception e) {
+                e.printStackTrace();
+                return false;
+            }
+            int[] loaded = ids.length == 0 ? NO_IDS : ids;
+            cacheIfCurrent(v, () -> byNameShade.put(key, loaded));
+        }
+        for (int id : ids) {
+            if (excludeId == null || id != excludeId) return true;
+        }
+        return false;
+    }
+
+    @Override
+    public Product findById(int id) {
+        Product p = byId.get(id);
+        if (p == null) {
+            long v = version();
+            p = super.findById(id);
+            Product found = p;
+            if (found != null) cacheIfCurrent(v, () -> byId.put(id, found));
+        }
+        return p;
+    }
+
+    @Override
+    public ArrayList<Product> getAllProducts() {
+        List<Product> all = allProducts.get("");
+        if (all == null) {
+            long v = version();
+            ArrayList<Product> loaded = super.getAllProducts();
+            if (!loaded.isEmpty()) { // an empty list may just be a swallowed error
+                cacheIfCurrent(v, () -> allProducts.put("", new ArrayList<>(loaded)));
+            }
+            return loaded;
+        }
+        return new ArrayList<>(all);
+    }
+
+    /** Passes the changes through, dropping cached entries for every row they mention. */
+    @Override
+    public ProductChanges findChangesSince(Timestamp since, int limit) throws Exception {
+        ProductChanges changes = super.findChangesSince(since, limit);
+        if (changes.isTruncated()) {
+            invalidateAll();
+        } else if (!changes.isEmpty()) {
+            for (Product p : changes.getUpserted()) invalidate(p.getId(), p);
+            for (int id : changes.getDeletedIds()) invalidate(id, null);
+        }
+        return changes;
+    }
+
+    // ================= WRITES =================
+
+    @Override
+    public WriteResult addProduct(Product p) {
+        WriteResult result = super.addProduct(p);
+        invalidate(p.getId(), p);
+        return result;
+    }
+
+    @Override
+    public WriteResult updateProduct(Product p) {
+        WriteResult result = super.updateProduct(p);
+        invalidate(p.getId(), p);
+        return result;
+    }
+
+    @Override
+    public WriteResult adjustStock(int id, int delta) {
+        WriteResult result = super.adjustStock(id, delta);
+        invalidate(id, result.getProduct());
+        return result;
+    }
+
+    @Override
+    public WriteResult deleteProduct(int id) {
+        WriteResult result = super.deleteProduct(id);
+        invalidate(id, result.getProduct());
+        return result;
+    }
+
+    @Override
+    public BulkResult addProducts(List<Product> products) {
+        BulkResult result = super.addProducts(products);
+        for (Product p : products) invalidate(p.getId(), p);
+        return result;
+    }
+
+    @Override
+    public BulkResult updateProducts(List<Product> products) {
+        BulkResult result = super.updateProducts(products);
+        for (Product p : products) invalidate(p.getId(), p);
+        return result;
+    }
+
+    @Override
+    public BulkResult deleteProducts(Collection<Integer> ids) {
+        BulkResult result = super.deleteProducts(ids);
+        for (int id : ids) invalidate(id, null);
+        return result;
+    }
+
+    @Override
+    public void importProducts(Iterator<Product> rows, int chunkSize, ImportResult result) throws Exception {
+        try {
+            super.importProducts(rows, chunkSize, result);
+        } finally {
+            invalidateAll();
+        }
+    }
+
+    @Override
+    public void replaceAllProducts(Collection<Product> products) throws Exception {
+        try {
+            super.replaceAllProducts(products);
+        } finally {
+            invalidateAll();
+        }
+    }
+
+    // ================= INVALIDATION =================
+
+    // Drops the row by id, every name/shade entry that lists it, and the
+    // entry for its current name/shade (which may have cached "none").
+    void invalidate(int id, Product current) {
+        bumpVersion();
+        byId.remove(id);
+        byNameShade.removeIf((key, ids) -> contains(ids, id));
+        if (current != null) {
+            byNameShade.remove(nameShadeKey(current.getName(), current.getShade()));
+        }
+        allProducts.clear();
+    }
+
+    public void invalidateAll() {
+        bumpVersion();
+        byId.clear();
+        byNameShade.clear();
+        allProducts.clear();
+    }
+
+    private static boolean contains(int[] ids, int id) {
+        for (int i : ids) {
+            if (i == id) return true;
+        }
+        return false;
+    }
+
+    private synchronized long version() {
+        return version;
+    }
+
+    private synchronized void bumpVersion() {
+        version++;
+    }
+
+    private synchronized void cacheIfCurrent(long loadedAt, Runnable put) {
+        if (version == loadedAt) put.run();
+    }
+
+    // ================= STATS =================
+
+    public Stats getStats() {
+        return new Stats(
+                byId.getHits() + byNameShade.getHits() + allProducts.getHits(),
+                byId.getMisses() + byNameShade.getMisses() + allProducts.getMisses(),
+                byId.getEvictions() + byNameShade.getEvictions(),
+                byId.getExpirations() + byNameShade.getExpirations() + allProducts.getExpirations(),
+                byId.size() + byNameShade.size());
+    }
+
+    public static class Stats {
+        public final long hits;
+        public final long misses;
+        public final long evictions;
+        public final long expirations;
+        public final int entries;
+
+        Stats(long hits, long misses, long evictions, long expirations, int entries) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.expirations = expirations;
+            this.entries = entries;
+        }
+
+        Stats plus(Stats other) {
+            return new Stats(hits + other.hits, misses + other.misses, evictions + other.evictions,
+                    expirations + other.expirations, entries + other.entries);
+        }
+
+        public double getHitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("hits=%d misses=%d hitRate=%.1f%% evictions=%d expirations=%d entries=%d",
+                    hits, misses, getHitRate() * 100, evictions, expirations, entries);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package inventory;
+
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Polls the products table for changes made by any terminal since a
+ * watermark, using products.updated_at and the product_tombstones table.
+ *
+ * Each poll looks back sync.overlapMs before the watermark, because a row
+ * is stamped when its statement runs but only becomes visible when its
+ * transaction commits. Changes already delivered inside that window are
+ * remembered by (id, timestamp) and filtered out, so callers see each
+ * change once.
+ */
+public class ChangeFeed {
+    private static final long OVERLAP_MS = Long.getLong("sync.overlapMs", 5000);
+    private static final int MAX_BATCH = Integer.getInteger("sync.maxBatch", 5000);
+
+    private final ProductDAO dao;
+    private long watermark;
+    private final Map<Integer, Long> seenUpserts = new HashMap<>();
+    private final Map<Integer, Long> seenDeletes = new HashMap<>();
+
+    /** Starts a feed at the given database time, normally read just before a full load. */
+    public ChangeFeed(ProductDAO dao, Timestamp start) {
+        this.dao = dao;
+        this.watermark = start.getTime();
+    }
+
+    /** Changes not delivered by an earlier poll. Call from a worker thread. */
+    public synchronized ProductChanges poll() throws Exception {
+        ProductChanges raw = dao.findChangesSince(new Timestamp(watermark - OVERLAP_MS), MAX_BATCH);
+        if (raw.isTruncated()) {
+            return raw;
+        }
+        ProductChanges fresh = new ProductChanges();
+        long max = watermark;
+        for (int i = 0; i < raw.getDeletedIds().size(); i++) {
+            int id = raw.getDeletedIds().get(i);
+            long at = raw.getDeletedAt().get(i);
+            Long seen = seenDeletes.put(id, at);
+            if (seen == null || seen != at) fresh.addDeleted(id, at);
+            max = Math.max(max, at);
+        }
+        for (int i = 0; i < raw.getUpserted().size(); i++) {
+            Product p = raw.getUpserted().get(i);
+            long at = raw.getUpsertedAt().get(i);
+            Long seen = seenUpserts.put(p.getId(), at);
+            if (seen == null || seen != at) fresh.addUpserted(p, at);
+            max = Math.max(max, at);
+        }
+        watermark = max;
+        prune(seenUpserts);
+        prune(seenDeletes);
+        return fresh;
+    }
+
+    // Entries older than the look-back window can never be returned again.
+    private void prune(Map<Integer, Long> seen) {
+        long floor = watermark - OVERLAP_MS;
+        for (Iterator<Long> it = seen.values().iterator(); it.hasNext(); ) {
+            if (it.next() < floor) it.remove();
+        }
+    }
+}
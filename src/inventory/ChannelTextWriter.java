@@ -0,0 +1,64 @@
+package inventory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * UTF-8 text writer that encodes straight into one large direct buffer and
+ * only touches the file channel when that buffer fills up.
+ */
+public class ChannelTextWriter implements AutoCloseable {
+    public static final int DEFAULT_BUFFER_SIZE = 256 * 1024;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+
+    public ChannelTextWriter(Path file) throws IOException {
+        this(file, DEFAULT_BUFFER_SIZE);
+    }
+
+    public ChannelTextWriter(Path file, int bufferSize) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    public void write(CharSequence text) throws IOException {
+        CharBuffer in = CharBuffer.wrap(text);
+        while (true) {
+            CoderResult r = encoder.encode(in, buffer, false);
+            if (r.isOverflow()) {
+                drain();
+            } else if (r.isError()) {
+                r.throwException();
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            drain();
+        } finally {
+            channel.close();
+        }
+    }
+}
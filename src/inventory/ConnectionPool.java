@@ -0,0 +1,380 @@
+package inventory;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded pool of physical MySQL connections shared by every DAO.
+ * Borrowed connections are handed out as proxies whose close() returns
+ * the physical connection to the pool instead of closing the socket.
+ */
+public class ConnectionPool {
+
+    // Idle connections younger than this are trusted without a validation round trip.
+    private static final long VALIDATION_SKIP_MS = 500;
+
+    private final String url;
+    private final String user;
+    private final String pass;
+    private final int maxSize;
+    private final int minIdle;
+    private final long acquireTimeoutMs;
+    private final int validationTimeoutSec;
+    private final long idleTimeoutMs;
+    private final long leakDetectionMs;
+
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Map<PooledConnection, Borrow> borrowed = new ConcurrentHashMap<>();
+    private final Semaphore permits;
+    private final AtomicInteger total = new AtomicInteger();
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong destroyedCount = new AtomicLong();
+    private final AtomicLong leakCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed = false;
+
+    public ConnectionPool(String url, String user, String pass, int maxSize, int minIdle,
+                          long acquireTimeoutMs, int validationTimeoutSec,
+                          long idleTimeoutMs, long leakDetectionMs) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Pool max size must be at least 1");
+        }
+        this.url = url;
+        this.user = user;
+        this.pass = pass;
+        this.maxSize = maxSize;
+        this.minIdle = Math.max(0, Math.min(minIdle, maxSize));
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        this.validationTimeoutSec = validationTimeoutSec;
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.leakDetectionMs = leakDetectionMs;
+        this.permits = new Semaphore(maxSize, true);
+
+        housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = leakDetectionMs > 0 ? Math.min(leakDetectionMs, 30_000) : 30_000;
+        housekeeper.scheduleWithFixedDelay(this::housekeep, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    public Connection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is shut down");
+        }
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+        if (!acquired) {
+            timeoutCount.incrementAndGet();
+            throw new SQLTimeoutException("Timed out after " + acquireTimeoutMs
+                    + " ms waiting for a database connection (" + getStats() + ")");
+        }
+
+        PooledConnection pc;
+        try {
+            pc = takeIdleOrCreate();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+
+        long waited = System.nanoTime() - start;
+        totalWaitNanos.addAndGet(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+        borrowCount.incrementAndGet();
+        borrowed.put(pc, new Borrow(System.currentTimeMillis(),
+                leakDetectionMs > 0 ? new Throwable("Connection borrowed here") : null));
+        return pc.lease();
+    }
+
+    /**
+     * True if the database answers right now. Checks an idle connection (or
+     * opens one when none is idle) and puts it straight back, without lending
+     * it out or counting a borrow; waits at most the acquire timeout.
+     */
+    public boolean ping() {
+        if (closed) {
+            return false;
+        }
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                return false;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        try {
+            PooledConnection pc = takeIdleOrCreate();
+            pc.lastReturned = System.currentTimeMillis();
+            idle.offerFirst(pc);
+            return true;
+        } catch (SQLException e) {
+            return false;
+        } finally {
+            permits.release();
+        }
+    }
+
+    private PooledConnection takeIdleOrCreate() throws SQLException {
+        PooledConnection pc;
+        while ((pc = idle.pollFirst()) != null) {
+            if (isUsable(pc)) {
+                return pc;
+            }
+            destroy(pc);
+        }
+        return create();
+    }
+
+    private boolean isUsable(PooledConnection pc) {
+        if (System.currentTimeMillis() - pc.lastReturned < VALIDATION_SKIP_MS) {
+            return true;
+        }
+        try {
+            return pc.physical.isValid(validationTimeoutSec);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private PooledConnection create() throws SQLException {
+        Connection physical = DriverManager.getConnection(url, user, pass);
+        total.incrementAndGet();
+        createdCount.incrementAndGet();
+        return new PooledConnection(physical);
+    }
+
+    private void giveBack(PooledConnection pc) {
+        borrowed.remove(pc);
+        try {
+            if (closed) {
+                destroy(pc);
+                return;
+            }
+            try {
+                if (!pc.physical.getAutoCommit()) {
+                    pc.physical.rollback();
+                    pc.physical.setAutoCommit(true);
+                }
+                pc.physical.clearWarnings();
+                pc.lastReturned = System.currentTimeMillis();
+                idle.offerFirst(pc);
+            } catch (SQLException e) {
+                destroy(pc);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void destroy(PooledConnection pc) {
+        total.decrementAndGet();
+        destroyedCount.incrementAndGet();
+        try {
+            pc.physical.close();
+        } catch (SQLException ignored) {
+        }
+    }
+
+    private void housekeep() {
+        try {
+            long now = System.currentTimeMillis();
+
+            // Retire connections that sat idle too long, keeping at least minIdle around.
+            Iterator<PooledConnection> it = idle.descendingIterator();
+            while (it.hasNext() && idle.size() > minIdle) {
+                PooledConnection pc = it.next();
+                if (now - pc.lastReturned > idleTimeoutMs && idle.removeFirstOccurrence(pc)) {
+                    destroy(pc);
+                }
+            }
+
+            while (!closed && idle.size() < minIdle && total.get() < maxSize && permits.tryAcquire()) {
+                try {
+                    PooledConnection pc = create();
+                    pc.lastReturned = now;
+                    idle.offerLast(pc);
+                } catch (SQLException e) {
+                    break;
+                } finally {
+                    permits.release();
+                }
+            }
+
+            if (leakDetectionMs > 0) {
+                for (Borrow b : borrowed.values()) {
+                    if (!b.reported && now - b.borrowedAt > leakDetectionMs) {
+                        b.reported = true;
+                        leakCount.incrementAndGet();
+                        System.err.println("Possible connection leak: held for "
+                                + (now - b.borrowedAt) + " ms");
+                        b.site.printStackTrace();
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+
+    public void shutdown() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledConnection pc;
+        while ((pc = idle.pollFirst()) != null) {
+            destroy(pc);
+        }
+    }
+
+    public Stats getStats() {
+        long borrows = borrowCount.get();
+        return new Stats(
+                total.get(),
+                idle.size(),
+                borrowed.size(),
+                permits.getQueueLength(),
+                maxSize,
+                borrows,
+                timeoutCount.get(),
+                createdCount.get(),
+                destroyedCount.get(),
+                leakCount.get(),
+                borrows == 0 ? 0 : totalWaitNanos.get() / borrows / 1_000_000.0,
+                maxWaitNanos.get() / 1_000_000.0
+        );
+    }
+
+    public static class Stats {
+        public final int total;
+        public final int idle;
+        public final int active;
+        public final int waiting;
+        public final int maxSize;
+        public final long borrows;
+        public final long timeouts;
+        public final long created;
+        public final long destroyed;
+        public final long leaks;
+        public final double avgWaitMs;
+        public final double maxWaitMs;
+
+        Stats(int total, int idle, int active, int waiting, int maxSize, long borrows,
+              long timeouts, long created, long destroyed, long leaks,
+              double avgWaitMs, double maxWaitMs) {
+            this.total = total;
+            this.idle = idle;
+            this.active = active;
+            this.waiting = waiting;
+            this.maxSize = maxSize;
+            this.borrows = borrows;
+            this.timeouts = timeouts;
+            this.created = created;
+            this.destroyed = destroyed;
+            this.leaks = leaks;
+            this.avgWaitMs = avgWaitMs;
+            this.maxWaitMs = maxWaitMs;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("total=%d/%d idle=%d active=%d waiting=%d borrows=%d timeouts=%d "
+                            + "created=%d destroyed=%d leaks=%d avgWait=%.2fms maxWait=%.2fms",
+                    total, maxSize, idle, active, waiting, borrows, timeouts,
+                    created, destroyed, leaks, avgWaitMs, maxWaitMs);
+        }
+    }
+
+    private static class Borrow {
+        final long borrowedAt;
+        final Throwable site;
+        volatile boolean reported;
+
+        Borrow(long borrowedAt, Throwable site) {
+            this.borrowedAt = borrowedAt;
+            this.site = site;
+        }
+    }
+
+    private class PooledConnection {
+        final Connection physical;
+        volatile long lastReturned = System.currentTimeMillis();
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+        }
+
+        Connection lease() {
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    new Lease(this));
+        }
+    }
+
+    // One handle per borrow, so a stale handle cannot touch a connection someone else now holds.
+    private class Lease implements InvocationHandler {
+        private final PooledConnection pc;
+        private final AtomicBoolean released = new AtomicBoolean(false);
+
+        Lease(PooledConnection pc) {
+            this.pc = pc;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (released.compareAndSet(false, true)) {
+                        giveBack(pc);
+                    }
+                    return null;
+                case "isClosed":
+                    return released.get() || pc.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + pc.physical + "]";
+                default:
+                    if (released.get()) {
+                        throw new SQLException("Connection has already been returned to the pool");
+                    }
+                    try {
+                        return method.invoke(pc.physical, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+            }
+        }
+    }
+}
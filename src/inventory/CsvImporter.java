@@ -0,0 +1,148 @@
+package inventory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Loads inventory.csv style files (id,name,category,shade,price,no_of_items)
+ * into the products table in a single transaction. The id column is ignored;
+ * rows whose name and shade already exist are skipped.
+ */
+public class CsvImporter {
+    public static final int DEFAULT_CHUNK_SIZE = 1000;
+
+    private final ProductDAO dao;
+    private final int chunkSize;
+
+    public CsvImporter(ProductDAO dao) {
+        this(dao, Integer.getInteger("import.chunkSize", DEFAULT_CHUNK_SIZE));
+    }
+
+    public CsvImporter(ProductDAO dao, int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be at least 1");
+        }
+        this.dao = dao;
+        this.chunkSize = chunkSize;
+    }
+
+    public ImportResult importFile(Path file) throws Exception {
+        ImportResult result = new ImportResult();
+        long start = System.nanoTime();
+        try (BufferedReader br = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            br.readLine(); // header
+            try {
+                dao.importProducts(new RowIterator(br, result), chunkSize, result);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+        result.setElapsedNanos(System.nanoTime() - start);
+        return result;
+    }
+
+    // Parses lazily so the file is never held in memory; bad lines are counted and skipped.
+    private static class RowIterator implements Iterator<Product> {
+        private final BufferedReader br;
+        private final ImportResult result;
+        private int lineNo = 1;
+        private Product next;
+
+        RowIterator(BufferedReader br, ImportResult result) {
+            this.br = br;
+            this.result = result;
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                String line;
+                while (next == null && (line = br.readLine()) != null) {
+                    lineNo++;
+                    if (line.isBlank()) continue;
+                    next = parse(line);
+                }
+                return next != null;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public Product next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Product p = next;
+            next = null;
+            return p;
+        }
+
+        private Product parse(String line) {
+            List<String> parts = splitCsv(line);
+            if (parts.size() < 6) {
+                result.addRejected(lineNo, "expected 6 columns, found " + parts.size());
+                return null;
+            }
+            String name = parts.get(1).trim();
+            String category = parts.get(2).trim();
+            String shade = parts.get(3).trim();
+            if (name.isEmpty() || category.isEmpty() || shade.isEmpty()) {
+                result.addRejected(lineNo, "name, category and shade are required");
+                return null;
+            }
+            double price;
+            int items;
+            try {
+                price = Double.parseDouble(parts.get(4).trim());
+                items = Integer.parseInt(parts.get(5).trim());
+            } catch (NumberFormatException e) {
+                result.addRejected(lineNo, "bad price or item count");
+                return null;
+            }
+            if (price < 0 || items < 0) {
+                result.addRejected(lineNo, "price and item count must be non-negative");
+                return null;
+            }
+            return new Product(name, category, shade, price, items);
+        }
+    }
+
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>(6);
+        StringBuilder sb = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        sb.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    sb.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(sb.toString());
+                sb.setLength(0);
+            } else {
+                sb.append(c);
+            }
+        }
+        fields.add(sb.toString());
+        return fields;
+    }
+}
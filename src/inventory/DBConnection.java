@@ -3,31 +3,137 @@ package inventory;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.util.Properties;
 
 public class DBConnection {
     private static final String DEFAULT_URL =
-            "jdbc:mysql://localhost:3306/makeup_inventory?useSSL=false&serverTimezone=UTC";
+            "jdbc:mysql://localhost:3306/makeup_inventory?useSSL=false&serverTimezone=UTC&rewriteBatchedStatements=true";
     private static final String DEFAULT_USER = "root";
     private static final String DEFAULT_PASS = "admin123";
     private static final String PROPERTIES_FILE = "db.properties";
 
+    private static volatile ConnectionPool pool;
+    private static volatile boolean migrated = false;
+    private static final OperationMetrics ACQUIRE = MetricsRegistry.get().operation("DBConnection.acquire");
+
     public static Connection getConnection() throws Exception {
+        if (!MetricsRegistry.ENABLED) {
+            try {
+                return borrow();
+            } catch (Exception e) {
+                MetricsRegistry.noteFailure();
+                throw e;
+            }
+        }
+        long start = System.nanoTime();
+        try {
+            Connection con = borrow();
+            ACQUIRE.record(System.nanoTime() - start, 0, false);
+            return con;
+        } catch (Exception e) {
+            ACQUIRE.record(System.nanoTime() - start, 0, true);
+            MetricsRegistry.noteFailure();
+            throw e;
+        }
+    }
+
+    /** True if the database answers right now; waits at most the pool's acquire timeout. */
+    public static boolean isReachable() {
+        return pool().ping();
+    }
+
+    private static Connection borrow() throws Exception {
+        ConnectionPool p = pool();
+        if (!migrated) {
+            migrate(p);
+        }
+        Connection con = p.borrow();
+        return SqlTracer.ENABLED ? SqlTracer.wrap(con) : con;
+    }
+
+    // Runs once the database is first reachable; if it is down, the next borrow tries again.
+    // Only a run started with -Ddb.migrate=true changes the schema; others just read its version.
+    private static synchronized void migrate(ConnectionPool p) throws Exception {
+        if (migrated) return;
+        try (Connection con = p.borrow()) {
+            if (Boolean.getBoolean("db.migrate")) {
+                SchemaMigrations.apply(con);
+            } else {
+                SchemaMigrations.check(con);
+            }
+        }
+        migrated = true;
+    }
+
+    public static ConnectionPool.Stats getPoolStats() {
+        return pool().getStats();
+    }
+
+    /** Pool stats, or null if no connection has been asked for yet. */
+    static ConnectionPool.Stats getPoolStatsIfStarted() {
+        ConnectionPool p = pool;
+        return p == null ? null : p.getStats();
+    }
+
+    public static synchronized void shutdown() {
+        if (pool != null) {
+            pool.shutdown();
+            pool = null;
+            migrated = false;
+        }
+    }
+
+    private static ConnectionPool pool() {
+        ConnectionPool p = pool;
+        if (p == null) {
+            synchronized (DBConnection.class) {
+                p = pool;
+                if (p == null) {
+                    p = createPool();
+                    pool = p;
+                }
+            }
+        }
+        return p;
+    }
+
+    private static ConnectionPool createPool() {
+        Properties props = loadProperties();
+        String url = setting(props, "DB_URL", "db.url", DEFAULT_URL);
+        String user = setting(props, "DB_USER", "db.user", DEFAULT_USER);
+        String pass = setting(props, "DB_PASS", "db.pass", DEFAULT_PASS);
+
+        int maxSize = Integer.parseInt(setting(props, "DB_POOL_MAX", "db.pool.maxSize", "10"));
+        int minIdle = Integer.parseInt(setting(props, "DB_POOL_MIN_IDLE", "db.pool.minIdle", "2"));
+        long acquireTimeoutMs = Long.parseLong(setting(props, "DB_POOL_TIMEOUT_MS", "db.pool.acquireTimeoutMs", "5000"));
+        int validationTimeoutSec = Integer.parseInt(setting(props, "DB_POOL_VALIDATION_SEC", "db.pool.validationTimeoutSec", "2"));
+        long idleTimeoutMs = Long.parseLong(setting(props, "DB_POOL_IDLE_MS", "db.pool.idleTimeoutMs", "600000"));
+        long leakDetectionMs = Long.parseLong(setting(props, "DB_POOL_LEAK_MS", "db.pool.leakDetectionMs", "30000"));
+
+        ConnectionPool p = new ConnectionPool(url, user, pass, maxSize, minIdle,
+                acquireTimeoutMs, validationTimeoutSec, idleTimeoutMs, leakDetectionMs);
+        Runtime.getRuntime().addShutdownHook(new Thread(p::shutdown, "db-pool-shutdown"));
+        return p;
+    }
+
+    private static Properties loadProperties() {
         Properties props = new Properties();
         if (Files.exists(Paths.get(PROPERTIES_FILE))) {
             try (var in = Files.newInputStream(Paths.get(PROPERTIES_FILE))) {
                 props.load(in);
+            } catch (Exception e) {
+                e.printStackTrace();
             }
         }
+        return props;
+    }
 
-        String url = System.getenv().getOrDefault("DB_URL",
-                props.getProperty("db.url", DEFAULT_URL));
-        String user = System.getenv().getOrDefault("DB_USER",
-                props.getProperty("db.user", DEFAULT_USER));
-        String pass = System.getenv().getOrDefault("DB_PASS",
-                props.getProperty("db.pass", DEFAULT_PASS));
-
-        return DriverManager.getConnection(url, user, pass);
+    // System property wins over environment, environment over db.properties.
+    private static String setting(Properties props, String envKey, String propKey, String defaultValue) {
+        String value = System.getProperty(propKey);
+        if (value != null) {
+            return value;
+        }
+        return System.getenv().getOrDefault(envKey, props.getProperty(propKey, defaultValue));
     }
 }
@@ -0,0 +1,64 @@
+package inventory;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Row layouts for inventory exports. Rows are appended column by column from
+ * raw values, so exports never build Product objects or call String.format.
+ */
+public enum ExportFormat {
+    CSV("id,name,category,shade,price,no_of_items\n") {
+        @Override
+        void appendRow(StringBuilder sb, int id, String name, String category, String shade,
+                       BigDecimal price, int items) {
+            sb.append(id).append(',');
+            appendCsv(sb, name).append(',');
+            appendCsv(sb, category).append(',');
+            appendCsv(sb, shade).append(',');
+            sb.append(formatPrice(price)).append(',');
+            sb.append(items).append(LINE_SEPARATOR);
+        }
+    },
+    TXT("") {
+        @Override
+        void appendRow(StringBuilder sb, int id, String name, String category, String shade,
+                       BigDecimal price, int items) {
+            sb.append(id).append(" | ")
+                    .append(name).append(" | ")
+                    .append(category).append(" | ")
+                    .append(shade).append(" | ")
+                    .append(formatPrice(price)).append(" | ")
+                    .append(items).append(LINE_SEPARATOR);
+        }
+    };
+
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private final String header;
+
+    ExportFormat(String header) {
+        this.header = header;
+    }
+
+    public String header() {
+        return header;
+    }
+
+    abstract void appendRow(StringBuilder sb, int id, String name, String category, String shade,
+                            BigDecimal price, int items);
+
+    static String formatPrice(BigDecimal price) {
+        return price == null ? "0.00" : price.setScale(2, RoundingMode.HALF_UP).toPlainString();
+    }
+
+    static StringBuilder appendCsv(StringBuilder sb, String value) {
+        if (value == null) {
+            return sb;
+        }
+        if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0) {
+            return sb.append('"').append(value.replace("\"", "\"\"")).append('"');
+        }
+        return sb.append(value);
+    }
+}
@@ -0,0 +1,137 @@
+package inventory;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Activity history backed by ActivityLogIndex: every logged change for one
+ * product, or for all products, within a recent period.
+ */
+public class HistoryDialog extends JDialog {
+
+    private static final Color PRIMARY = new Color(0xFCF8F8);
+    private static final Color TERTIARY = new Color(0xF9DFDF);
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final String[] PERIODS = {"All time", "Last 24 hours", "Last 7 days", "Last 30 days", "Last 365 days"};
+    private static final int[] PERIOD_DAYS = {0, 1, 7, 30, 365};
+    private static final int DEFAULT_PERIOD = 2;
+    private static final int MAX_ROWS = Integer.getInteger("history.maxRows", 2_000);
+    private static final String[] COLUMNS = {
+            "Time", "Action", "ID", "Name", "Category", "Shade", "Price", "No. of Items"
+    };
+
+    private final JTextField txtProductId = new JTextField(6);
+    private final JComboBox<String> cbPeriod = new JComboBox<>(PERIODS);
+    private final DefaultTableModel model;
+    private final JLabel lblStatus = new JLabel(" ");
+    private final JProgressBar busyBar = new JProgressBar();
+    private final BackgroundTasks tasks;
+    private ActivityLogIndex index;
+
+    public HistoryDialog(JFrame owner, Integer productId) {
+        super(owner, "Activity History", false);
+        setSize(900, 450);
+        setLocationRelativeTo(owner);
+        setLayout(new BorderLayout());
+        getContentPane().setBackground(PRIMARY);
+
+        busyBar.setIndeterminate(true);
+        busyBar.setVisible(false);
+        tasks = new BackgroundTasks(busy -> busyBar.setVisible(busy));
+
+        JPanel queryPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 8, 6));
+        queryPanel.setBackground(TERTIARY);
+        JButton btnShow = new JButton("Show");
+        queryPanel.add(new JLabel("Product ID (blank = all):"));
+        queryPanel.add(txtProductId);
+        queryPanel.add(new JLabel("Period:"));
+        queryPanel.add(cbPeriod);
+        queryPanel.add(btnShow);
+        queryPanel.add(busyBar);
+        add(queryPanel, BorderLayout.NORTH);
+
+        model = new DefaultTableModel(COLUMNS, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        JTable table = new JTable(model);
+        JScrollPane scroll = new JScrollPane(table);
+        scroll.getViewport().setBackground(PRIMARY);
+        add(scroll, BorderLayout.CENTER);
+        add(lblStatus, BorderLayout.SOUTH);
+
+        // One product's history is cheap to read in full; everyone's starts with a recent week.
+        if (productId != null) {
+            txtProductId.setText(String.valueOf(productId));
+        } else {
+            cbPeriod.setSelectedIndex(DEFAULT_PERIOD);
+        }
+        btnShow.addActionListener(e -> showHistory());
+        getRootPane().setDefaultButton(btnShow);
+        showHistory();
+    }
+
+    private void showHistory() {
+        Integer productId = null;
+        String idText = txtProductId.getText().trim();
+        if (!idText.isEmpty()) {
+            try {
+                productId = Integer.parseInt(idText);
+            } catch (NumberFormatException e) {
+                JOptionPane.showMessageDialog(this, "Product ID must be a whole number.");
+                return;
+            }
+        }
+        int days = PERIOD_DAYS[cbPeriod.getSelectedIndex()];
+        LocalDateTime from = days == 0 ? null : LocalDateTime.now().minusDays(days);
+        Integer id = productId;
+
+        tasks.runLatest("history", () -> {
+            ActivityLog.get().flush();
+            if (index == null) {
+                index = ActivityLogIndex.open(Paths.get(ActivityLog.DEFAULT_FILE));
+            } else {
+                index.refresh();
+            }
+            // One row past the cap tells showEntries there were more.
+            return id == null
+                    ? index.between(from, null, MAX_ROWS + 1)
+                    : index.forProduct(id, from, null, MAX_ROWS + 1);
+        }, this::showEntries, e -> {
+            e.printStackTrace();
+            JOptionPane.showMessageDialog(this, "Could not read the activity log: " + e.getMessage());
+        });
+    }
+
+    private void showEntries(List<LogEntry> entries) {
+        boolean capped = entries.size() > MAX_ROWS;
+        int rows = Math.min(entries.size(), MAX_ROWS);
+        Object[][] data = new Object[rows][];
+        // Newest first
+        for (int r = 0; r < rows; r++) {
+            LogEntry e = entries.get(entries.size() - 1 - r);
+            Product p = e.getProduct();
+            data[r] = new Object[]{
+                    e.getTime().format(TIME_FORMAT),
+                    e.getAction(),
+                    p.getId(),
+                    p.getName(),
+                    p.getCategory(),
+                    p.getShade(),
+                    String.format("%.2f", p.getPrice()),
+                    p.getNoOfItems()
+            };
+        }
+        model.setDataVector(data, COLUMNS);
+        lblStatus.setText(capped
+                ? " Newest " + rows + " entries shown; there are more in this period (" + index.size() + " indexed)"
+                : " " + rows + " entries (" + index.size() + " indexed)");
+    }
+}
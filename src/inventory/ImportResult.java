@@ -0,0 +1,60 @@
+package inventory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ImportResult {
+    private static final int MAX_REJECT_SAMPLES = 20;
+    // Imports larger than this are not tracked row by row; the caller reloads instead.
+    private static final int MAX_TRACKED_ROWS = Integer.getInteger("import.maxTrackedRows", 10_000);
+
+    private int inserted;
+    private int duplicates;
+    private int rejected;
+    private final List<String> rejectSamples = new ArrayList<>();
+    private long elapsedNanos;
+    private List<Product> insertedRows = new ArrayList<>();
+
+    void addInserted(int count) { inserted += count; }
+    void addDuplicate() { duplicates++; }
+
+    void addRejected(int lineNo, String reason) {
+        rejected++;
+        if (rejectSamples.size() < MAX_REJECT_SAMPLES) {
+            rejectSamples.add("line " + lineNo + ": " + reason);
+        }
+    }
+
+    boolean isTrackingRows() { return insertedRows != null; }
+    void stopTrackingRows() { insertedRows = null; }
+
+    void addInsertedRows(List<Product> rows) {
+        if (insertedRows == null) return;
+        if (insertedRows.size() + rows.size() > MAX_TRACKED_ROWS) {
+            insertedRows = null;
+        } else {
+            insertedRows.addAll(rows);
+        }
+    }
+
+    void setElapsedNanos(long elapsedNanos) { this.elapsedNanos = elapsedNanos; }
+
+    public int getInserted() { return inserted; }
+    public int getDuplicates() { return duplicates; }
+    public int getRejected() { return rejected; }
+    public List<String> getRejectSamples() { return rejectSamples; }
+    /** The inserted rows with their generated ids, or null if the import was too large to track them. */
+    public List<Product> getInsertedRows() { return insertedRows; }
+    public long getElapsedMillis() { return elapsedNanos / 1_000_000; }
+
+    public double getRowsPerSecond() {
+        int processed = inserted + duplicates + rejected;
+        return elapsedNanos == 0 ? 0 : processed / (elapsedNanos / 1_000_000_000.0);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Inserted: %d | Skipped duplicates: %d | Rejected lines: %d | %.0f rows/sec (%d ms)",
+                inserted, duplicates, rejected, getRowsPerSecond(), getElapsedMillis());
+    }
+}
@@ -0,0 +1,115 @@
+package inventory;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Running inventory totals adjusted by delta as products are added, changed
+ * or removed, so summaries never rescan the catalog. Stock value is kept in
+ * whole cents to avoid drift from repeated double additions and subtractions.
+ */
+public class InventoryAggregates {
+
+    public static class Totals {
+        private int products;
+        private long items;
+        private long valueCents;
+
+        public int getProducts() { return products; }
+        public long getItems() { return items; }
+        public double getValue() { return valueCents / 100.0; }
+
+        void apply(int sign, long items, long valueCents) {
+            this.products += sign;
+            this.items += sign * items;
+            this.valueCents += sign * valueCents;
+        }
+
+        ProductSummary toSummary() {
+            return new ProductSummary(products, items, getValue());
+        }
+    }
+
+    private final Totals overall = new Totals();
+    private final Map<String, Totals> byCategory = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    // price -> number of products at that price, for min/max under deletes
+    private final TreeMap<Double, Integer> priceCounts = new TreeMap<>();
+
+    public void clear() {
+        overall.products = 0;
+        overall.items = 0;
+        overall.valueCents = 0;
+        byCategory.clear();
+        priceCounts.clear();
+    }
+
+    public void add(Product p) {
+        add(p.getCategory(), p.getPrice(), p.getNoOfItems());
+    }
+
+    public void remove(Product p) {
+        remove(p.getCategory(), p.getPrice(), p.getNoOfItems());
+    }
+
+    public void replace(Product old, Product updated) {
+        remove(old);
+        add(updated);
+    }
+
+    public void add(String category, double price, int items) {
+        apply(1, category, price, items);
+        priceCounts.merge(price, 1, Integer::sum);
+    }
+
+    public void remove(String category, double price, int items) {
+        apply(-1, category, price, items);
+        priceCounts.computeIfPresent(price, (k, n) -> n == 1 ? null : n - 1);
+    }
+
+    private void apply(int sign, String category, double price, int items) {
+        long valueCents = Math.round(price * 100) * items;
+        overall.apply(sign, items, valueCents);
+        Totals t = byCategory.computeIfAbsent(category, k -> new Totals());
+        t.apply(sign, items, valueCents);
+        if (t.products == 0) {
+            byCategory.remove(category);
+        }
+    }
+
+    public int getProductCount() { return overall.products; }
+    public long getTotalItems() { return overall.items; }
+    public double getTotalValue() { return overall.getValue(); }
+
+    public double getMinPrice() {
+        return priceCounts.isEmpty() ? 0 : priceCounts.firstKey();
+    }
+
+    public double getMaxPrice() {
+        return priceCounts.isEmpty() ? 0 : priceCounts.lastKey();
+    }
+
+    public ProductSummary summary() {
+        return overall.toSummary();
+    }
+
+    public ProductSummary summary(String category) {
+        Totals t = byCategory.get(category);
+        return t == null ? new ProductSummary(0, 0, 0) : t.toSummary();
+    }
+
+    public Map<String, Totals> getByCategory() {
+        return Collections.unmodifiableMap(byCategory);
+    }
+
+    public String describe() {
+        StringBuilder sb = new StringBuilder(String.format(
+                "Products: %d | Items: %d | Value: %.2f | Price: %.2f - %.2f",
+                getProductCount(), getTotalItems(), getTotalValue(), getMinPrice(), getMaxPrice()));
+        for (Map.Entry<String, Totals> e : byCategory.entrySet()) {
+            sb.append(String.format(" | %s: %d (%.2f)",
+                    e.getKey(), e.getValue().getItems(), e.getValue().getValue()));
+        }
+        return sb.toString();
+    }
+}
@@ -1,19 +1,25 @@
 package inventory;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.KeyEvent;
-import java.io.BufferedReader;
-import java.io.FileReader;
-import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.RejectedExecutionException;
 
 public class InventoryGUI extends JFrame {
 
+    private static final String TITLE = "Makeup Inventory System";
     private static final Color PRIMARY = new Color(0xFCF8F8);
     private static final Color SECONDARY = new Color(0xFBEFEF);
     private static final Color TERTIARY = new Color(0xF9DFDF);
@@ -23,23 +29,45 @@ public class InventoryGUI extends JFrame {
     private JTextField txtMinPrice, txtMaxPrice;
     private JComboBox<String> cbCategory, cbFilterCategory;
     private JTable table;
-    private DefaultTableModel model;
+    private ProductTableModel model;
     private JLabel lblSummary;
+    private JTextField txtQty;
+    private JLabel lblStock;
     private JButton btnUndo;
-    private static final String LOG_FILE = "inventory_log.txt";
+    private static final String LOG_FILE = ActivityLog.DEFAULT_FILE;
     private static final DateTimeFormatter LOG_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
     private boolean adminMode = false; // set via constructor to toggle admin features
     private JTextField txtEmpUser;
     private JPasswordField txtEmpPass;
 
-    private ProductDAO dao = new ProductDAO();
-    private UserDAO userDAO = new UserDAO();
-    private Product lastDeleted;
-    private List<Product> cachedProducts = new ArrayList<>();
+    private ProductDAO dao = ProductDAO.create();
+    private final ProductDAO onlineDao = dao; // dao is an OfflineProductDAO while the database is unreachable
+    private UserDAO userDAO = UserDAO.create();
+    private final JProgressBar busyBar = new JProgressBar();
+    private final BackgroundTasks tasks = BackgroundTasks.forWindow(this, busyBar);
+    private List<Product> lastDeleted;
+    private ProductFilter currentFilter = ProductFilter.ALL;
+    // Up to this many products are loaded whole and filtered in memory; larger tables stay keyset-paged.
+    private static final int LOCAL_CATALOG_LIMIT = Integer.getInteger("catalog.localLimit", 20_000);
+    private ProductCatalog catalog; // null while the catalog is too large to hold locally
+    private static final long SNAPSHOT_INTERVAL_MIN = Long.getLong("recovery.snapshotIntervalMin", 30);
+    private static RecoveryEngine recovery; // shared by every inventory window; checkpoints the log periodically
+    private static final int SYNC_INTERVAL_MS = Integer.getInteger("sync.pollIntervalMs", 3000);
+    private static final int TOMBSTONE_DAYS = Integer.getInteger("sync.tombstoneDays", 7);
+    private static final int SYNC_BULK_THRESHOLD = 200;
+    private ChangeFeed changeFeed; // null until loaded, or when the schema has no change tracking
+    private Timer syncTimer;
+    private final BackgroundTasks syncTasks = new BackgroundTasks(busy -> { }); // polls without a busy cursor
+    private static final int OFFLINE_RETRY_MS = Integer.getInteger("offline.retryMs", 15_000);
+    private static final long LOCAL_COPY_INTERVAL_MS = Long.getLong("offline.copyIntervalMin", 10) * 60_000;
+    private OfflineProductDAO offlineDao; // non-null while working from the local copy
+    private long lastReconnectAttempt;
+    private long localCopySavedAt = System.currentTimeMillis();
+    private int localCopyModCount = -1;
 
     public InventoryGUI(boolean adminMode) {
         this.adminMode = adminMode;
-        setTitle("Makeup Inventory System");
+        setTitle(TITLE);
         setSize(1200, 700);
         setDefaultCloseOperation(EXIT_ON_CLOSE);
         setLocationRelativeTo(null);
@@ -85,12 +113,12 @@ public class InventoryGUI extends JFrame {
         topPanel.add(formPanel, BorderLayout.CENTER);
 
         // ================= TABLE =================
-        model = new DefaultTableModel(new String[]{
-                "ID", "Name", "Category", "Shade", "Price", "No. of Items"
-        }, 0);
+        // Rows are paged in lazily, so sorting stays with the query (id order)
+        // rather than a RowSorter that would have to touch every row.
+        model = new ProductTableModel(dao, tasks);
 
         table = new JTable(model);
-        table.setAutoCreateRowSorter(true);
+        table.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
         JScrollPane scroll = new JScrollPane(table);
         scroll.getViewport().setBackground(PRIMARY);
         scroll.setBorder(BorderFactory.createEmptyBorder());
@@ -143,6 +171,7 @@ public class InventoryGUI extends JFrame {
         JButton btnDelete = new JButton("Delete");
         JButton btnClear = new JButton("Clear");
         JButton btnExport = new JButton("Export to Notepad");
+        JButton btnHistory = new JButton("History");
         JButton btnLogout = new JButton("Logout");
         btnUndo = new JButton("Undo Delete");
         btnUndo.setEnabled(false);
@@ -153,6 +182,7 @@ public class InventoryGUI extends JFrame {
         actionPanel.add(btnDelete);
         actionPanel.add(btnClear);
         actionPanel.add(btnUndo);
+        actionPanel.add(btnHistory);
         if (this.adminMode) {
             actionPanel.add(btnExport);
         }
@@ -175,15 +205,33 @@ public class InventoryGUI extends JFrame {
             btnAddEmp.addActionListener(e -> addEmployee());
         }
 
+        rightPanel.add(busyBar);
         rightPanel.add(btnLogout);
 
+        // Quick stock mode: type a quantity and press Enter to sell that many of the selected product.
+        JPanel stockPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 8, 4));
+        stockPanel.setBackground(TERTIARY);
+        txtQty = new JTextField("1", 4);
+        JButton btnSell = new JButton("Sell");
+        JButton btnReceive = new JButton("Receive");
+        lblStock = new JLabel(" ");
+        stockPanel.add(new JLabel("Quantity:"));
+        stockPanel.add(txtQty);
+        stockPanel.add(btnSell);
+        stockPanel.add(btnReceive);
+        stockPanel.add(lblStock);
+
         bottomPanel.add(actionPanel, BorderLayout.CENTER);
         bottomPanel.add(rightPanel, BorderLayout.EAST);
+        bottomPanel.add(stockPanel, BorderLayout.SOUTH);
 
         add(bottomPanel, BorderLayout.SOUTH);
 
         // Load data from DB
         refreshTable();
+        startMaintenance();
+        syncTimer = new Timer(SYNC_INTERVAL_MS, e -> pollChanges());
+        syncTimer.start();
 
         // ================= EVENTS =================
         btnAdd.addActionListener(e -> addProduct());
@@ -206,6 +254,10 @@ public class InventoryGUI extends JFrame {
         }
         btnLogout.addActionListener(e -> logout());
         btnUndo.addActionListener(e -> undoDelete());
+        btnHistory.addActionListener(e -> showHistory());
+        btnSell.addActionListener(e -> adjustStock(-1));
+        btnReceive.addActionListener(e -> adjustStock(1));
+        txtQty.addActionListener(e -> adjustStock(-1));
         table.getSelectionModel().addListSelectionListener(e -> fillFieldsFromTable());
 
         // Keyboard shortcuts
@@ -217,17 +269,22 @@ public class InventoryGUI extends JFrame {
         btnDelete.setMnemonic('D');
         btnSearch.setMnemonic('S');
         btnLogout.setMnemonic('L');
+        btnSell.setMnemonic('E');
+        btnReceive.setMnemonic('R');
     }
 
     // ================= ADD =================
     private void addProduct() {
-        Product p = buildValidatedProduct(null);
+        Product p = buildValidatedProduct();
         if (p == null) return;
-        dao.addProduct(p);
-        logAction("ADDED", p);
-        refreshTable();
-        clearFields();
-        JOptionPane.showMessageDialog(this, "Product added successfully!");
+        tasks.run("save", () -> dao.addProduct(p), result -> {
+            if (!checkWrite(result)) return;
+            Product added = result.getProduct();
+            logAction("ADDED", added);
+            applyAdded(added);
+            clearFields();
+            JOptionPane.showMessageDialog(this, "Product added successfully!");
+        }, this::showDbError);
     }
 
     // ================= UPDATE =================
@@ -237,15 +294,65 @@ public class InventoryGUI extends JFrame {
             JOptionPane.showMessageDialog(this, "Select a product first.");
             return;
         }
+        if (table.getSelectedRowCount() > 1) {
+            updateSelected();
+            return;
+        }
 
-        int id = Integer.parseInt(model.getValueAt(row, 0).toString());
-        Product p = buildValidatedProduct(id);
+        Product selected = model.getRow(row);
+        if (selected == null) return;
+        int id = selected.getId();
+        Product p = buildValidatedProduct();
         if (p == null) return;
         p.setId(id);
-        dao.updateProduct(p);
-        logAction("UPDATED", p);
-        refreshTable();
-        JOptionPane.showMessageDialog(this, "Product updated successfully!");
+        tasks.run("save", () -> dao.updateProduct(p), result -> {
+            if (!checkWrite(result)) return;
+            logAction("UPDATED", p);
+            applyUpdated(selected, p);
+            JOptionPane.showMessageDialog(this, "Product updated successfully!");
+        }, this::showDbError);
+    }
+
+    // Several rows selected: sets the Price and/or No. of Items that are filled in on all of them.
+    private void updateSelected() {
+        List<Product> selected = selectedProducts();
+        if (selected == null) return;
+        String priceText = txtPrice.getText().trim();
+        String itemsText = txtItems.getText().trim();
+        if (priceText.isEmpty() && itemsText.isEmpty()) {
+            JOptionPane.showMessageDialog(this,
+                    "To update several products, fill in Price and/or No. of Items; they are applied to every selected row.");
+            return;
+        }
+        Double price = null;
+        Integer items = null;
+        try {
+            if (!priceText.isEmpty()) price = Double.parseDouble(priceText);
+            if (!itemsText.isEmpty()) items = Integer.parseInt(itemsText);
+        } catch (NumberFormatException ex) {
+            JOptionPane.showMessageDialog(this, "Price must be a number and No. of Items must be an integer.");
+            return;
+        }
+        if ((price != null && price < 0) || (items != null && items < 0)) {
+            JOptionPane.showMessageDialog(this, "Price and No. of Items must be non-negative.");
+            return;
+        }
+
+        List<Product> changed = new ArrayList<>(selected.size());
+        for (Product old : selected) {
+            changed.add(new Product(old.getId(), old.getName(), old.getCategory(), old.getShade(),
+                    price != null ? price : old.getPrice(),
+                    items != null ? items : old.getNoOfItems()));
+        }
+        tasks.run("save", () -> dao.updateProducts(changed), result -> {
+            if (!checkBulk(result)) return;
+            for (Product p : result.getProducts()) {
+                logAction("UPDATED", p);
+            }
+            applyBatch(Collections.emptyList(), result.getProducts());
+            JOptionPane.showMessageDialog(this, result.getProducts().size() + " products updated."
+                    + missingNote(result));
+        }, this::showDbError);
     }
 
     // ================= DELETE =================
@@ -255,6 +362,10 @@ public class InventoryGUI extends JFrame {
             JOptionPane.showMessageDialog(this, "Select a product first.");
             return;
         }
+        if (table.getSelectedRowCount() > 1) {
+            deleteSelected();
+            return;
+        }
 
         int confirm = JOptionPane.showConfirmDialog(
                 this, "Are you sure you want to delete this product?",
@@ -262,39 +373,483 @@ public class InventoryGUI extends JFrame {
         );
 
         if (confirm == JOptionPane.YES_OPTION) {
-            int id = Integer.parseInt(model.getValueAt(row, 0).toString());
-            lastDeleted = new Product(
-                    id,
-                    model.getValueAt(row, 1).toString(),
-                    model.getValueAt(row, 2).toString(),
-                    model.getValueAt(row, 3).toString(),
-                    Double.parseDouble(model.getValueAt(row, 4).toString()),
-                    Integer.parseInt(model.getValueAt(row, 5).toString())
-            );
-            dao.deleteProduct(id);
-            logAction("DELETED", lastDeleted);
-            refreshTable();
+            Product deleted = model.getRow(row);
+            if (deleted == null) return;
+            int id = deleted.getId();
+            tasks.run("save", () -> dao.deleteProduct(id), result -> {
+                if (!checkWrite(result)) return;
+                Product p = result.getProduct();
+                lastDeleted = Collections.singletonList(p);
+                logAction("DELETED", p);
+                applyRemoved(p);
+                clearFields();
+                btnUndo.setEnabled(true);
+                JOptionPane.showMessageDialog(this, "Product deleted successfully!");
+            }, this::showDbError);
+        }
+    }
+
+    private void deleteSelected() {
+        List<Product> selected = selectedProducts();
+        if (selected == null) return;
+        int confirm = JOptionPane.showConfirmDialog(
+                this, "Are you sure you want to delete these " + selected.size() + " products?",
+                "Confirm Delete", JOptionPane.YES_NO_OPTION
+        );
+        if (confirm != JOptionPane.YES_OPTION) return;
+
+        List<Integer> ids = new ArrayList<>(selected.size());
+        for (Product p : selected) {
+            ids.add(p.getId());
+        }
+        tasks.run("save", () -> dao.deleteProducts(ids), result -> {
+            if (!checkBulk(result)) return;
+            for (Product p : result.getProducts()) {
+                logAction("DELETED", p);
+            }
+            lastDeleted = result.getProducts();
+            applyBatch(result.getProducts(), Collections.emptyList());
             clearFields();
-            btnUndo.setEnabled(true);
-            JOptionPane.showMessageDialog(this, "Product deleted successfully!");
+            btnUndo.setEnabled(!lastDeleted.isEmpty());
+            JOptionPane.showMessageDialog(this, result.getProducts().size() + " products deleted."
+                    + missingNote(result));
+        }, this::showDbError);
+    }
+
+    // The selected rows, or null (after telling the user) if some have not finished loading.
+    private List<Product> selectedProducts() {
+        int[] rows = table.getSelectedRows();
+        List<Product> products = new ArrayList<>(rows.length);
+        for (int row : rows) {
+            Product p = model.getRow(row);
+            if (p == null) {
+                JOptionPane.showMessageDialog(this, "Some selected rows are still loading. Try again in a moment.");
+                return null;
+            }
+            products.add(p);
+        }
+        return products;
+    }
+
+    // ================= SELL / RECEIVE =================
+    // Stock moves are relative, so two counters selling the same product both count.
+    private void adjustStock(int sign) {
+        int row = table.getSelectedRow();
+        if (row == -1 || table.getSelectedRowCount() > 1) {
+            JOptionPane.showMessageDialog(this, "Select one product to sell or receive.");
+            return;
+        }
+        Product selected = model.getRow(row);
+        if (selected == null) return;
+        int qty;
+        try {
+            qty = Integer.parseInt(txtQty.getText().trim());
+        } catch (NumberFormatException ex) {
+            qty = 0;
+        }
+        if (qty <= 0) {
+            JOptionPane.showMessageDialog(this, "Quantity must be a whole number above zero.");
+            return;
         }
+        int delta = sign * qty;
+        tasks.run("stock", () -> dao.adjustStock(selected.getId(), delta), result -> {
+            if (result.getStatus() == WriteResult.Status.INSUFFICIENT_STOCK) {
+                Product current = result.getProduct();
+                applyBatch(Collections.emptyList(), Collections.singletonList(current));
+                JOptionPane.showMessageDialog(this, "Only " + current.getNoOfItems() + " of "
+                        + current.getName() + " left in stock.");
+                return;
+            }
+            if (!checkWrite(result)) return;
+            Product p = result.getProduct();
+            logAction(delta < 0 ? "SOLD" : "RECEIVED", p);
+            applyBatch(Collections.emptyList(), Collections.singletonList(p));
+            lblStock.setText(String.format("%s %d x %s (%s): %d in stock",
+                    delta < 0 ? "Sold" : "Received", Math.abs(delta), p.getName(), p.getShade(), p.getNoOfItems()));
+            txtQty.selectAll();
+        }, this::showDbError);
     }
 
     // ================= REFRESH TABLE =================
+    // Once per process: periodic log checkpoints and clearing out old deletion tombstones.
+    private void startMaintenance() {
+        synchronized (InventoryGUI.class) {
+            if (recovery != null) return;
+            recovery = new RecoveryEngine(dao);
+        }
+        recovery.startPeriodicCheckpoints(SNAPSHOT_INTERVAL_MIN);
+        tasks.run("purge", () -> dao.purgeTombstones(TOMBSTONE_DAYS), n -> { }, Exception::printStackTrace);
+    }
+
     private void refreshTable() {
-        cachedProducts = dao.getAllProducts();
-        applyFilters();
+        tasks.runLatest("refresh", () -> {
+            if (!DBConnection.isReachable()) {
+                OfflineProductDAO offline = OfflineProductDAO.open();
+                if (offline == null) {
+                    throw new Exception("The database cannot be reached and there is no local copy of the catalog yet.");
+                }
+                ProductCatalog loaded = new ProductCatalog();
+                loaded.load(offline.getAllProducts());
+                return new Loaded(loaded, null, offline, null, false);
+            }
+            // Changes queued while offline go in first, so the load below already shows them.
+            OfflineOutbox outbox = OfflineOutbox.get();
+            OfflineOutbox.Replay replay = outbox.size() > 0 ? outbox.replay(onlineDao) : null;
+            try {
+                return loadOnline(replay);
+            } catch (Exception e) {
+                if (replay != null) {
+                    // The changes reached the database even though the reload did not; report them anyway.
+                    SwingUtilities.invokeLater(() -> showReplay(replay));
+                }
+                throw e;
+            }
+        }, loaded -> {
+            catalog = loaded.catalog;
+            changeFeed = loaded.feed;
+            setOffline(loaded.offline);
+            if (loaded.copied) {
+                localCopySavedAt = System.currentTimeMillis();
+                localCopyModCount = catalog.getModCount();
+            }
+            showResults();
+            if (loaded.replay != null) {
+                showReplay(loaded.replay);
+            }
+        }, this::showDbError);
+    }
+
+    // Runs on a worker: the catalog (or, for large tables, just the change feed) from the database.
+    private Loaded loadOnline(OfflineOutbox.Replay replay) throws Exception {
+        // Read the clock first so changes made while loading are picked up by the first poll.
+        ChangeFeed feed = SchemaMigrations.hasChangeTracking()
+                ? new ChangeFeed(onlineDao, onlineDao.databaseTime())
+                : null;
+        int total = onlineDao.summarize(ProductFilter.ALL).getProducts();
+        if (total > LOCAL_CATALOG_LIMIT) {
+            return new Loaded(null, feed, null, replay, false);
+        }
+        List<Product> all = onlineDao.getAllProducts();
+        ProductCatalog loaded = new ProductCatalog();
+        loaded.load(all);
+        boolean copied = false;
+        if (total > 0 && all.size() == total) { // a failed read comes back empty; keep the old copy then
+            try {
+                OfflineProductDAO.saveLocalCopy(all);
+                copied = true;
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        return new Loaded(loaded, feed, null, replay, copied);
+    }
+
+    // Logs the offline changes that reached the database, under their real ids, and reports any conflicts.
+    private void showReplay(OfflineOutbox.Replay replay) {
+        for (LogEntry e : replay.getApplied()) {
+            appendLog(e.getAction(), e.getProduct());
+        }
+        JOptionPane.showMessageDialog(this, replay.toString());
+    }
+
+    private static class Loaded {
+        final ProductCatalog catalog;
+        final ChangeFeed feed;
+        final OfflineProductDAO offline; // set when loaded from the local copy
+        final OfflineOutbox.Replay replay; // set when offline changes were sent first
+        final boolean copied; // the local copy was refreshed from this load
+
+        Loaded(ProductCatalog catalog, ChangeFeed feed, OfflineProductDAO offline, OfflineOutbox.Replay replay,
+               boolean copied) {
+            this.catalog = catalog;
+            this.feed = feed;
+            this.offline = offline;
+            this.replay = replay;
+            this.copied = copied;
+        }
+    }
+
+    // ================= OFFLINE =================
+    // While the database is down the window reads and writes an OfflineProductDAO
+    // over the local copy; writes queue up in the outbox and are sent by the
+    // first refreshTable() that finds the database reachable again.
+
+    private void setOffline(OfflineProductDAO offline) {
+        boolean wasOffline = offlineDao != null;
+        offlineDao = offline;
+        dao = offline != null ? offline : onlineDao;
+        updateTitle();
+        if (offline != null && !wasOffline) {
+            String copiedAt = LocalDateTime.ofInstant(Instant.ofEpochMilli(offline.getCopiedAt()), ZoneId.systemDefault())
+                    .format(LOG_FORMAT);
+            JOptionPane.showMessageDialog(this, "The database cannot be reached. Showing the local copy from "
+                    + copiedAt + ".\nChanges are kept on this PC and saved to the database once it is back.");
+        }
+    }
+
+    private void updateTitle() {
+        setTitle(offlineDao == null ? TITLE : TITLE + " (offline, " + offlineDao.getQueued() + " changes queued)");
+    }
+
+    private void retryDatabase() {
+        long now = System.currentTimeMillis();
+        if (now - lastReconnectAttempt < OFFLINE_RETRY_MS) return;
+        lastReconnectAttempt = now;
+        syncTasks.run("reconnect", DBConnection::isReachable, up -> {
+            if (up && offlineDao != null) refreshTable();
+        }, Exception::printStackTrace);
+    }
+
+    // After a failed write or poll: if the database is gone, reload from the local copy.
+    private void checkDatabase() {
+        if (offlineDao != null || !OfflineProductDAO.hasLocalCopy()) return;
+        tasks.run("reconnect", DBConnection::isReachable, up -> {
+            if (!up) refreshTable();
+        }, Exception::printStackTrace);
+    }
+
+    // Re-saves the local copy every offline.copyIntervalMin while the catalog keeps changing.
+    private void saveLocalCopyIfDue() {
+        if (catalog == null || catalog.getModCount() == localCopyModCount) return;
+        long now = System.currentTimeMillis();
+        if (now - localCopySavedAt < LOCAL_COPY_INTERVAL_MS) return;
+        localCopySavedAt = now;
+        int modCount = catalog.getModCount();
+        List<Product> all = catalog.products();
+        syncTasks.run("copy", () -> {
+            OfflineProductDAO.saveLocalCopy(all);
+            return modCount;
+        }, saved -> localCopyModCount = saved, Exception::printStackTrace);
+    }
+
+    // ================= SYNC =================
+    // Other terminals' edits arrive through the change feed and are merged
+    // like our own deltas; our own writes echo back and are no-ops.
+
+    private void pollChanges() {
+        ChangeFeed feed = changeFeed;
+        try {
+            if (offlineDao != null) {
+                retryDatabase();
+                return;
+            }
+            saveLocalCopyIfDue();
+            if (feed == null) return;
+            syncTasks.run("sync", feed::poll, changes -> {
+                if (feed == changeFeed) applyChanges(changes);
+            }, e -> {
+                e.printStackTrace();
+                checkDatabase();
+            });
+        } catch (RejectedExecutionException e) {
+            // Workers are saturated; try again on the next tick.
+        }
+    }
+
+    private void applyChanges(ProductChanges changes) {
+        if (changes.isTruncated()) {
+            refreshTable();
+            return;
+        }
+        if (changes.isEmpty()) return;
+
+        if (catalog == null) {
+            // Reloading resets the scroll position, so only do it for rows the user is looking at;
+            // anything further away just updates the totals and the row count.
+            boolean reload = !changes.getDeletedIds().isEmpty();
+            for (Product p : changes.getUpserted()) {
+                if (model.replaceLoaded(p)) {
+                    if (!currentFilter.matches(p)) reload = true; // left the view
+                } else if (currentFilter.matches(p) && isVisibleId(p.getId())) {
+                    reload = true; // entered the view among the rows on screen
+                }
+            }
+            if (reload) loadPage(); else refreshSummary();
+            return;
+        }
+
+        // Deletes first: an id that was deleted and re-added shows up in both lists.
+        boolean bulk = changes.size() > SYNC_BULK_THRESHOLD;
+        for (int id : changes.getDeletedIds()) {
+            int slot = catalog.slotOf(id);
+            if (slot < 0) continue;
+            int generation = catalog.getGeneration();
+            catalog.remove(id);
+            if (generation != catalog.getGeneration()) bulk = true;
+            if (!bulk) model.localSlotChanged(slot);
+        }
+        for (Product p : changes.getUpserted()) {
+            Product old = catalog.getById(p.getId());
+            if (old != null && old.sameValues(p)) continue;
+            catalog.add(p);
+            if (!bulk) model.localSlotChanged(catalog.slotOf(p.getId()));
+        }
+        if (bulk) showResults(); else updateLocalSummary();
+    }
+
+    // ================= DELTA UPDATES =================
+    // A write patches the local catalog or the cached pages instead of reloading
+    // everything; whenever the change does not line up with what is shown, the
+    // table is reloaded.
+
+    // Reports a write that did not go through; a vanished row means our copy is stale.
+    private boolean checkWrite(WriteResult result) {
+        switch (result.getStatus()) {
+            case OK:
+                return true;
+            case DUPLICATE:
+                showDuplicateMessage();
+                return false;
+            case NOT_FOUND:
+                JOptionPane.showMessageDialog(this, "That product no longer exists. The table has been reloaded.");
+                refreshTable();
+                return false;
+            default:
+                JOptionPane.showMessageDialog(this, "The change could not be saved. See the console for details.");
+                checkDatabase();
+                return false;
+        }
+    }
+
+    private boolean checkBulk(BulkResult result) {
+        switch (result.getStatus()) {
+            case OK:
+                return true;
+            case DUPLICATE:
+                showDuplicateMessage();
+                return false;
+            default:
+                JOptionPane.showMessageDialog(this, "The changes could not be saved. Nothing was changed.");
+                checkDatabase();
+                return false;
+        }
+    }
+
+    private static String missingNote(BulkResult result) {
+        int missing = result.getMissingIds().size();
+        return missing == 0 ? "" : "\n" + missing + " of the selected products had already been removed.";
+    }
+
+    // Several rows at once go through the same merge as changes from other terminals.
+    private void applyBatch(List<Product> removed, List<Product> upserted) {
+        ProductChanges changes = new ProductChanges();
+        for (Product p : removed) {
+            changes.addDeleted(p.getId(), 0);
+        }
+        for (Product p : upserted) {
+            changes.addUpserted(p, 0);
+        }
+        applyChanges(changes);
+    }
+
+    private void applyAdded(Product p) {
+        if (p.getId() == 0) {
+            refreshTable(); // driver did not report the generated key
+        } else if (catalog != null) {
+            catalog.add(p);
+            model.localSlotChanged(catalog.slotOf(p.getId()));
+            updateLocalSummary();
+        } else if (currentFilter.matches(p)) {
+            model.appendLoaded(p);
+            refreshSummary();
+        }
+    }
+
+    private void applyUpdated(Product old, Product p) {
+        if (catalog != null) {
+            if (!catalog.update(p)) {
+                refreshTable();
+                return;
+            }
+            model.localSlotChanged(catalog.slotOf(p.getId()));
+            updateLocalSummary();
+        } else if (currentFilter.matches(old) && currentFilter.matches(p)) {
+            model.replaceLoaded(p);
+            refreshSummary();
+        } else {
+            loadPage(); // the row enters or leaves the filtered view
+        }
+    }
+
+    private void applyRemoved(Product p) {
+        if (catalog != null) {
+            int slot = catalog.slotOf(p.getId());
+            int generation = catalog.getGeneration();
+            if (slot < 0) {
+                refreshTable();
+                return;
+            }
+            catalog.remove(p.getId());
+            if (generation != catalog.getGeneration()) {
+                showResults(); // compaction renumbered the slots; re-filter locally
+            } else {
+                model.localSlotChanged(slot);
+                updateLocalSummary();
+            }
+        } else {
+            loadPage(); // later pages shift up by one row
+        }
+    }
+
+    private void applyImported(List<Product> rows) {
+        if (rows == null) {
+            refreshTable();
+        } else if (catalog != null) {
+            for (Product p : rows) {
+                catalog.add(p);
+            }
+            showResults();
+        } else if (!rows.isEmpty()) {
+            loadPage();
+        }
+    }
+
+    // Server mode: whether id falls between the first and last rows scrolled into view.
+    private boolean isVisibleId(int id) {
+        Rectangle view = table.getVisibleRect();
+        int first = table.rowAtPoint(view.getLocation());
+        int last = table.rowAtPoint(new Point(view.x, view.y + view.height - 1));
+        if (last < 0) last = model.getRowCount() - 1;
+        Product top = first < 0 ? null : model.getRow(first);
+        Product bottom = last < 0 ? null : model.getRow(last);
+        if (top == null || bottom == null) {
+            return true; // nothing on screen yet, or still loading
+        }
+        return id >= top.getId() && id <= bottom.getId();
+    }
+
+    private void updateLocalSummary() {
+        updateSummary(catalog.summarize(currentFilter, model.getLocalSlots()));
+    }
+
+    private void refreshSummary() {
+        ProductFilter filter = currentFilter;
+        tasks.runLatest("summary", () -> dao.summarize(filter), summary -> {
+            if (filter != currentFilter) return;
+            updateSummary(summary);
+            if (catalog == null) model.resize(summary.getProducts());
+        }, this::showDbError);
+    }
+
+    private void showDuplicateMessage() {
+        JOptionPane.showMessageDialog(this, "A product with this name and shade already exists.");
+    }
+
+    private void showDbError(Exception e) {
+        e.printStackTrace();
+        JOptionPane.showMessageDialog(this, "Database error: " + e.getMessage());
     }
 
     // ================= FILL FIELDS WHEN TABLE ROW CLICKED =================
     private void fillFieldsFromTable() {
         int row = table.getSelectedRow();
-        if (row != -1) {
-            txtName.setText(model.getValueAt(row, 1).toString());
-            cbCategory.setSelectedItem(model.getValueAt(row, 2).toString());
-            txtShade.setText(model.getValueAt(row, 3).toString());
-            txtPrice.setText(model.getValueAt(row, 4).toString());
-            txtItems.setText(model.getValueAt(row, 5).toString());
+        Product p = model.getRow(row);
+        if (p != null) {
+            txtName.setText(p.getName());
+            cbCategory.setSelectedItem(p.getCategory());
+            txtShade.setText(p.getShade());
+            txtPrice.setText(String.valueOf(p.getPrice()));
+            txtItems.setText(String.valueOf(p.getNoOfItems()));
         }
     }
 
@@ -320,15 +875,9 @@ public class InventoryGUI extends JFrame {
 
     // ================= EXPORT TO TXT (IOStream) =================
     private void exportToTxt() {
-        try (BufferedReader br = new BufferedReader(new FileReader(LOG_FILE))) {
-            StringBuilder sb = new StringBuilder();
-            String line;
-            while ((line = br.readLine()) != null) {
-                sb.append(line).append(System.lineSeparator());
-            }
-            try (FileWriter fw = new FileWriter("inventory_backup.txt")) {
-                fw.write(sb.toString());
-            }
+        try {
+            ActivityLog.get().flush();
+            Files.copy(Paths.get(LOG_FILE), Paths.get("inventory_backup.txt"), StandardCopyOption.REPLACE_EXISTING);
             JOptionPane.showMessageDialog(this,
                     "Activity log exported to inventory_backup.txt");
         } catch (Exception e) {
@@ -337,45 +886,34 @@ public class InventoryGUI extends JFrame {
         }
     }
 
+    private void showHistory() {
+        Product selected = model.getRow(table.getSelectedRow());
+        new HistoryDialog(this, selected == null ? null : selected.getId()).setVisible(true);
+    }
+
     private void exportToCsv() {
-        try (FileWriter fw = new FileWriter("inventory.csv")) {
-            fw.write("id,name,category,shade,price,no_of_items\n");
-            for (Product p : cachedProducts) {
-                fw.write(String.format("%d,%s,%s,%s,%.2f,%d%n",
-                        p.getId(), escapeCsv(p.getName()), p.getCategory(), p.getShade(), p.getPrice(), p.getNoOfItems()));
-            }
-            JOptionPane.showMessageDialog(this, "Exported to inventory.csv");
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this, "CSV export failed.");
-            e.printStackTrace();
-        }
+        tasks.run("csv", () -> dao.exportProducts(Paths.get("inventory.csv"), ExportFormat.CSV),
+                rows -> JOptionPane.showMessageDialog(this, "Exported to inventory.csv"),
+                e -> {
+                    JOptionPane.showMessageDialog(this, "CSV export failed.");
+                    e.printStackTrace();
+                });
     }
 
     private void importFromCsv() {
-        try (BufferedReader br = new BufferedReader(new FileReader("inventory.csv"))) {
-            String line = br.readLine(); // header
-            while ((line = br.readLine()) != null) {
-                String[] parts = line.split(",", -1);
-                if (parts.length < 6) continue;
-                String name = unescapeCsv(parts[1]);
-                String category = parts[2];
-                String shade = parts[3];
-                double price = Double.parseDouble(parts[4]);
-                int items = Integer.parseInt(parts[5]);
-                if (!dao.existsByNameAndShade(name, shade, null)) {
-                    dao.addProduct(new Product(name, category, shade, price, items));
-                }
-            }
-            refreshTable();
-            JOptionPane.showMessageDialog(this, "Imported from inventory.csv");
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this, "CSV import failed.");
-            e.printStackTrace();
-        }
+        tasks.run("csv", () -> new CsvImporter(dao).importFile(Paths.get("inventory.csv")),
+                result -> {
+                    applyImported(result.getInsertedRows());
+                    JOptionPane.showMessageDialog(this, "Imported from inventory.csv\n" + result);
+                },
+                e -> {
+                    JOptionPane.showMessageDialog(this, "CSV import failed. No rows were imported.");
+                    e.printStackTrace();
+                });
     }
 
     private void applyFilters() {
-        String key = txtSearch.getText() == null ? "" : txtSearch.getText().trim().toLowerCase();
+        String key = txtSearch.getText() == null ? "" : txtSearch.getText().trim();
         String category = cbFilterCategory.getSelectedItem().toString();
 
         Double minPrice = null;
@@ -404,52 +942,45 @@ public class InventoryGUI extends JFrame {
             return;
         }
 
-        double min = minPrice != null ? minPrice : Double.NEGATIVE_INFINITY;
-        double max = maxPrice != null ? maxPrice : Double.POSITIVE_INFINITY;
-
-        model.setRowCount(0);
-        List<Product> filtered = new ArrayList<>();
-        for (Product p : cachedProducts) {
-            boolean matchesSearch = key.isEmpty() ||
-                    p.getName().toLowerCase().contains(key) ||
-                    p.getCategory().toLowerCase().contains(key) ||
-                    p.getShade().toLowerCase().contains(key);
-            boolean matchesCategory = category.equals("All") || p.getCategory().equalsIgnoreCase(category);
-            boolean matchesPrice = p.getPrice() >= min && p.getPrice() <= max;
-            if (matchesSearch && matchesCategory && matchesPrice) {
-                filtered.add(p);
-                model.addRow(new Object[]{
-                        p.getId(),
-                        p.getName(),
-                        p.getCategory(),
-                        p.getShade(),
-                        p.getPrice(),
-                        p.getNoOfItems()
-                });
-            }
+        currentFilter = new ProductFilter(key, category, minPrice, maxPrice);
+        showResults();
+    }
+
+    // Small catalogs are filtered in memory; large ones are paged from the database.
+    private void showResults() {
+        if (catalog != null) {
+            int[] matches = catalog.filter(currentFilter);
+            model.showLocal(currentFilter, catalog, matches);
+            updateSummary(catalog.summarize(currentFilter, matches));
+        } else {
+            loadPage();
         }
-        updateSummary(filtered);
     }
 
-    private void updateSummary(List<Product> products) {
-        int totalItems = products.stream().mapToInt(Product::getNoOfItems).sum();
-        double totalValue = products.stream().mapToDouble(p -> p.getPrice() * p.getNoOfItems()).sum();
-        lblSummary.setText(String.format("Items: %d | Value: %.2f", totalItems, totalValue));
+    // ================= PAGING =================
+    private void loadPage() {
+        ProductFilter filter = currentFilter;
+        tasks.runLatest("page", () -> new Page(
+                dao.findProducts(filter, 0, ProductTableModel.PAGE_SIZE),
+                dao.summarize(filter)
+        ), page -> {
+            model.reset(filter, page.summary.getProducts(), page.rows);
+            updateSummary(page.summary);
+        }, this::showDbError);
     }
 
-    private String escapeCsv(String value) {
-        if (value.contains(",") || value.contains("\"")) {
-            return "\"" + value.replace("\"", "\"\"") + "\"";
-        }
-        return value;
+    private void updateSummary(ProductSummary summary) {
+        lblSummary.setText(String.format("Items: %d | Value: %.2f", summary.getItems(), summary.getValue()));
     }
 
-    private String unescapeCsv(String value) {
-        String v = value;
-        if (v.startsWith("\"") && v.endsWith("\"")) {
-            v = v.substring(1, v.length() - 1).replace("\"\"", "\"");
+    private static class Page {
+        final List<Product> rows;
+        final ProductSummary summary;
+
+        Page(List<Product> rows, ProductSummary summary) {
+            this.rows = rows;
+            this.summary = summary;
         }
-        return v;
     }
 
     private void logout() {
@@ -461,12 +992,18 @@ public class InventoryGUI extends JFrame {
         );
 
         if (confirm == JOptionPane.YES_OPTION) {
+            try {
+                ActivityLog.get().flush();
+            } catch (IOException e) {
+                e.printStackTrace();
+                JOptionPane.showMessageDialog(this, "Some activity could not be written to the log: " + e.getMessage());
+            }
             new LoginGUI().setVisible(true); // go back to login
             dispose(); // close inventory window
         }
     }
 
-    private Product buildValidatedProduct(Integer existingId) {
+    private Product buildValidatedProduct() {
         String name = txtName.getText().trim();
         String shade = txtShade.getText().trim();
         String priceText = txtPrice.getText().trim();
@@ -504,25 +1041,28 @@ public class InventoryGUI extends JFrame {
             JOptionPane.showMessageDialog(this, "Price and No. of Items must be non-negative.");
             return null;
         }
-        if (dao.existsByNameAndShade(name, shade, existingId)) {
-            JOptionPane.showMessageDialog(this, "A product with this name and shade already exists.");
-            return null;
-        }
         return new Product(name, category, shade, price, items);
     }
 
     private void undoDelete() {
         if (lastDeleted != null) {
-            dao.addProduct(new Product(lastDeleted.getName(),
-                    lastDeleted.getCategory(),
-                    lastDeleted.getShade(),
-                    lastDeleted.getPrice(),
-                    lastDeleted.getNoOfItems()));
-            logAction("RESTORED", lastDeleted);
-            lastDeleted = null;
-            btnUndo.setEnabled(false);
-            refreshTable();
-            JOptionPane.showMessageDialog(this, "Last deleted product restored.");
+            List<Product> restored = new ArrayList<>(lastDeleted.size());
+            for (Product p : lastDeleted) {
+                restored.add(new Product(p.getName(), p.getCategory(), p.getShade(), p.getPrice(), p.getNoOfItems()));
+            }
+            tasks.run("save", () -> dao.addProducts(restored), result -> {
+                if (!checkBulk(result)) return;
+                // Logged under the new ids; the DELETED entries above carry the old ones.
+                for (Product p : result.getProducts()) {
+                    logAction("RESTORED", p);
+                }
+                lastDeleted = null;
+                btnUndo.setEnabled(false);
+                applyBatch(Collections.emptyList(), result.getProducts());
+                JOptionPane.showMessageDialog(this, result.getProducts().size() == 1
+                        ? "Last deleted product restored."
+                        : "Last deleted " + result.getProducts().size() + " products restored.");
+            }, this::showDbError);
         } else {
             JOptionPane.showMessageDialog(this, "No deleted product to restore.");
         }
@@ -535,18 +1075,27 @@ public class InventoryGUI extends JFrame {
             JOptionPane.showMessageDialog(this, "Employee username and password are required.");
             return;
         }
-        boolean ok = userDAO.createUser(user, pass, "employee");
-        if (ok) {
-            JOptionPane.showMessageDialog(this, "Employee added.");
-            txtEmpUser.setText("");
-            txtEmpPass.setText("");
-        } else {
-            JOptionPane.showMessageDialog(this, "Failed to add employee (maybe duplicate?).");
-        }
+        tasks.run("employee", () -> userDAO.createUser(user, pass, "employee"), ok -> {
+            if (ok) {
+                JOptionPane.showMessageDialog(this, "Employee added.");
+                txtEmpUser.setText("");
+                txtEmpPass.setText("");
+            } else {
+                JOptionPane.showMessageDialog(this, "Failed to add employee (maybe duplicate?).");
+            }
+        }, this::showDbError);
     }
 
     private void logAction(String action, Product p) {
-        String entry = String.format("%s | %s | ID:%d | %s | %s | Shade:%s | Price:%.2f | Items:%d%n",
+        if (offlineDao != null) {
+            updateTitle(); // offline changes are logged when they reach the database, under their real ids
+            return;
+        }
+        appendLog(action, p);
+    }
+
+    private void appendLog(String action, Product p) {
+        String entry = String.format(Locale.ROOT, "%s | %s | ID:%d | %s | %s | Shade:%s | Price:%.2f | Items:%d%n",
                 LocalDateTime.now().format(LOG_FORMAT),
                 action,
                 p.getId(),
@@ -555,13 +1104,20 @@ public class InventoryGUI extends JFrame {
                 p.getShade(),
                 p.getPrice(),
                 p.getNoOfItems());
-        try (FileWriter fw = new FileWriter(LOG_FILE, true)) {
-            fw.write(entry);
-        } catch (Exception e) {
+        try {
+            ActivityLog.get().append(entry);
+        } catch (IllegalStateException e) {
             e.printStackTrace();
+            JOptionPane.showMessageDialog(this, "Activity could not be logged: " + e.getMessage());
         }
     }
 
+    @Override
+    public void dispose() {
+        if (syncTimer != null) syncTimer.stop();
+        super.dispose();
+    }
+
     // ================= MAIN =================
     public static void main(String[] args) {
         SwingUtilities.invokeLater(() -> new InventoryGUI(false).setVisible(true));
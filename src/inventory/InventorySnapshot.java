@@ -0,0 +1,132 @@
+package inventory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compact binary copy of the products table together with the byte offset
+ * of inventory_log.txt it reflects. Everything logged before that offset is
+ * already folded in; recovery replays the log from there.
+ */
+public class InventorySnapshot {
+    private static final int MAGIC = 0x49534E50; // "ISNP"
+    private static final int VERSION = 1;
+
+    private final long logOffset;
+    private final long createdAt;
+    private final Map<Integer, Product> products;
+
+    public InventorySnapshot(long logOffset, long createdAt, Map<Integer, Product> products) {
+        this.logOffset = logOffset;
+        this.createdAt = createdAt;
+        this.products = products;
+    }
+
+    public long getLogOffset() { return logOffset; }
+    public long getCreatedAt() { return createdAt; }
+    public Map<Integer, Product> getProducts() { return products; }
+
+    public void write(Path file) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(logOffset);
+            out.writeLong(createdAt);
+            writeProducts(out, products.values());
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static InventorySnapshot read(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not an inventory snapshot: " + file);
+            }
+            long logOffset = in.readLong();
+            long createdAt = in.readLong();
+            Map<Integer, Product> products = readProducts(in);
+            return new InventorySnapshot(logOffset, createdAt, products);
+        }
+    }
+
+    /** Like read, but decodes straight from a read-only mapping of the file instead of buffered reads. */
+    public static InventorySnapshot map(Path file) throws IOException {
+        ByteBuffer buf;
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+        }
+        try (DataInputStream in = new DataInputStream(new ByteBufferInputStream(buf))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not an inventory snapshot: " + file);
+            }
+            long logOffset = in.readLong();
+            long createdAt = in.readLong();
+            Map<Integer, Product> products = readProducts(in);
+            return new InventorySnapshot(logOffset, createdAt, products);
+        }
+    }
+
+    static void writeProducts(DataOutputStream out, Collection<Product> products) throws IOException {
+        out.writeInt(products.size());
+        for (Product p : products) {
+            out.writeInt(p.getId());
+            out.writeUTF(p.getName());
+            out.writeUTF(p.getCategory());
+            out.writeUTF(p.getShade());
+            out.writeDouble(p.getPrice());
+            out.writeInt(p.getNoOfItems());
+        }
+        // Trailer so a truncated file is detected on read.
+        out.writeInt(MAGIC);
+    }
+
+    static Map<Integer, Product> readProducts(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        Map<Integer, Product> products = new TreeMap<>();
+        for (int i = 0; i < count; i++) {
+            Product p = new Product(in.readInt(), in.readUTF(), in.readUTF(), in.readUTF(),
+                    in.readDouble(), in.readInt());
+            products.put(p.getId(), p);
+        }
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Snapshot is truncated");
+        }
+        return products;
+    }
+
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buf;
+
+        ByteBufferInputStream(ByteBuffer buf) {
+            this.buf = buf;
+        }
+
+        @Override
+        public int read() {
+            return buf.hasRemaining() ? buf.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) return 0;
+            if (!buf.hasRemaining()) return -1;
+            int n = Math.min(len, buf.remaining());
+            buf.get(b, off, n);
+            return n;
+        }
+    }
+}
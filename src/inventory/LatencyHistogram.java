@@ -0,0 +1,117 @@
+package inventory;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of durations in nanoseconds. Values are counted in
+ * log-linear buckets (64 per power of two), so any percentile is reported
+ * within about 1.6% of the true value whatever the range, and recording is
+ * one array increment. Safe to record into from any number of threads.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BITS = 6;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS + 1) * SUB_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        counts.incrementAndGet(bucketOf(nanos));
+        count.incrementAndGet();
+        sum.addAndGet(nanos);
+        long m;
+        while (nanos > (m = max.get()) && !max.compareAndSet(m, nanos)) {
+            // retry
+        }
+    }
+
+    /** Adds another histogram's counts to this one. */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            long c = other.counts.get(i);
+            if (c != 0) counts.addAndGet(i, c);
+        }
+        count.addAndGet(other.count.get());
+        sum.addAndGet(other.sum.get());
+        long m;
+        long otherMax = other.max.get();
+        while (otherMax > (m = max.get()) && !max.compareAndSet(m, otherMax)) {
+            // retry
+        }
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) counts.set(i, 0);
+        count.set(0);
+        sum.set(0);
+        max.set(0);
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getTotalNanos() {
+        return sum.get();
+    }
+
+    public long getMaxNanos() {
+        return max.get();
+    }
+
+    public double getMeanNanos() {
+        long n = count.get();
+        return n == 0 ? 0 : (double) sum.get() / n;
+    }
+
+    /** The value at the given quantile (0.5 for the median, 0.999 for p99.9), or 0 if empty. */
+    public long percentile(double quantile) {
+        long n = 0;
+        long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            n += snapshot[i];
+        }
+        if (n == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(quantile * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(valueOf(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    // Values below SUB_COUNT get a bucket each; above that, each power of
+    // two is split into SUB_COUNT equal slices.
+    static int bucketOf(long value) {
+        if (value < SUB_COUNT) return (int) value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_COUNT - 1);
+        return (exponent - SUB_BITS + 1) * SUB_COUNT + sub;
+    }
+
+    // Midpoint of the bucket's range.
+    static long valueOf(int bucket) {
+        if (bucket < SUB_COUNT) return bucket;
+        int exponent = bucket / SUB_COUNT + SUB_BITS - 1;
+        int sub = bucket % SUB_COUNT;
+        long width = 1L << (exponent - SUB_BITS);
+        long low = (1L << exponent) + sub * width;
+        return low + width / 2;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d mean=%.3fms p50=%.3fms p99=%.3fms p99.9=%.3fms max=%.3fms",
+                getCount(), getMeanNanos() / 1e6, percentile(0.5) / 1e6,
+                percentile(0.99) / 1e6, percentile(0.999) / 1e6, getMaxNanos() / 1e6);
+    }
+}
@@ -0,0 +1,340 @@
+package inventory;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Headless load test: N clerk sessions hammer the configured database with
+ * a weighted mix of the calls the inventory screens make, then a table of
+ * throughput and p50/p99/p99.9 latency per operation is printed.
+ *
+ * Configured with system properties:
+ * <pre>
+ *   load.sessions     concurrent sessions (8)
+ *   load.warmupSec    seconds run before measuring (10)
+ *   load.durationSec  seconds measured (60)
+ *   load.thinkMs      mean pause between a session's calls (0 = none)
+ *   load.mix          op=weight list, e.g. search=40,find=15,stock=10
+ *                     (ops: search summary find exists stock add update delete login)
+ *   load.username / load.password   credentials for the login op; without
+ *                     them login is dropped from the mix
+ *   load.seed         random seed (42)
+ * </pre>
+ * Each session gets its own DAO, like a separate terminal; the pool is
+ * sized to the session count unless db.pool.maxSize is set. Stock changes
+ * and lookups hit existing products; updates and deletes only touch rows
+ * the run itself added, and whatever of those is left is deleted at the end.
+ */
+public class LoadGenerator {
+
+    enum Op { SEARCH, SUMMARY, FIND, EXISTS, STOCK, ADD, UPDATE, DELETE, LOGIN }
+
+    private static final String DEFAULT_MIX =
+            "search=40,summary=5,find=15,exists=10,stock=12,add=8,update=5,delete=3,login=2";
+    private static final String[] CATEGORIES = {"Lipstick", "Blush", "Foundation"};
+    private static final int SAMPLE_SIZE = 10_000;
+    private static final int SEARCH_PAGE = 100;
+
+    private final int sessions;
+    private final long warmupNanos;
+    private final long durationNanos;
+    private final long thinkMs;
+    private final String username;
+    private final String password;
+    private final long seed;
+    private final Op[] ops;
+    private final int[] cumulativeWeights;
+
+    private final Map<Op, LatencyHistogram> latencies = new EnumMap<>(Op.class);
+    private final Map<Op, AtomicLong> errors = new EnumMap<>(Op.class);
+    private final String runTag = Long.toString(System.currentTimeMillis(), 36);
+    private volatile boolean measuring = false;
+
+    private List<Integer> sampleIds;
+    private List<Product> sampleProducts;
+    private List<String> searchTerms;
+
+    public LoadGenerator() {
+        sessions = Integer.getInteger("load.sessions", 8);
+        warmupNanos = TimeUnit.SECONDS.toNanos(Long.getLong("load.warmupSec", 10));
+        durationNanos = TimeUnit.SECONDS.toNanos(Long.getLong("load.durationSec", 60));
+        thinkMs = Long.getLong("load.thinkMs", 0);
+        username = System.getProperty("load.username");
+        password = System.getProperty("load.password", "");
+        seed = Long.getLong("load.seed", 42);
+
+        Map<Op, Integer> weights = parseMix(System.getProperty("load.mix", DEFAULT_MIX));
+        if (username == null && weights.remove(Op.LOGIN) != null) {
+            System.out.println("load.username not set; login dropped from the mix.");
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("load.mix has no operations with a positive weight");
+        }
+        ops = weights.keySet().toArray(new Op[0]);
+        cumulativeWeights = new int[ops.length];
+        int total = 0;
+        for (int i = 0; i < ops.length; i++) {
+            total += weights.get(ops[i]);
+            cumulativeWeights[i] = total;
+        }
+        for (Op op : Op.values()) {
+            latencies.put(op, new LatencyHistogram());
+            errors.put(op, new AtomicLong());
+        }
+    }
+
+    static Map<Op, Integer> parseMix(String mix) {
+        Map<Op, Integer> weights = new EnumMap<>(Op.class);
+        for (String part : mix.split(",")) {
+            if (part.isBlank()) continue;
+            String[] kv = part.split("=");
+            if (kv.length != 2) {
+                throw new IllegalArgumentException("Bad load.mix entry: " + part);
+            }
+            Op op = Op.valueOf(kv[0].trim().toUpperCase(Locale.ROOT));
+            int weight = Integer.parseInt(kv[1].trim());
+            if (weight > 0) weights.put(op, weight);
+        }
+        return weights;
+    }
+
+    public void run() throws Exception {
+        if (System.getProperty("db.pool.maxSize") == null) {
+            System.setProperty("db.pool.maxSize", Integer.toString(sessions));
+        }
+        loadSample();
+        if (sampleIds.isEmpty()) {
+            System.out.println("The products table is empty; import some products before running a load test.");
+            return;
+        }
+        System.out.printf("Load test: %d sessions, %ds warm-up, %ds measured, mix %s%n",
+                sessions, TimeUnit.NANOSECONDS.toSeconds(warmupNanos),
+                TimeUnit.NANOSECONDS.toSeconds(durationNanos), mixDescription());
+
+        List<Session> clerks = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(sessions);
+        long start = System.nanoTime();
+        long measureFrom = start + warmupNanos;
+        long end = measureFrom + durationNanos;
+        for (int i = 0; i < sessions; i++) {
+            Session s = new Session(i, new Random(seed + i), end, done);
+            clerks.add(s);
+            Thread t = new Thread(s, "load-session-" + i);
+            t.setDaemon(true);
+            t.start();
+        }
+
+        long wait = measureFrom - System.nanoTime();
+        if (wait > 0) TimeUnit.NANOSECONDS.sleep(wait);
+        measuring = true;
+        long measuredStart = System.nanoTime();
+        done.await();
+        measuring = false;
+        long measured = System.nanoTime() - measuredStart;
+
+        report(Math.min(measured, durationNanos));
+        cleanUp(clerks);
+        System.out.println("Pool: " + DBConnection.getPoolStats());
+    }
+
+    // Ids and names of existing products, so reads and stock changes land on real rows.
+    private void loadSample() {
+        ArrayList<Product> products = new ProductDAO().findProducts(ProductFilter.ALL, 0, SAMPLE_SIZE);
+        sampleProducts = products;
+        sampleIds = new ArrayList<>(products.size());
+        Set<String> terms = new LinkedHashSet<>();
+        for (Product p : products) {
+            sampleIds.add(p.getId());
+            for (String word : p.getName().toLowerCase(Locale.ROOT).split("\\s+")) {
+                if (word.length() >= 3 && terms.size() < 1000) terms.add(word);
+            }
+        }
+        searchTerms = new ArrayList<>(terms);
+        if (searchTerms.isEmpty()) searchTerms.add("a");
+    }
+
+    private Op pick(Random random) {
+        int r = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < ops.length; i++) {
+            if (r < cumulativeWeights[i]) return ops[i];
+        }
+        return ops[ops.length - 1];
+    }
+
+    private class Session implements Runnable {
+        private final int number;
+        private final Random random;
+        private final long end;
+        private final CountDownLatch done;
+        private final ProductDAO dao = ProductDAO.create();
+        private final UserDAO userDAO = UserDAO.create();
+        private final List<Integer> added = new ArrayList<>();
+        private int nextName = 0;
+
+        Session(int number, Random random, long end, CountDownLatch done) {
+            this.number = number;
+            this.random = random;
+            this.end = end;
+            this.done = done;
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (System.nanoTime() < end) {
+                    Op op = pick(random);
+                    // Updates and deletes need a row of our own; add one first.
+                    if ((op == Op.UPDATE || op == Op.DELETE) && added.isEmpty()) op = Op.ADD;
+                    // Reads swallow their SQL errors; the pool and statement wrappers still flag them.
+                    boolean[] failed = MetricsRegistry.failureFlag();
+                    long t0 = System.nanoTime();
+                    boolean ok;
+                    try {
+                        ok = execute(op) && !failed[0];
+                    } catch (Exception e) {
+                        ok = false;
+                    }
+                    long elapsed = System.nanoTime() - t0;
+                    if (measuring) {
+                        latencies.get(op).record(elapsed);
+                        if (!ok) errors.get(op).incrementAndGet();
+                    }
+                    if (thinkMs > 0) {
+                        Thread.sleep((long) (-thinkMs * Math.log(1 - random.nextDouble())));
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                done.countDown();
+            }
+        }
+
+        private boolean execute(Op op) throws Exception {
+            switch (op) {
+                case SEARCH:
+                    dao.findProducts(searchFilter(), 0, SEARCH_PAGE);
+                    return true;
+                case SUMMARY:
+                    return dao.summarize(searchFilter()) != null;
+                case FIND:
+                    dao.findById(randomId());
+                    return true;
+                case EXISTS: {
+                    Product p = sampleProducts.get(random.nextInt(sampleProducts.size()));
+                    dao.existsByNameAndShade(p.getName(), p.getShade(), null);
+                    return true;
+                }
+                case STOCK: {
+                    int delta = random.nextBoolean() ? -(1 + random.nextInt(3)) : 1 + random.nextInt(5);
+                    WriteResult r = dao.adjustStock(randomId(), delta);
+                    return r.getStatus() != WriteResult.Status.FAILED;
+                }
+                case ADD: {
+                    Product p = newProduct();
+                    WriteResult r = dao.addProduct(p);
+                    if (r.isOk()) added.add(r.getProduct().getId());
+                    return r.getStatus() != WriteResult.Status.FAILED;
+                }
+                case UPDATE: {
+                    int id = added.get(random.nextInt(added.size()));
+                    Product p = newProduct();
+                    p.setId(id);
+                    WriteResult r = dao.updateProduct(p);
+                    return r.getStatus() != WriteResult.Status.FAILED;
+                }
+                case DELETE: {
+                    int id = added.remove(added.size() - 1);
+                    WriteResult r = dao.deleteProduct(id);
+                    return r.getStatus() != WriteResult.Status.FAILED;
+                }
+                case LOGIN:
+                    return userDAO.loginUser(username, password) != null;
+                default:
+                    throw new IllegalStateException(op.toString());
+            }
+        }
+
+        private ProductFilter searchFilter() {
+            return new ProductFilter(searchTerms.get(random.nextInt(searchTerms.size())), null, null, null);
+        }
+
+        private int randomId() {
+            return sampleIds.get(random.nextInt(sampleIds.size()));
+        }
+
+        // Names are unique per run and session, so adds never collide.
+        private Product newProduct() {
+            String name = "Load " + runTag + " " + number + "-" + nextName++;
+            return new Product(name, CATEGORIES[random.nextInt(CATEGORIES.length)],
+                    String.format("%03d", random.nextInt(1000)),
+                    Math.round(random.nextDouble() * 20_000) / 100.0, random.nextInt(200));
+        }
+    }
+
+    // ================= REPORT =================
+
+    private void report(long measuredNanos) {
+        double seconds = measuredNanos / 1e9;
+        System.out.println();
+        System.out.printf("%-9s %10s %8s %10s %9s %9s %9s %9s %9s%n",
+                "operation", "count", "errors", "ops/s", "mean ms", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        LatencyHistogram all = new LatencyHistogram();
+        long allErrors = 0;
+        for (Op op : Op.values()) {
+            LatencyHistogram h = latencies.get(op);
+            if (h.getCount() == 0) continue;
+            all.add(h);
+            allErrors += errors.get(op).get();
+            printRow(op.name().toLowerCase(Locale.ROOT), h, errors.get(op).get(), seconds);
+        }
+        printRow("total", all, allErrors, seconds);
+    }
+
+    private static void printRow(String name, LatencyHistogram h, long errors, double seconds) {
+        System.out.printf("%-9s %10d %8d %10.1f %9.3f %9.3f %9.3f %9.3f %9.3f%n",
+                name, h.getCount(), errors, h.getCount() / seconds,
+                h.getMeanNanos() / 1e6, h.percentile(0.5) / 1e6, h.percentile(0.99) / 1e6,
+                h.percentile(0.999) / 1e6, h.getMaxNanos() / 1e6);
+    }
+
+    private String mixDescription() {
+        StringBuilder sb = new StringBuilder();
+        int previous = 0;
+        for (int i = 0; i < ops.length; i++) {
+            if (sb.length() > 0) sb.append(',');
+            sb.append(ops[i].name().toLowerCase(Locale.ROOT)).append('=').append(cumulativeWeights[i] - previous);
+            previous = cumulativeWeights[i];
+        }
+        return sb.toString();
+    }
+
+    private void cleanUp(List<Session> clerks) {
+        List<Integer> leftovers = new ArrayList<>();
+        for (Session s : clerks) leftovers.addAll(s.added);
+        if (leftovers.isEmpty()) return;
+        BulkResult r = new ProductDAO().deleteProducts(leftovers);
+        System.out.println(r.isOk()
+                ? "Removed " + r.getProducts().size() + " products added by the run."
+                : "Could not remove the " + leftovers.size() + " products added by the run (names start with \"Load " + runTag + "\").");
+    }
+
+    public static void main(String[] args) {
+        try {
+            new LoadGenerator().run();
+        } catch (Exception e) {
+            e.printStackTrace();
+        } finally {
+            DBConnection.shutdown();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package inventory;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * One parsed line of inventory_log.txt:
+ * {@code 2025-12-11 21:21:53 | ADDED | ID:8 | Name | Category | Shade:001 | Price:399.00 | Items:53}
+ */
+public class LogEntry {
+    private final long offset;
+    private final LocalDateTime time;
+    private final String action;
+    private final Product product;
+
+    public LogEntry(long offset, LocalDateTime time, String action, Product product) {
+        this.offset = offset;
+        this.time = time;
+        this.action = action;
+        this.product = product;
+    }
+
+    public long getOffset() { return offset; }
+    public LocalDateTime getTime() { return time; }
+    public String getAction() { return action; }
+    public Product getProduct() { return product; }
+
+    /** Parses a line written by InventoryGUI.logAction, or returns null if it is malformed. */
+    public static LogEntry parse(String line, long offset) {
+        String[] parts = line.split(" \\| ", -1);
+        if (parts.length < 8) {
+            return null;
+        }
+        try {
+            long epoch = parseEpochSecond(parts[0]);
+            if (epoch == Long.MIN_VALUE) return null;
+            LocalDateTime time = LocalDateTime.ofEpochSecond(epoch, 0, ZoneOffset.UTC);
+            int id = Integer.parseInt(stripPrefix(parts[2], "ID:"));
+            // Names may contain " | ", so read the fixed fields from the end of the line.
+            int n = parts.length;
+            int items = Integer.parseInt(stripPrefix(parts[n - 1], "Items:"));
+            double price = Double.parseDouble(stripPrefix(parts[n - 2], "Price:"));
+            String shade = stripPrefix(parts[n - 3], "Shade:");
+            String category = parts[n - 4];
+            String name = String.join(" | ", Arrays.copyOfRange(parts, 3, n - 4));
+            return new LogEntry(offset, time, parts[1].trim(),
+                    new Product(id, name, category, shade, price, items));
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Reads "yyyy-MM-dd HH:mm:ss" into seconds since the epoch, treating the
+     * local timestamp as UTC. Returns Long.MIN_VALUE if it is not in that form.
+     */
+    static long parseEpochSecond(CharSequence s) {
+        if (s.length() < 19 || s.charAt(4) != '-' || s.charAt(7) != '-' || s.charAt(10) != ' '
+                || s.charAt(13) != ':' || s.charAt(16) != ':') {
+            return Long.MIN_VALUE;
+        }
+        try {
+            return LocalDateTime.of(
+                    digits(s, 0, 4), digits(s, 5, 7), digits(s, 8, 10),
+                    digits(s, 11, 13), digits(s, 14, 16), digits(s, 17, 19)
+            ).toEpochSecond(ZoneOffset.UTC);
+        } catch (RuntimeException e) {
+            return Long.MIN_VALUE;
+        }
+    }
+
+    private static int digits(CharSequence s, int from, int to) {
+        int v = 0;
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') throw new NumberFormatException(s.toString());
+            v = v * 10 + (c - '0');
+        }
+        return v;
+    }
+
+    private static String stripPrefix(String s, String prefix) {
+        String t = s.trim();
+        return t.startsWith(prefix) ? t.substring(prefix.length()) : t;
+    }
+}
@@ -15,7 +15,9 @@ public class LoginGUI extends JFrame {
     private JButton btnLogin;
     private int failedAttempts = 0;
     private static final int MAX_ATTEMPTS = 5;
-    private UserDAO userDAO = new UserDAO();
+    private UserDAO userDAO = UserDAO.create();
+    private final JProgressBar busyBar = new JProgressBar();
+    private final BackgroundTasks tasks = BackgroundTasks.forWindow(this, busyBar);
 
     public LoginGUI() {
         setTitle("Login - Makeup Inventory");
@@ -54,6 +56,10 @@ public class LoginGUI extends JFrame {
         gbc.fill = GridBagConstraints.NONE;
         formPanel.add(btnLogin, gbc);
 
+        gbc.gridy = 3; gbc.insets = new Insets(4, 4, 4, 4);
+        gbc.fill = GridBagConstraints.HORIZONTAL;
+        formPanel.add(busyBar, gbc);
+
         JPanel logoPanel = new JPanel();
         logoPanel.setLayout(new BoxLayout(logoPanel, BoxLayout.Y_AXIS));
         logoPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
@@ -105,7 +111,15 @@ public class LoginGUI extends JFrame {
             return;
         }
 
-        User user = userDAO.loginUser(username, password);
+        btnLogin.setEnabled(false);
+        tasks.run("login", () -> userDAO.loginUser(username, password), this::onLoginResult, e -> {
+            btnLogin.setEnabled(true);
+            e.printStackTrace();
+            JOptionPane.showMessageDialog(this, "Login failed: " + e.getMessage());
+        });
+    }
+
+    private void onLoginResult(User user) {
         if (user != null) {
             JOptionPane.showMessageDialog(this, "Login successful!");
             if ("admin".equalsIgnoreCase(user.getRole())) {
@@ -117,9 +131,7 @@ public class LoginGUI extends JFrame {
         } else {
             JOptionPane.showMessageDialog(this, "Invalid username or password.");
             failedAttempts++;
-            if (failedAttempts >= MAX_ATTEMPTS) {
-                btnLogin.setEnabled(false);
-            }
+            btnLogin.setEnabled(failedAttempts < MAX_ATTEMPTS);
         }
     }
 
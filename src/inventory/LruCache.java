@@ -0,0 +1,92 @@
+package inventory;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiPredicate;
+
+/**
+ * Size-bounded, access-ordered map whose entries also expire after a fixed
+ * time to live. All methods are synchronized; it is shared by DAO workers.
+ */
+public class LruCache<K, V> {
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LinkedHashMap<K, Entry<V>> map;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+
+    private static class Entry<V> {
+        final V value;
+        final long expiresAt;
+
+        Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    public LruCache(int maxEntries, long ttlMillis) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        this.map = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > LruCache.this.maxEntries) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /** The cached value, or null on a miss (absent or expired). */
+    public synchronized V get(K key) {
+        Entry<V> e = map.get(key);
+        if (e == null) {
+            misses++;
+            return null;
+        }
+        if (System.nanoTime() - e.expiresAt >= 0) {
+            map.remove(key);
+            expirations++;
+            misses++;
+            return null;
+        }
+        hits++;
+        return e.value;
+    }
+
+    public synchronized void put(K key, V value) {
+        map.put(key, new Entry<>(value, System.nanoTime() + ttlNanos));
+    }
+
+    public synchronized void remove(K key) {
+        map.remove(key);
+    }
+
+    /** Removes every entry the predicate accepts. */
+    public synchronized void removeIf(BiPredicate<K, V> predicate) {
+        for (Iterator<Map.Entry<K, Entry<V>>> it = map.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<K, Entry<V>> e = it.next();
+            if (predicate.test(e.getKey(), e.getValue().value)) it.remove();
+        }
+    }
+
+    public synchronized void clear() {
+        map.clear();
+    }
+
+    public synchronized int size() {
+        return map.size();
+    }
+
+    public synchronized long getHits() { return hits; }
+    public synchronized long getMisses() { return misses; }
+    public synchronized long getEvictions() { return evictions; }
+    public synchronized long getExpirations() { return expirations; }
+}
@@ -0,0 +1,173 @@
+package inventory;
+
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Times every call into another ProductDAO (plain or caching) and records
+ * it under ProductDAO.&lt;method&gt; in the MetricsRegistry. ProductDAO.create()
+ * wraps the DAO it hands out in one of these unless metrics are disabled.
+ */
+public class MeteredProductDAO extends ProductDAO {
+    private final ProductDAO target;
+
+    private final OperationMetrics existsByNameAndShade = op("existsByNameAndShade");
+    private final OperationMetrics findById = op("findById");
+    private final OperationMetrics loadById = op("loadById");
+    private final OperationMetrics findIdsByNameAndShade = op("findIdsByNameAndShade");
+    private final OperationMetrics addProduct = op("addProduct");
+    private final OperationMetrics importProducts = op("importProducts");
+    private final OperationMetrics replaceAllProducts = op("replaceAllProducts");
+    private final OperationMetrics getAllProducts = op("getAllProducts");
+    private final OperationMetrics findProducts = op("findProducts");
+    private final OperationMetrics findIdAtOffset = op("findIdAtOffset");
+    private final OperationMetrics summarize = op("summarize");
+    private final OperationMetrics forEachProduct = op("forEachProduct");
+    private final OperationMetrics databaseTime = op("databaseTime");
+    private final OperationMetrics findChangesSince = op("findChangesSince");
+    private final OperationMetrics purgeTombstones = op("purgeTombstones");
+    private final OperationMetrics exportProducts = op("exportProducts");
+    private final OperationMetrics updateProduct = op("updateProduct");
+    private final OperationMetrics adjustStock = op("adjustStock");
+    private final OperationMetrics deleteProduct = op("deleteProduct");
+    private final OperationMetrics addProducts = op("addProducts");
+    private final OperationMetrics updateProducts = op("updateProducts");
+    private final OperationMetrics deleteProducts = op("deleteProducts");
+
+    public MeteredProductDAO(ProductDAO target) {
+        this.target = target;
+    }
+
+    private static OperationMetrics op(String method) {
+        return MetricsRegistry.get().operation("ProductDAO." + method);
+    }
+
+    // Rows for a single-row read: none when nothing was found.
+    private static long one(Object result) {
+        return result == null ? 0 : 1;
+    }
+
+    // ================= READS =================
+
+    @Override
+    public boolean existsByNameAndShade(String name, String shade, Integer excludeId) {
+        return existsByNameAndShade.time(() -> target.existsByNameAndShade(name, shade, excludeId), b -> b ? 1 : 0);
+    }
+
+    @Override
+    public Product findById(int id) {
+        return findById.time(() -> target.findById(id), MeteredProductDAO::one);
+    }
+
+    @Override
+    Product loadById(int id) throws Exception {
+        return loadById.timeChecked(() -> target.loadById(id), MeteredProductDAO::one);
+    }
+
+    @Override
+    int[] findIdsByNameAndShade(String name, String shade) throws Exception {
+        return findIdsByNameAndShade.timeChecked(() -> target.findIdsByNameAndShade(name, shade), ids -> ids.length);
+    }
+
+    @Override
+    public ArrayList<Product> getAllProducts() {
+        return getAllProducts.time(target::getAllProducts, List::size);
+    }
+
+    @Override
+    public ArrayList<Product> findProducts(ProductFilter filter, int afterId, int limit) {
+        return findProducts.time(() -> target.findProducts(filter, afterId, limit), List::size);
+    }
+
+    @Override
+    public int findIdAtOffset(ProductFilter filter, int afterId, int offset) {
+        return findIdAtOffset.time(() -> target.findIdAtOffset(filter, afterId, offset), id -> id > 0 ? 1 : 0);
+    }
+
+    @Override
+    public ProductSummary summarize(ProductFilter filter) {
+        return summarize.time(() -> target.summarize(filter), MeteredProductDAO::one);
+    }
+
+    @Override
+    public int forEachProduct(ProductRowHandler handler) throws Exception {
+        return forEachProduct.timeChecked(() -> target.forEachProduct(handler), Integer::longValue);
+    }
+
+    @Override
+    public Timestamp databaseTime() throws Exception {
+        return databaseTime.timeChecked(target::databaseTime, MeteredProductDAO::one);
+    }
+
+    @Override
+    public ProductChanges findChangesSince(Timestamp since, int limit) throws Exception {
+        return findChangesSince.timeChecked(() -> target.findChangesSince(since, limit), ProductChanges::size);
+    }
+
+    @Override
+    public int exportProducts(Path file, ExportFormat format) throws Exception {
+        return exportProducts.timeChecked(() -> target.exportProducts(file, format), Integer::longValue);
+    }
+
+    // ================= WRITES =================
+
+    @Override
+    public WriteResult addProduct(Product p) {
+        return addProduct.time(() -> target.addProduct(p), r -> r.isOk() ? 1 : 0);
+    }
+
+    @Override
+    public WriteResult updateProduct(Product p) {
+        return updateProduct.time(() -> target.updateProduct(p), r -> r.isOk() ? 1 : 0);
+    }
+
+    @Override
+    public WriteResult adjustStock(int id, int delta) {
+        return adjustStock.time(() -> target.adjustStock(id, delta), r -> r.isOk() ? 1 : 0);
+    }
+
+    @Override
+    public WriteResult deleteProduct(int id) {
+        return deleteProduct.time(() -> target.deleteProduct(id), r -> r.isOk() ? 1 : 0);
+    }
+
+    @Override
+    public BulkResult addProducts(List<Product> products) {
+        return addProducts.time(() -> target.addProducts(products), r -> r.getProducts().size());
+    }
+
+    @Override
+    public BulkResult updateProducts(List<Product> products) {
+        return updateProducts.time(() -> target.updateProducts(products), r -> r.getProducts().size());
+    }
+
+    @Override
+    public BulkResult deleteProducts(Collection<Integer> ids) {
+        return deleteProducts.time(() -> target.deleteProducts(ids), r -> r.getProducts().size());
+    }
+
+    @Override
+    public int purgeTombstones(int days) {
+        return purgeTombstones.time(() -> target.purgeTombstones(days), Integer::longValue);
+    }
+
+    @Override
+    public void importProducts(Iterator<Product> rows, int chunkSize, ImportResult result) throws Exception {
+        importProducts.timeChecked(() -> {
+            target.importProducts(rows, chunkSize, result);
+            return result;
+        }, ImportResult::getInserted);
+    }
+
+    @Override
+    public void replaceAllProducts(Collection<Product> products) throws Exception {
+        replaceAllProducts.timeChecked(() -> {
+            target.replaceAllProducts(products);
+            return products;
+        }, Collection::size);
+    }
+}
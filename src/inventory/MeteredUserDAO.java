@@ -0,0 +1,65 @@
+package inventory;
+
+import java.util.List;
+
+/**
+ * Times every call into a UserDAO and records it under UserDAO.&lt;method&gt;
+ * in the MetricsRegistry. The boolean writes only return false when the
+ * statement failed, so false counts as an error.
+ */
+public class MeteredUserDAO extends UserDAO {
+    private final UserDAO target;
+
+    private final OperationMetrics loginUser = op("loginUser");
+    private final OperationMetrics register = op("register");
+    private final OperationMetrics createUser = op("createUser");
+    private final OperationMetrics listEmployees = op("listEmployees");
+    private final OperationMetrics updateUser = op("updateUser");
+    private final OperationMetrics deleteUser = op("deleteUser");
+
+    public MeteredUserDAO(UserDAO target) {
+        this.target = target;
+    }
+
+    private static OperationMetrics op(String method) {
+        return MetricsRegistry.get().operation("UserDAO." + method);
+    }
+
+    private static boolean failedIfFalse(boolean ok) {
+        if (!ok) MetricsRegistry.noteFailure();
+        return ok;
+    }
+
+    @Override
+    public User loginUser(String username, String password) {
+        return loginUser.time(() -> target.loginUser(username, password), u -> u == null ? 0 : 1);
+    }
+
+    @Override
+    public void register(String username, String password) {
+        register.time(() -> {
+            target.register(username, password);
+            return Boolean.TRUE;
+        }, b -> 1);
+    }
+
+    @Override
+    public boolean createUser(String username, String password, String role) {
+        return createUser.time(() -> failedIfFalse(target.createUser(username, password, role)), b -> b ? 1 : 0);
+    }
+
+    @Override
+    public List<User> listEmployees(String searchKey) {
+        return listEmployees.time(() -> target.listEmployees(searchKey), List::size);
+    }
+
+    @Override
+    public boolean updateUser(int id, String username, String password, String role) {
+        return updateUser.time(() -> failedIfFalse(target.updateUser(id, username, password, role)), b -> b ? 1 : 0);
+    }
+
+    @Override
+    public boolean deleteUser(int id) {
+        return deleteUser.time(() -> failedIfFalse(target.deleteUser(id)), b -> b ? 1 : 0);
+    }
+}
@@ -0,0 +1,150 @@
+package inventory;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Process-wide set of OperationMetrics, one per DAO method plus connection
+ * acquisition. Each is published as a JMX MBean named
+ * inventory:type=Operation,name=&lt;Class.method&gt; (visible in JConsole or
+ * VisualVM), and the registry itself as inventory:type=Metrics, whose dump
+ * operation writes a text report and whose CacheStats attribute totals the
+ * live CachingProductDAOs. Metrics are on unless -Dmetrics.enabled=false.
+ */
+public final class MetricsRegistry implements MetricsRegistryMBean {
+    public static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("metrics.enabled", "true"));
+
+    private static final MetricsRegistry INSTANCE = new MetricsRegistry();
+    // Set by code below a timed call (pool, statements) when it hit an error the DAO then swallowed.
+    // Cleared when the next timed call starts, so the caller can still read it once the call returns.
+    private static final ThreadLocal<boolean[]> callFailed = ThreadLocal.withInitial(() -> new boolean[1]);
+
+    private final Map<String, OperationMetrics> operations = new ConcurrentHashMap<>();
+    // Weak so DAOs dropped by their sessions are not kept alive for their counters.
+    private final Set<CachingProductDAO> caches = Collections.newSetFromMap(new WeakHashMap<>());
+
+    private MetricsRegistry() {
+        register("inventory:type=Metrics", this);
+    }
+
+    public static MetricsRegistry get() {
+        return INSTANCE;
+    }
+
+    public OperationMetrics operation(String name) {
+        return operations.computeIfAbsent(name, n -> {
+            OperationMetrics m = new OperationMetrics(n);
+            register("inventory:type=Operation,name=" + n, m);
+            return m;
+        });
+    }
+
+    void addCache(CachingProductDAO cache) {
+        synchronized (caches) {
+            caches.add(cache);
+        }
+    }
+
+    /** Totals over every live CachingProductDAO, or null if none was created. */
+    CachingProductDAO.Stats getCacheStatsIfStarted() {
+        synchronized (caches) {
+            CachingProductDAO.Stats total = null;
+            for (CachingProductDAO cache : caches) {
+                CachingProductDAO.Stats s = cache.getStats();
+                total = total == null ? s : total.plus(s);
+            }
+            return total;
+        }
+    }
+
+    @Override
+    public String getCacheStats() {
+        CachingProductDAO.Stats stats = getCacheStatsIfStarted();
+        return stats == null ? "" : stats.toString();
+    }
+
+    /** Marks the timed call running on this thread as failed. */
+    static void noteFailure() {
+        callFailed.get()[0] = true;
+    }
+
+    // Clears the flag at the start of a timed call and reads it at the end.
+    static boolean[] failureFlag() {
+        boolean[] flag = callFailed.get();
+        flag[0] = false;
+        return flag;
+    }
+
+    private static void register(String name, Object mbean) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(name);
+            if (!server.isRegistered(objectName)) {
+                server.registerMBean(mbean, objectName);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    // ================= REPORT =================
+
+    @Override
+    public String getReport() {
+        List<OperationMetrics> list = new ArrayList<>(operations.values());
+        list.sort((a, b) -> a.getName().compareTo(b.getName()));
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("Metrics at ").append(LocalDateTime.now().withNano(0)).append('\n');
+        sb.append(String.format("%-36s %10s %7s %11s %9s %9s %9s %9s %9s%n",
+                "operation", "count", "errors", "rows", "mean ms", "p50 ms", "p99 ms", "p99.9 ms", "max ms"));
+        for (OperationMetrics m : list) {
+            if (m.getCount() == 0) continue;
+            sb.append(String.format("%-36s %10d %7d %11d %9.3f %9.3f %9.3f %9.3f %9.3f%n",
+                    m.getName(), m.getCount(), m.getErrors(), m.getRows(), m.getMeanMillis(),
+                    m.getP50Millis(), m.getP99Millis(), m.getP999Millis(), m.getMaxMillis()));
+        }
+        StringBuilder statements = new StringBuilder();
+        SqlTracer.appendReport(statements, 20);
+        if (statements.length() > 0) {
+            sb.append("\nStatements by total time:\n").append(statements).append('\n');
+        }
+        ConnectionPool.Stats pool = DBConnection.getPoolStatsIfStarted();
+        if (pool != null) {
+            sb.append("Pool: ").append(pool).append('\n');
+        }
+        CachingProductDAO.Stats cache = getCacheStatsIfStarted();
+        if (cache != null) {
+            sb.append("Cache: ").append(cache).append('\n');
+        }
+        return sb.toString();
+    }
+
+    public Path dump(Path file) throws Exception {
+        Files.write(file, getReport().getBytes(StandardCharsets.UTF_8));
+        return file.toAbsolutePath();
+    }
+
+    @Override
+    public String dump(String file) throws Exception {
+        return dump(Paths.get(file)).toString();
+    }
+
+    @Override
+    public void reset() {
+        for (OperationMetrics m : operations.values()) m.reset();
+    }
+}
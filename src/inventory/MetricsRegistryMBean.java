@@ -0,0 +1,11 @@
+package inventory;
+
+/** JMX controls for the metrics registry. */
+public interface MetricsRegistryMBean {
+    /** Writes the current report to the given file and returns its absolute path. */
+    String dump(String file) throws Exception;
+    String getReport();
+    /** Hit, miss, eviction and expiry counts summed over the product caches; empty if there are none. */
+    String getCacheStats();
+    void reset();
+}
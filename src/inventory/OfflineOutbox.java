@@ -0,0 +1,427 @@
+package inventory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Product writes made while the database was unreachable, in the order they
+ * were made (offline_outbox.bin). Each entry is one length-prefixed,
+ * CRC-checked record, forced to disk before the write is reported as done;
+ * a record torn by a crash is cut off the next time the outbox is opened.
+ *
+ * replay() sends the entries to the database once it is back. An update or
+ * delete only goes through if the row still has the values the terminal
+ * saw; otherwise, and when an add or stock move is refused, the entry is
+ * dropped and written to offline_conflicts.txt. If the database goes away
+ * again mid-way, the rest stays queued.
+ *
+ * Progress is made durable one entry at a time: once an entry has been
+ * applied or refused, a DONE record (carrying the id the database gave an
+ * add) is appended and forced, and reopening the outbox drops the entries
+ * those records cover and maps pending ids to real ones. A crash during
+ * replay can therefore only resend the single entry that was in flight.
+ * The file is compacted to the entries still queued when a replay ends.
+ */
+public class OfflineOutbox {
+    public static final String DEFAULT_FILE = "offline_outbox.bin";
+    public static final String CONFLICTS_FILE = "offline_conflicts.txt";
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static OfflineOutbox instance;
+
+    // DONE marks the oldest queued entry as dealt with; it is only ever a record, never a queued entry.
+    public enum Op { ADD, UPDATE, STOCK, DELETE, DONE }
+
+    public static class Entry {
+        private final Op op;
+        private final long time;
+        private final Product before; // the row as the terminal saw it; null for ADD
+        private final Product after;  // the row after the change; null for DELETE
+        private final int delta;      // STOCK only
+
+        private Entry(Op op, long time, Product before, Product after, int delta) {
+            this.op = op;
+            this.time = time;
+            this.before = before;
+            this.after = after;
+            this.delta = delta;
+        }
+
+        static Entry add(Product added) {
+            return new Entry(Op.ADD, System.currentTimeMillis(), null, added, 0);
+        }
+
+        static Entry update(Product before, Product after) {
+            return new Entry(Op.UPDATE, System.currentTimeMillis(), before, after, 0);
+        }
+
+        static Entry stock(Product before, int delta) {
+            Product after = new Product(before.getId(), before.getName(), before.getCategory(), before.getShade(),
+                    before.getPrice(), before.getNoOfItems() + delta);
+            return new Entry(Op.STOCK, System.currentTimeMillis(), before, after, delta);
+        }
+
+        static Entry delete(Product before) {
+            return new Entry(Op.DELETE, System.currentTimeMillis(), before, null, 0);
+        }
+
+        // realId: the id the database gave an applied add, otherwise 0.
+        private static Entry done(int realId) {
+            return new Entry(Op.DONE, System.currentTimeMillis(), null, null, realId);
+        }
+
+        public Op getOp() { return op; }
+        public long getTime() { return time; }
+        public Product getBefore() { return before; }
+        public Product getAfter() { return after; }
+        public int getDelta() { return delta; }
+
+        public int getId() {
+            return after != null ? after.getId() : before.getId();
+        }
+
+        /** Applies the change to a local copy of the products table. */
+        void applyTo(Map<Integer, Product> products) {
+            if (op == Op.DELETE) {
+                products.remove(before.getId());
+            } else {
+                products.put(after.getId(), after);
+            }
+        }
+
+        // The same entry with a pending (negative) id swapped for the one the database assigned.
+        Entry withId(int id) {
+            return new Entry(op, time, withId(before, id), withId(after, id), delta);
+        }
+
+        private static Product withId(Product p, int id) {
+            return p == null ? null
+                    : new Product(id, p.getName(), p.getCategory(), p.getShade(), p.getPrice(), p.getNoOfItems());
+        }
+    }
+
+    /** What a replay did. */
+    public static class Replay {
+        private final List<LogEntry> applied = new ArrayList<>();
+        private final List<String> conflicts = new ArrayList<>();
+        private int remaining;
+
+        /** Applied changes as activity log entries, with database ids. */
+        public List<LogEntry> getApplied() { return applied; }
+        public List<String> getConflicts() { return conflicts; }
+        /** Entries still queued because the database went away again. */
+        public int getRemaining() { return remaining; }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(applied.size()).append(" offline change(s) saved to the database.");
+            if (!conflicts.isEmpty()) {
+                sb.append('\n').append(conflicts.size()).append(" could not be applied (see ")
+                        .append(CONFLICTS_FILE).append("):");
+                for (int i = 0; i < Math.min(10, conflicts.size()); i++) {
+                    sb.append("\n  ").append(conflicts.get(i));
+                }
+                if (conflicts.size() > 10) sb.append("\n  ...");
+            }
+            if (remaining > 0) {
+                sb.append('\n').append(remaining).append(" still queued; the database went away again.");
+            }
+            return sb.toString();
+        }
+    }
+
+    private final Path file;
+    private final Path conflictsFile;
+    private final List<Entry> entries = new ArrayList<>();
+    private FileChannel channel;
+
+    public static synchronized OfflineOutbox get() throws IOException {
+        if (instance == null) {
+            Path file = Paths.get(System.getProperty("offline.outboxFile", DEFAULT_FILE));
+            instance = new OfflineOutbox(file, file.resolveSibling(CONFLICTS_FILE));
+        }
+        return instance;
+    }
+
+    public OfflineOutbox(Path file, Path conflictsFile) throws IOException {
+        this.file = file;
+        this.conflictsFile = conflictsFile;
+        long valid = 0;
+        if (Files.exists(file)) {
+            ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(file));
+            Map<Integer, Integer> realIds = new HashMap<>(); // pending id -> id the database gave it
+            Entry e;
+            while ((e = readRecord(buf)) != null) {
+                if (e.op != Op.DONE) {
+                    entries.add(e);
+                } else if (!entries.isEmpty()) {
+                    Entry done = entries.remove(0);
+                    if (done.op == Op.ADD && e.delta != 0) realIds.put(done.getId(), e.delta);
+                }
+                valid = buf.position();
+            }
+            for (Map.Entry<Integer, Integer> id : realIds.entrySet()) {
+                resolvePending(id.getKey(), id.getValue());
+            }
+        }
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        if (channel.size() > valid) {
+            channel.truncate(valid); // a torn record from a crash mid-append
+        }
+        channel.position(valid);
+    }
+
+    /** Queues the entry; it is on disk when this returns. */
+    public synchronized void append(Entry e) throws IOException {
+        writeRecord(e);
+        entries.add(e);
+    }
+
+    private void writeRecord(Entry e) throws IOException {
+        ByteBuffer record = ByteBuffer.wrap(toRecord(e));
+        while (record.hasRemaining()) {
+            channel.write(record);
+        }
+        channel.force(false);
+    }
+
+    public synchronized List<Entry> entries() {
+        return new ArrayList<>(entries);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    // ================= REPLAY =================
+
+    /** Sends the queued entries to the database in order; see the class comment. */
+    public synchronized Replay replay(ProductDAO dao) throws IOException {
+        Replay result = new Replay();
+        Map<Integer, Integer> realIds = new HashMap<>(); // pending id -> id the database gave it
+        boolean progressed = false;
+        try {
+            while (!entries.isEmpty()) {
+                Entry e = entries.get(0);
+                String reason;
+                if (e.getId() < 0 && e.op != Op.ADD) {
+                    reason = "it was made to a product whose offline add was not applied";
+                } else {
+                    try {
+                        reason = send(dao, e, result, realIds);
+                    } catch (Exception ex) {
+                        ex.printStackTrace();
+                        break; // the database went away again: keep the rest in order
+                    }
+                }
+                if (reason != null) {
+                    writeConflict(conflict(result, e, reason));
+                }
+                markDone(e.op == Op.ADD ? realIds.getOrDefault(e.getId(), 0) : 0);
+                progressed = true;
+            }
+        } finally {
+            result.remaining = entries.size();
+        }
+        if (progressed) {
+            rewrite(entries);
+        }
+        return result;
+    }
+
+    // Records that the oldest entry has been dealt with, so a crash from here on does not send it again.
+    private void markDone(int realId) throws IOException {
+        writeRecord(Entry.done(realId));
+        Entry done = entries.remove(0);
+        if (done.op == Op.ADD && realId != 0) {
+            resolvePending(done.getId(), realId);
+        }
+    }
+
+    // Points the queued entries for a product added offline at the id the database gave it.
+    private void resolvePending(int pendingId, int realId) {
+        entries.replaceAll(e -> e.op != Op.ADD && e.getId() == pendingId ? e.withId(realId) : e);
+    }
+
+    // Sends one entry. Returns null if it was applied (or had nothing left to do), otherwise why it was
+    // refused; throws if the database could not be reached.
+    private static String send(ProductDAO dao, Entry e, Replay result, Map<Integer, Integer> realIds) throws Exception {
+        WriteResult r;
+        switch (e.op) {
+            case ADD: {
+                Product p = e.after;
+                r = dao.addProduct(new Product(p.getName(), p.getCategory(), p.getShade(), p.getPrice(), p.getNoOfItems()));
+                if (r.getStatus() == WriteResult.Status.DUPLICATE) {
+                    return "a product with this name and shade was added on the server";
+                }
+                requireOk(r);
+                realIds.put(p.getId(), r.getProduct().getId());
+                applied(result, "ADDED", r.getProduct());
+                return null;
+            }
+            case UPDATE: {
+                Product current = dao.loadById(e.getId());
+                if (current == null) return "the product was deleted on the server";
+                if (!current.sameValues(e.before)) return "the product was changed on the server in the meantime";
+                r = dao.updateProduct(e.after);
+                if (r.getStatus() == WriteResult.Status.NOT_FOUND) return "the product was deleted on the server";
+                if (r.getStatus() == WriteResult.Status.DUPLICATE) {
+                    return "a product with this name and shade was added on the server";
+                }
+                requireOk(r);
+                applied(result, "UPDATED", e.after);
+                return null;
+            }
+            case STOCK: {
+                r = dao.adjustStock(e.getId(), e.delta);
+                if (r.getStatus() == WriteResult.Status.NOT_FOUND) return "the product was deleted on the server";
+                if (r.getStatus() == WriteResult.Status.INSUFFICIENT_STOCK) {
+                    return "only " + r.getProduct().getNoOfItems() + " left in stock on the server";
+                }
+                requireOk(r);
+                applied(result, e.delta < 0 ? "SOLD" : "RECEIVED", r.getProduct());
+                return null;
+            }
+            default: {
+                Product current = dao.loadById(e.getId());
+                if (current == null) return null; // already gone
+                if (!current.sameValues(e.before)) {
+                    return "the product was changed on the server in the meantime, so it was kept";
+                }
+                r = dao.deleteProduct(e.getId());
+                if (r.getStatus() == WriteResult.Status.NOT_FOUND) return null;
+                requireOk(r);
+                applied(result, "DELETED", r.getProduct());
+                return null;
+            }
+        }
+    }
+
+    private static void requireOk(WriteResult r) throws IOException {
+        if (!r.isOk()) {
+            throw new IOException("Database write failed (" + r.getStatus() + ")");
+        }
+    }
+
+    private static void applied(Replay result, String action, Product p) {
+        result.applied.add(new LogEntry(0, LocalDateTime.now(), action, p));
+    }
+
+    // Adds the conflict to the result and returns its line for offline_conflicts.txt.
+    private static String conflict(Replay result, Entry e, String reason) {
+        Product p = e.after != null ? e.after : e.before;
+        String what = String.format("%s %s (%s, shade %s)", e.op, p.getName(), p.getCategory(), p.getShade());
+        result.conflicts.add(what + ": " + reason);
+        String time = LocalDateTime.ofInstant(Instant.ofEpochMilli(e.time), ZoneId.systemDefault()).format(TIME_FORMAT);
+        return String.format(Locale.ROOT, "%s | %s | ID:%d | %s | %s | Shade:%s | Price:%.2f | Items:%d | %s%n",
+                time, e.op, p.getId(), p.getName(), p.getCategory(), p.getShade(),
+                p.getPrice(), p.getNoOfItems(), reason);
+    }
+
+    private void writeConflict(String line) {
+        try {
+            Files.write(conflictsFile, line.getBytes(StandardCharsets.UTF_8),
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // Replaces the file with the entries still queued, dropping the DONE records.
+    private void rewrite(List<Entry> kept) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (Entry e : kept) {
+                ByteBuffer record = ByteBuffer.wrap(toRecord(e));
+                while (record.hasRemaining()) {
+                    out.write(record);
+                }
+            }
+            out.force(false);
+        }
+        channel.close();
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(file, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+    }
+
+    // ================= RECORDS =================
+    // [length][op, time, delta, before?, after?][crc32 of the payload]
+    // A DONE record keeps the real id of an applied add in the delta field.
+
+    private static byte[] toRecord(Entry e) throws IOException {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(payload)) {
+            out.writeByte(e.op.ordinal());
+            out.writeLong(e.time);
+            out.writeInt(e.delta);
+            writeProduct(out, e.before);
+            writeProduct(out, e.after);
+        }
+        byte[] bytes = payload.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return ByteBuffer.allocate(8 + bytes.length)
+                .putInt(bytes.length).put(bytes).putInt((int) crc.getValue())
+                .array();
+    }
+
+    // The next complete record, or null at the end of the file or at a torn or corrupt record.
+    private static Entry readRecord(ByteBuffer buf) {
+        if (buf.remaining() < 4) return null;
+        int length = buf.getInt();
+        if (length <= 0 || buf.remaining() < length + 4) return null;
+        byte[] bytes = new byte[length];
+        buf.get(bytes);
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        if (buf.getInt() != (int) crc.getValue()) return null;
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            Op op = Op.values()[in.readByte()];
+            long time = in.readLong();
+            int delta = in.readInt();
+            return new Entry(op, time, readProduct(in), readProduct(in), delta);
+        } catch (IOException | RuntimeException ex) {
+            return null;
+        }
+    }
+
+    private static void writeProduct(DataOutputStream out, Product p) throws IOException {
+        out.writeBoolean(p != null);
+        if (p == null) return;
+        out.writeInt(p.getId());
+        out.writeUTF(p.getName());
+        out.writeUTF(p.getCategory());
+        out.writeUTF(p.getShade());
+        out.writeDouble(p.getPrice());
+        out.writeInt(p.getNoOfItems());
+    }
+
+    private static Product readProduct(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) return null;
+        return new Product(in.readInt(), in.readUTF(), in.readUTF(), in.readUTF(), in.readDouble(), in.readInt());
+    }
+}
@@ -0,0 +1,250 @@
+package inventory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Stands in for the ProductDAO while the database is unreachable. Reads come
+ * from the local copy of the products table (catalog_cache.bin, saved after
+ * every full load and memory-mapped when read back) with the queued outbox
+ * entries applied on top; writes are checked against that copy, appended to
+ * the OfflineOutbox and reported as done. Products added offline get
+ * negative ids until the outbox is replayed.
+ */
+public class OfflineProductDAO extends ProductDAO {
+    public static final String DEFAULT_CACHE_FILE = "catalog_cache.bin";
+
+    private final Map<Integer, Product> products; // guarded by this
+    private final OfflineOutbox outbox;
+    private final long copiedAt;
+    private int nextPendingId = -1;
+
+    private OfflineProductDAO(Map<Integer, Product> products, OfflineOutbox outbox, long copiedAt) {
+        this.products = products;
+        this.outbox = outbox;
+        this.copiedAt = copiedAt;
+        for (int id : products.keySet()) {
+            nextPendingId = Math.min(nextPendingId, id - 1);
+        }
+    }
+
+    private static Path cacheFile() {
+        return Paths.get(System.getProperty("offline.cacheFile", DEFAULT_CACHE_FILE));
+    }
+
+    /** Saves a full copy of the products table for use while offline. */
+    public static void saveLocalCopy(Collection<Product> all) throws IOException {
+        Map<Integer, Product> byId = new TreeMap<>();
+        for (Product p : all) byId.put(p.getId(), p);
+        new InventorySnapshot(-1, System.currentTimeMillis(), byId).write(cacheFile());
+    }
+
+    public static boolean hasLocalCopy() {
+        return Files.exists(cacheFile());
+    }
+
+    /** The local copy with queued offline writes applied, or null if no copy has been saved yet. */
+    public static OfflineProductDAO open() throws IOException {
+        Path file = cacheFile();
+        if (!Files.exists(file)) {
+            return null;
+        }
+        InventorySnapshot copy = InventorySnapshot.map(file);
+        Map<Integer, Product> products = new LinkedHashMap<>(copy.getProducts());
+        OfflineOutbox outbox = OfflineOutbox.get();
+        for (OfflineOutbox.Entry e : outbox.entries()) {
+            e.applyTo(products);
+        }
+        return new OfflineProductDAO(products, outbox, copy.getCreatedAt());
+    }
+
+    /** When the local copy was taken from the database, in epoch milliseconds. */
+    public long getCopiedAt() {
+        return copiedAt;
+    }
+
+    public int getQueued() {
+        return outbox.size();
+    }
+
+    // ================= READS =================
+
+    @Override
+    public synchronized boolean existsByNameAndShade(String name, String shade, Integer excludeId) {
+        return findByNameAndShade(name, shade, excludeId == null ? 0 : excludeId) != null;
+    }
+
+    private Product findByNameAndShade(String name, String shade, int excludeId) {
+        for (Product p : products.values()) {
+            if (p.getId() != excludeId && p.getName().equalsIgnoreCase(name) && p.getShade().equalsIgnoreCase(shade)) {
+                return p;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public synchronized Product findById(int id) {
+        return products.get(id);
+    }
+
+    @Override
+    public synchronized ArrayList<Product> getAllProducts() {
+        return new ArrayList<>(products.values());
+    }
+
+    @Override
+    public synchronized ArrayList<Product> findProducts(ProductFilter filter, int afterId, int limit) {
+        List<Product> matches = new ArrayList<>();
+        for (Product p : products.values()) {
+            if (p.getId() > afterId && filter.matches(p)) matches.add(p);
+        }
+        matches.sort((a, b) -> Integer.compare(a.getId(), b.getId()));
+        return new ArrayList<>(matches.subList(0, Math.min(limit, matches.size())));
+    }
+
+    @Override
+    public synchronized ProductSummary summarize(ProductFilter filter) {
+        int count = 0;
+        long items = 0;
+        double value = 0;
+        for (Product p : products.values()) {
+            if (!filter.matches(p)) continue;
+            count++;
+            items += p.getNoOfItems();
+            value += p.getPrice() * p.getNoOfItems();
+        }
+        return new ProductSummary(count, items, value);
+    }
+
+    // ================= WRITES =================
+
+    @Override
+    public synchronized WriteResult addProduct(Product p) {
+        if (findByNameAndShade(p.getName(), p.getShade(), 0) != null) {
+            return WriteResult.duplicate();
+        }
+        Product added = withId(p, nextPendingId);
+        if (!queue(OfflineOutbox.Entry.add(added))) {
+            return WriteResult.failed();
+        }
+        nextPendingId--;
+        return WriteResult.ok(added);
+    }
+
+    @Override
+    public synchronized WriteResult updateProduct(Product p) {
+        Product old = products.get(p.getId());
+        if (old == null) {
+            return WriteResult.notFound();
+        }
+        if (findByNameAndShade(p.getName(), p.getShade(), p.getId()) != null) {
+            return WriteResult.duplicate();
+        }
+        Product updated = withId(p, p.getId());
+        return queue(OfflineOutbox.Entry.update(old, updated)) ? WriteResult.ok(updated) : WriteResult.failed();
+    }
+
+    @Override
+    public synchronized WriteResult adjustStock(int id, int delta) {
+        Product old = products.get(id);
+        if (old == null) {
+            return WriteResult.notFound();
+        }
+        if (old.getNoOfItems() + delta < 0) {
+            return WriteResult.insufficientStock(old);
+        }
+        OfflineOutbox.Entry e = OfflineOutbox.Entry.stock(old, delta);
+        return queue(e) ? WriteResult.ok(e.getAfter()) : WriteResult.failed();
+    }
+
+    @Override
+    public synchronized WriteResult deleteProduct(int id) {
+        Product old = products.get(id);
+        if (old == null) {
+            return WriteResult.notFound();
+        }
+        return queue(OfflineOutbox.Entry.delete(old)) ? WriteResult.ok(old) : WriteResult.failed();
+    }
+
+    @Override
+    public synchronized BulkResult addProducts(List<Product> list) {
+        Set<String> keys = new HashSet<>();
+        for (Product p : list) {
+            if (!keys.add(nameShadeKey(p.getName(), p.getShade()))
+                    || findByNameAndShade(p.getName(), p.getShade(), 0) != null) {
+                return BulkResult.duplicate();
+            }
+        }
+        List<Product> added = new ArrayList<>(list.size());
+        for (Product p : list) {
+            WriteResult r = addProduct(p);
+            if (!r.isOk()) return BulkResult.failed();
+            added.add(r.getProduct());
+        }
+        return BulkResult.ok(added, new ArrayList<>());
+    }
+
+    @Override
+    public synchronized BulkResult updateProducts(List<Product> list) {
+        List<Product> updated = new ArrayList<>(list.size());
+        List<Integer> missing = new ArrayList<>();
+        for (Product p : list) {
+            if (!products.containsKey(p.getId())) {
+                missing.add(p.getId());
+            } else if (findByNameAndShade(p.getName(), p.getShade(), p.getId()) != null) {
+                return BulkResult.duplicate();
+            }
+        }
+        for (Product p : list) {
+            if (!products.containsKey(p.getId())) continue;
+            WriteResult r = updateProduct(p);
+            if (!r.isOk()) return BulkResult.failed();
+            updated.add(r.getProduct());
+        }
+        return BulkResult.ok(updated, missing);
+    }
+
+    @Override
+    public synchronized BulkResult deleteProducts(Collection<Integer> ids) {
+        List<Product> deleted = new ArrayList<>(ids.size());
+        List<Integer> missing = new ArrayList<>();
+        for (int id : ids) {
+            WriteResult r = deleteProduct(id);
+            if (r.getStatus() == WriteResult.Status.NOT_FOUND) {
+                missing.add(id);
+            } else if (!r.isOk()) {
+                return BulkResult.failed();
+            } else {
+                deleted.add(r.getProduct());
+            }
+        }
+        return BulkResult.ok(deleted, missing);
+    }
+
+    // Appends to the outbox, then applies to the local copy; false if the outbox could not be written.
+    private boolean queue(OfflineOutbox.Entry e) {
+        try {
+            outbox.append(e);
+        } catch (IOException ex) {
+            ex.printStackTrace();
+            return false;
+        }
+        e.applyTo(products);
+        return true;
+    }
+
+    private static Product withId(Product p, int id) {
+        return new Product(id, p.getName(), p.getCategory(), p.getShade(), p.getPrice(), p.getNoOfItems());
+    }
+}
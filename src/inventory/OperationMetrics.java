@@ -0,0 +1,99 @@
+package inventory;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Call count, error count, rows returned and a latency histogram for one
+ * DAO method (or for connection acquisition). Recording is a handful of
+ * uncontended atomic adds, cheap enough to leave on all the time.
+ */
+public class OperationMetrics implements OperationMetricsMBean {
+    private final String name;
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    OperationMetrics(String name) {
+        this.name = name;
+    }
+
+    public void record(long nanos, long rowCount, boolean failed) {
+        latency.record(nanos);
+        if (rowCount > 0) rows.add(rowCount);
+        if (failed) errors.increment();
+    }
+
+    /** Body of a timed call that may throw. */
+    @FunctionalInterface
+    public interface Call<T> {
+        T run() throws Exception;
+    }
+
+    /**
+     * Runs the call and records its latency and the rows it returned. It
+     * counts as an error if it throws, returns a FAILED write result, or hit
+     * a pool or statement error that the DAO swallowed.
+     */
+    public <T> T time(Supplier<T> call, ToLongFunction<? super T> rows) {
+        boolean[] failed = MetricsRegistry.failureFlag();
+        long start = System.nanoTime();
+        T result = null;
+        try {
+            result = call.get();
+            return result;
+        } catch (RuntimeException | Error e) {
+            failed[0] = true;
+            throw e;
+        } finally {
+            finish(start, result, rows, failed);
+        }
+    }
+
+    public <T> T timeChecked(Call<T> call, ToLongFunction<? super T> rows) throws Exception {
+        boolean[] failed = MetricsRegistry.failureFlag();
+        long start = System.nanoTime();
+        T result = null;
+        try {
+            result = call.run();
+            return result;
+        } catch (Exception | Error e) {
+            failed[0] = true;
+            throw e;
+        } finally {
+            finish(start, result, rows, failed);
+        }
+    }
+
+    private <T> void finish(long start, T result, ToLongFunction<? super T> rows, boolean[] failed) {
+        long elapsed = System.nanoTime() - start;
+        boolean error = failed[0] || isFailure(result);
+        record(elapsed, result == null ? 0 : rows.applyAsLong(result), error);
+    }
+
+    private static boolean isFailure(Object result) {
+        if (result instanceof WriteResult) return ((WriteResult) result).getStatus() == WriteResult.Status.FAILED;
+        if (result instanceof BulkResult) return ((BulkResult) result).getStatus() == WriteResult.Status.FAILED;
+        return false;
+    }
+
+    public String getName() { return name; }
+    public LatencyHistogram getLatency() { return latency; }
+
+    @Override public long getCount() { return latency.getCount(); }
+    @Override public long getErrors() { return errors.sum(); }
+    @Override public long getRows() { return rows.sum(); }
+    @Override public double getMeanMillis() { return latency.getMeanNanos() / 1e6; }
+    @Override public double getP50Millis() { return latency.percentile(0.5) / 1e6; }
+    @Override public double getP99Millis() { return latency.percentile(0.99) / 1e6; }
+    @Override public double getP999Millis() { return latency.percentile(0.999) / 1e6; }
+    @Override public double getMaxMillis() { return latency.getMaxNanos() / 1e6; }
+
+    @Override
+    public void reset() {
+        latency.reset();
+        errors.reset();
+        rows.reset();
+    }
+}
@@ -0,0 +1,14 @@
+package inventory;
+
+/** JMX view of one timed operation; latencies are in milliseconds. */
+public interface OperationMetricsMBean {
+    long getCount();
+    long getErrors();
+    long getRows();
+    double getMeanMillis();
+    double getP50Millis();
+    double getP99Millis();
+    double getP999Millis();
+    double getMaxMillis();
+    void reset();
+}
@@ -0,0 +1,154 @@
+package inventory;
+
+import java.util.Arrays;
+
+/**
+ * Catalog slots ordered by (price, slot) in two parallel primitive arrays.
+ * A price range maps to one contiguous slice found with two binary searches;
+ * inserts and removals shift the tail of the arrays, which stays cheap at
+ * the catalog sizes held locally (catalog.localLimit).
+ */
+public class PriceIndex {
+    private double[] prices = new double[16];
+    private int[] slots = new int[16];
+    private int size = 0;
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Replaces the contents in one sort, for bulk loads where repeated inserts
+     * would be quadratic. Each entry is packed into a long of (price rank, slot)
+     * so the whole load is ordered by a primitive sort.
+     */
+    public void rebuild(int[] newSlots, double[] newPrices, int n) {
+        double[] distinct = Arrays.copyOf(newPrices, n);
+        Arrays.sort(distinct);
+        int ranks = 0;
+        for (int i = 0; i < n; i++) {
+            if (ranks == 0 || Double.compare(distinct[ranks - 1], distinct[i]) != 0) {
+                distinct[ranks++] = distinct[i];
+            }
+        }
+        long[] keys = new long[n];
+        for (int i = 0; i < n; i++) {
+            long rank = Arrays.binarySearch(distinct, 0, ranks, newPrices[i]);
+            keys[i] = rank << 32 | newSlots[i];
+        }
+        Arrays.sort(keys);
+        prices = new double[Math.max(16, n)];
+        slots = new int[Math.max(16, n)];
+        for (int i = 0; i < n; i++) {
+            prices[i] = distinct[(int) (keys[i] >>> 32)];
+            slots[i] = (int) keys[i];
+        }
+        size = n;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void add(int slot, double price) {
+        int pos = position(price, slot);
+        if (pos >= 0) return;
+        pos = -pos - 1;
+        if (size == prices.length) {
+            prices = Arrays.copyOf(prices, size * 2);
+            slots = Arrays.copyOf(slots, size * 2);
+        }
+        System.arraycopy(prices, pos, prices, pos + 1, size - pos);
+        System.arraycopy(slots, pos, slots, pos + 1, size - pos);
+        prices[pos] = price;
+        slots[pos] = slot;
+        size++;
+    }
+
+    public void remove(int slot, double price) {
+        int pos = position(price, slot);
+        if (pos < 0) return;
+        System.arraycopy(prices, pos + 1, prices, pos, size - pos - 1);
+        System.arraycopy(slots, pos + 1, slots, pos, size - pos - 1);
+        size--;
+    }
+
+    /** Number of entries with min <= price <= max. Null bounds are open. */
+    public int count(Double min, Double max) {
+        return Math.max(0, upperBound(max) - lowerBound(min));
+    }
+
+    /** Slots with min <= price <= max, in price order. Null bounds are open. */
+    public int[] range(Double min, Double max) {
+        int from = lowerBound(min);
+        int to = upperBound(max);
+        return from >= to ? new int[0] : Arrays.copyOfRange(slots, from, to);
+    }
+
+    /**
+     * Slots with min <= price <= max in slot order, for slots below slotCount.
+     * The slice is marked in a bitmap and read back in order, which costs
+     * O(k + slotCount / 64) instead of sorting the k slots.
+     */
+    public int[] rangeInSlotOrder(Double min, Double max, int slotCount) {
+        int from = lowerBound(min);
+        int to = upperBound(max);
+        if (from >= to) return new int[0];
+        long[] bits = new long[(slotCount + 63) >>> 6];
+        for (int i = from; i < to; i++) {
+            bits[slots[i] >>> 6] |= 1L << slots[i];
+        }
+        int[] out = new int[to - from];
+        int n = 0;
+        for (int w = 0; w < bits.length; w++) {
+            for (long word = bits[w]; word != 0; word &= word - 1) {
+                out[n++] = (w << 6) + Long.numberOfTrailingZeros(word);
+            }
+        }
+        return out;
+    }
+
+    public double minPrice() {
+        return size == 0 ? 0 : prices[0];
+    }
+
+    public double maxPrice() {
+        return size == 0 ? 0 : prices[size - 1];
+    }
+
+    // First index whose price is >= min.
+    private int lowerBound(Double min) {
+        if (min == null) return 0;
+        int lo = 0, hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (prices[mid] < min) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+
+    // First index whose price is > max.
+    private int upperBound(Double max) {
+        if (max == null) return size;
+        int lo = 0, hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (prices[mid] <= max) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+
+    // Binary search on (price, slot); negative insertion point like Arrays.binarySearch.
+    private int position(double price, int slot) {
+        int lo = 0, hi = size - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = Double.compare(prices[mid], price);
+            if (cmp == 0) cmp = Integer.compare(slots[mid], slot);
+            if (cmp < 0) lo = mid + 1;
+            else if (cmp > 0) hi = mid - 1;
+            else return mid;
+        }
+        return -(lo + 1);
+    }
+}
@@ -40,4 +40,13 @@ public class Product {
 
     public int getNoOfItems() { return noOfItems; }
     public void setNoOfItems(int noOfItems) { this.noOfItems = noOfItems; }
+
+    /** True if every field but the id is equal. */
+    public boolean sameValues(Product other) {
+        return name.equals(other.name)
+                && category.equals(other.category)
+                && shade.equals(other.shade)
+                && price == other.price
+                && noOfItems == other.noOfItems;
+    }
 }
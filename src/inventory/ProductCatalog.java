@@ -0,0 +1,256 @@
+package inventory;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * In-memory copy of the products table that the GUI filters locally when the
+ * catalog is small enough to hold. Each product lives in a slot of a
+ * columnar ProductStore; slots are handed out in load/insert order and stay
+ * stable until the next compaction, so indexes can refer to products by
+ * slot number.
+ *
+ * Filters that have to check at least catalog.parallelThreshold slots
+ * (default 65536) are split across the common fork/join pool; smaller ones
+ * run on the calling thread.
+ *
+ * Not thread-safe: build it on a worker, then only touch it from the EDT.
+ */
+public class ProductCatalog {
+    private static final int PARALLEL_THRESHOLD = Integer.getInteger("catalog.parallelThreshold", 65_536);
+    private static final int MIN_CHUNK = 8192;
+
+    private final ProductStore store = new ProductStore();
+    private final TrigramIndex searchIndex = new TrigramIndex();
+    private final PriceIndex priceIndex = new PriceIndex();
+    private final InventoryAggregates aggregates = new InventoryAggregates();
+    private int live = 0;
+    private int generation = 0;
+    private int modCount = 0;
+    private final int parallelThreshold;
+    private final ForkJoinPool pool;
+
+    public ProductCatalog() {
+        this(PARALLEL_THRESHOLD, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * A catalog that filters on the given pool from the given number of slots
+     * to check; MAX_VALUE never does.
+     */
+    ProductCatalog(int parallelThreshold, ForkJoinPool pool) {
+        this.parallelThreshold = parallelThreshold;
+        this.pool = pool;
+    }
+
+    public void load(List<Product> products) {
+        generation++;
+        modCount++;
+        store.clear();
+        searchIndex.clear();
+        priceIndex.clear();
+        aggregates.clear();
+        live = 0;
+        for (Product p : products) {
+            if (store.slotOf(p.getId()) >= 0) continue;
+            int slot = store.append(p);
+            searchIndex.add(slot, p);
+            aggregates.add(p);
+            live++;
+        }
+        store.trimAfterLoad();
+
+        int n = store.slotCount();
+        int[] priceSlots = new int[n];
+        double[] prices = new double[n];
+        for (int slot = 0; slot < n; slot++) {
+            priceSlots[slot] = slot;
+            prices[slot] = store.price(slot);
+        }
+        priceIndex.rebuild(priceSlots, prices, n);
+    }
+
+    public void add(Product p) {
+        if (store.slotOf(p.getId()) >= 0) {
+            update(p);
+            return;
+        }
+        int slot = store.append(p);
+        searchIndex.add(slot, p);
+        priceIndex.add(slot, p.getPrice());
+        aggregates.add(p);
+        live++;
+        modCount++;
+    }
+
+    public boolean update(Product p) {
+        int slot = store.slotOf(p.getId());
+        if (slot < 0) {
+            return false;
+        }
+        Product old = store.get(slot);
+        searchIndex.remove(slot, old);
+        priceIndex.remove(slot, old.getPrice());
+        store.set(slot, p);
+        searchIndex.add(slot, p);
+        priceIndex.add(slot, p.getPrice());
+        aggregates.replace(old, p);
+        modCount++;
+        return true;
+    }
+
+    public Product remove(int id) {
+        int slot = store.slotOf(id);
+        if (slot < 0) {
+            return null;
+        }
+        Product old = store.get(slot);
+        store.clear(slot);
+        searchIndex.remove(slot, old);
+        priceIndex.remove(slot, old.getPrice());
+        aggregates.remove(old);
+        live--;
+        modCount++;
+        if (store.slotCount() > 1024 && live < store.slotCount() / 2) {
+            compact();
+        }
+        return old;
+    }
+
+    /** Slot holding the product, or -1 if it is not in the catalog. */
+    public int slotOf(int id) {
+        return store.slotOf(id);
+    }
+
+    /** Changes whenever slots are renumbered, i.e. on load and compaction. */
+    public int getGeneration() {
+        return generation;
+    }
+
+    public Product getById(int id) {
+        int slot = store.slotOf(id);
+        return slot < 0 ? null : store.get(slot);
+    }
+
+    /** The product in the slot, built from the store's columns; null if the slot was emptied. */
+    public Product get(int slot) {
+        return store.get(slot);
+    }
+
+    public int size() {
+        return live;
+    }
+
+    /** Every product, in slot order. */
+    public List<Product> products() {
+        return store.liveProducts();
+    }
+
+    /** Changes on every load, add, update and remove. */
+    public int getModCount() {
+        return modCount;
+    }
+
+    /**
+     * Slots of the products matching the filter, in slot order. The search
+     * key's trigram candidates or the price range's slice of the price index,
+     * whichever applies, drive the scan; the remaining predicates are checked
+     * per candidate against the store's columns.
+     */
+    public int[] filter(ProductFilter filter) {
+        String key = filter.getSearchKey();
+        int[] candidates = null; // null: every slot is a candidate
+        if (TrigramIndex.canSearch(key)) {
+            candidates = searchIndex.candidates(key);
+        } else if (filter.getMinPrice() != null || filter.getMaxPrice() != null) {
+            candidates = priceIndex.rangeInSlotOrder(filter.getMinPrice(), filter.getMaxPrice(), store.slotCount());
+        }
+        int count = candidates == null ? store.slotCount() : candidates.length;
+        if (count >= parallelThreshold && pool.getParallelism() > 1) {
+            int chunk = Math.max(MIN_CHUNK, count / (pool.getParallelism() * 4));
+            return pool.invoke(new FilterTask(store, filter, candidates, 0, count, chunk));
+        }
+        return scan(store.matcher(filter), candidates, 0, count);
+    }
+
+    // Matches among candidates[from, to), or among slots from..to-1 when candidates is null.
+    private static int[] scan(ProductStore.Matcher matcher, int[] candidates, int from, int to) {
+        int[] out = new int[to - from];
+        int n = 0;
+        for (int i = from; i < to; i++) {
+            int slot = candidates == null ? i : candidates[i];
+            if (matcher.matches(slot)) {
+                out[n++] = slot;
+            }
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    public InventoryAggregates getAggregates() {
+        return aggregates;
+    }
+
+    /**
+     * Totals for a filter result. Unfiltered and category-only views are read
+     * straight from the running aggregates; anything else sums the matches.
+     */
+    public ProductSummary summarize(ProductFilter filter, int[] matches) {
+        if (filter.getSearchKey() == null && filter.getMinPrice() == null && filter.getMaxPrice() == null) {
+            return filter.getCategory() == null
+                    ? aggregates.summary()
+                    : aggregates.summary(filter.getCategory());
+        }
+        return summarize(matches);
+    }
+
+    public ProductSummary summarize(int[] matches) {
+        return store.summarize(matches);
+    }
+
+    // Drops removed slots; slot numbers change, so indexes are rebuilt from scratch.
+    private void compact() {
+        load(store.liveProducts());
+    }
+
+    // ================= PARALLEL FILTER =================
+
+    // Splits a candidate range in halves down to the chunk size and concatenates
+    // the halves' matches left to right, so the result stays in slot order. Each
+    // leaf compiles its own matcher because the matcher's memo tables are not shared
+    // safely; the store itself is only read while the caller waits on invoke().
+    @SuppressWarnings("serial") // never serialized
+    private static class FilterTask extends RecursiveTask<int[]> {
+        private final ProductStore store;
+        private final ProductFilter filter;
+        private final int[] candidates;
+        private final int from;
+        private final int to;
+        private final int chunk;
+
+        FilterTask(ProductStore store, ProductFilter filter, int[] candidates, int from, int to, int chunk) {
+            this.store = store;
+            this.filter = filter;
+            this.candidates = candidates;
+            this.from = from;
+            this.to = to;
+            this.chunk = chunk;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (to - from <= chunk) {
+                return scan(store.matcher(filter), candidates, from, to);
+            }
+            int mid = (from + to) >>> 1;
+            FilterTask left = new FilterTask(store, filter, candidates, from, mid, chunk);
+            left.fork();
+            int[] right = new FilterTask(store, filter, candidates, mid, to, chunk).compute();
+            int[] leftMatches = left.join();
+            int[] out = Arrays.copyOf(leftMatches, leftMatches.length + right.length);
+            System.arraycopy(right, 0, out, leftMatches.length, right.length);
+            return out;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package inventory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Products inserted or updated and ids deleted since a watermark, each with
+ * the database timestamp of the change in epoch milliseconds.
+ */
+public class ProductChanges {
+    private final List<Product> upserted = new ArrayList<>();
+    private final List<Long> upsertedAt = new ArrayList<>();
+    private final List<Integer> deletedIds = new ArrayList<>();
+    private final List<Long> deletedAt = new ArrayList<>();
+    private boolean truncated;
+
+    void addUpserted(Product p, long at) {
+        upserted.add(p);
+        upsertedAt.add(at);
+    }
+
+    void addDeleted(int id, long at) {
+        deletedIds.add(id);
+        deletedAt.add(at);
+    }
+
+    void setTruncated(boolean truncated) { this.truncated = truncated; }
+
+    List<Long> getUpsertedAt() { return upsertedAt; }
+    List<Long> getDeletedAt() { return deletedAt; }
+
+    public List<Product> getUpserted() { return upserted; }
+    public List<Integer> getDeletedIds() { return deletedIds; }
+
+    /** True if there were more changes than one poll returns; the caller should reload instead. */
+    public boolean isTruncated() { return truncated; }
+
+    public int size() { return upserted.size() + deletedIds.size(); }
+    public boolean isEmpty() { return size() == 0; }
+}
@@ -1,12 +1,45 @@
 package inventory;
 
+import java.math.BigDecimal;
+import java.nio.file.Path;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
 
 public class ProductDAO {
 
+    private static final String INSERT_SQL =
+            "INSERT INTO products(name, category, shade, price, no_of_items) VALUES(?,?,?,?,?)";
+    // Rows per multi-row INSERT and ids per IN list.
+    private static final int BULK_CHUNK = 500;
+    private static final String TOMBSTONE_SQL =
+            "INSERT INTO product_tombstones(product_id) VALUES(?) ON DUPLICATE KEY UPDATE deleted_at = CURRENT_TIMESTAMP(3)";
+
+    /**
+     * A CachingProductDAO when -Ddao.cache=true, otherwise a plain DAO;
+     * either way wrapped in a MeteredProductDAO unless metrics are disabled.
+     */
+    public static ProductDAO create() {
+        ProductDAO dao = Boolean.getBoolean("dao.cache") ? new CachingProductDAO() : new ProductDAO();
+        return MetricsRegistry.ENABLED ? new MeteredProductDAO(dao) : dao;
+    }
+
+    // Uses the indexed generated key columns once the unique key exists; LOWER() on the raw columns cannot use an index.
+    private static String nameShadeCondition() {
+        return SchemaMigrations.hasUniqueNameShade()
+                ? "name_key=LOWER(?) AND shade_key=LOWER(?)"
+                : "LOWER(name)=LOWER(?) AND LOWER(shade)=LOWER(?)";
+    }
+
     public boolean existsByNameAndShade(String name, String shade, Integer excludeId) {
-        String sql = "SELECT id FROM products WHERE LOWER(name)=LOWER(?) AND LOWER(shade)=LOWER(?)";
+        String sql = "SELECT id FROM products WHERE " + nameShadeCondition();
         if (excludeId != null) {
             sql += " AND id <> ?";
         }
@@ -26,21 +59,198 @@ public class ProductDAO {
         return false;
     }
 
-    public void addProduct(Product p) {
-        String sql = "INSERT INTO products(name, category, shade, price, no_of_items) VALUES(?,?,?,?,?)";
+    public Product findById(int id) {
+        try {
+            return loadById(id);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    // findById for callers that must tell a missing row from an unreachable database.
+    Product loadById(int id) throws Exception {
+        String sql = "SELECT id, name, category, shade, price, no_of_items FROM products WHERE id=?";
         try (Connection con = DBConnection.getConnection();
              PreparedStatement ps = con.prepareStatement(sql)) {
+            ps.setInt(1, id);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? mapProduct(rs) : null;
+            }
+        }
+    }
 
-            ps.setString(1, p.getName());
-            ps.setString(2, p.getCategory());
-            ps.setString(3, p.getShade());
-            ps.setDouble(4, p.getPrice());
-            ps.setInt(5, p.getNoOfItems());
+    // Ids of every row with this name and shade, ignoring case.
+    int[] findIdsByNameAndShade(String name, String shade) throws Exception {
+        String sql = "SELECT id FROM products WHERE " + nameShadeCondition();
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement ps = con.prepareStatement(sql)) {
+            ps.setString(1, name);
+            ps.setString(2, shade);
+            List<Integer> ids = new ArrayList<>();
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) ids.add(rs.getInt(1));
+            }
+            return ids.stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    /**
+     * Inserts the product and returns it with its generated id, or DUPLICATE
+     * if its name and shade are taken. With the unique key in place that is
+     * decided by the insert itself, so two terminals cannot both win.
+     */
+    public WriteResult addProduct(Product p) {
+        if (!SchemaMigrations.hasUniqueNameShade() && existsByNameAndShade(p.getName(), p.getShade(), null)) {
+            return WriteResult.duplicate();
+        }
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement ps = con.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
 
+            bindInsert(ps, p);
             ps.executeUpdate();
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                if (keys.next()) {
+                    p.setId(keys.getInt(1));
+                }
+            }
+            return WriteResult.ok(p);
+        } catch (SQLException e) {
+            if (SchemaMigrations.isDuplicateKey(e)) return WriteResult.duplicate();
+            e.printStackTrace();
         } catch (Exception e) {
             e.printStackTrace();
         }
+        return WriteResult.failed();
+    }
+
+    /**
+     * Inserts every row not already present (by case-insensitive name + shade)
+     * in one transaction, flushing a JDBC batch every chunkSize rows. Any
+     * failure rolls the whole import back and is rethrown.
+     */
+    public void importProducts(Iterator<Product> rows, int chunkSize, ImportResult result) throws Exception {
+        try (Connection con = DBConnection.getConnection()) {
+            con.setAutoCommit(false);
+            try {
+                Set<String> keys = loadNameShadeKeys(con);
+                try (PreparedStatement ps = con.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                    List<Product> batch = new ArrayList<>();
+                    while (rows.hasNext()) {
+                        Product p = rows.next();
+                        if (!keys.add(nameShadeKey(p.getName(), p.getShade()))) {
+                            result.addDuplicate();
+                            continue;
+                        }
+                        bindInsert(ps, p);
+                        ps.addBatch();
+                        batch.add(p);
+                        if (batch.size() == chunkSize) {
+                            flushImportBatch(ps, batch, result);
+                        }
+                    }
+                    if (!batch.isEmpty()) {
+                        flushImportBatch(ps, batch, result);
+                    }
+                }
+                con.commit();
+            } catch (Exception e) {
+                con.rollback();
+                throw e;
+            }
+        }
+    }
+
+    // Executes the pending batch and, while the result still tracks rows, pairs them with their generated ids.
+    private static void flushImportBatch(PreparedStatement ps, List<Product> batch, ImportResult result)
+            throws SQLException {
+        ps.executeBatch();
+        result.addInserted(batch.size());
+        if (result.isTrackingRows()) {
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                for (Product p : batch) {
+                    if (!keys.next()) {
+                        result.stopTrackingRows();
+                        break;
+                    }
+                    p.setId(keys.getInt(1));
+                }
+            }
+            result.addInsertedRows(batch);
+        }
+        batch.clear();
+    }
+
+    /**
+     * Replaces the whole products table with the given rows, keeping their
+     * ids, in one transaction. Used to restore a recovered inventory.
+     */
+    public void replaceAllProducts(Collection<Product> products) throws Exception {
+        String sql = "INSERT INTO products(id, name, category, shade, price, no_of_items) VALUES(?,?,?,?,?,?)";
+        try (Connection con = DBConnection.getConnection()) {
+            con.setAutoCommit(false);
+            try {
+                try (Statement st = con.createStatement()) {
+                    if (SchemaMigrations.hasChangeTracking()) {
+                        // Tell other terminals everything went; the reinserted rows come back as fresh upserts.
+                        st.executeUpdate("INSERT INTO product_tombstones(product_id) SELECT id FROM products"
+                                + " ON DUPLICATE KEY UPDATE deleted_at = CURRENT_TIMESTAMP(3)");
+                    }
+                    st.executeUpdate("DELETE FROM products");
+                }
+                try (PreparedStatement ps = con.prepareStatement(sql)) {
+                    int pending = 0;
+                    for (Product p : products) {
+                        ps.setInt(1, p.getId());
+                        ps.setString(2, p.getName());
+                        ps.setString(3, p.getCategory());
+                        ps.setString(4, p.getShade());
+                        ps.setDouble(5, p.getPrice());
+                        ps.setInt(6, p.getNoOfItems());
+                        ps.addBatch();
+                        if (++pending == 1000) {
+                            ps.executeBatch();
+                            pending = 0;
+                        }
+                    }
+                    if (pending > 0) {
+                        ps.executeBatch();
+                    }
+                }
+                con.commit();
+            } catch (Exception e) {
+                con.rollback();
+                throw e;
+            }
+        }
+    }
+
+    private Set<String> loadNameShadeKeys(Connection con) throws SQLException {
+        Set<String> keys = new HashSet<>();
+        try (Statement st = con.createStatement();
+             ResultSet rs = st.executeQuery("SELECT name, shade FROM products")) {
+            while (rs.next()) {
+                keys.add(nameShadeKey(rs.getString(1), rs.getString(2)));
+            }
+        }
+        return keys;
+    }
+
+    static String nameShadeKey(String name, String shade) {
+        return name.toLowerCase(Locale.ROOT) + '\u0000' + shade.toLowerCase(Locale.ROOT);
+    }
+
+    private static void bindInsert(PreparedStatement ps, Product p) throws SQLException {
+        bindInsert(ps, 0, p);
+    }
+
+    // Binds one row of INSERT_SQL's five columns starting after parameter index offset.
+    private static void bindInsert(PreparedStatement ps, int offset, Product p) throws SQLException {
+        ps.setString(offset + 1, p.getName());
+        ps.setString(offset + 2, p.getCategory());
+        ps.setString(offset + 3, p.getShade());
+        ps.setDouble(offset + 4, p.getPrice());
+        ps.setInt(offset + 5, p.getNoOfItems());
     }
 
     public ArrayList<Product> getAllProducts() {
@@ -52,15 +262,7 @@ public class ProductDAO {
              ResultSet rs = st.executeQuery(sql)) {
 
             while (rs.next()) {
-                Product p = new Product(
-                        rs.getInt("id"),
-                        rs.getString("name"),
-                        rs.getString("category"),
-                        rs.getString("shade"),
-                        rs.getDouble("price"),
-                        rs.getInt("no_of_items")
-                );
-                list.add(p);
+                list.add(mapProduct(rs));
             }
         } catch (Exception e) {
             e.printStackTrace();
@@ -68,7 +270,210 @@ public class ProductDAO {
         return list;
     }
 
-    public void updateProduct(Product p) {
+    /**
+     * Returns up to limit products matching the filter with id greater than
+     * afterId, in id order. Pass 0 for the first page and the last id of the
+     * previous page for the next one, so MySQL seeks straight to the page via
+     * the primary key instead of counting past an OFFSET.
+     */
+    public ArrayList<Product> findProducts(ProductFilter filter, int afterId, int limit) {
+        ArrayList<Product> list = new ArrayList<>();
+        StringBuilder sql = new StringBuilder(
+                "SELECT id, name, category, shade, price, no_of_items FROM products WHERE id > ?");
+        List<Object> params = new ArrayList<>();
+        params.add(afterId);
+        filter.appendSql(sql, params);
+        sql.append(" ORDER BY id LIMIT ?");
+        params.add(limit);
+
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement ps = con.prepareStatement(sql.toString())) {
+            bindParams(ps, params);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    list.add(mapProduct(rs));
+                }
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return list;
+    }
+
+    /**
+     * Id of the matching row that sits offset rows past afterId (0 = the
+     * first one), or -1 if there are not that many. Used to find where a
+     * page starts when the table jumps ahead.
+     */
+    public int findIdAtOffset(ProductFilter filter, int afterId, int offset) {
+        StringBuilder sql = new StringBuilder("SELECT id FROM products WHERE id > ?");
+        List<Object> params = new ArrayList<>();
+        params.add(afterId);
+        filter.appendSql(sql, params);
+        sql.append(" ORDER BY id LIMIT 1 OFFSET ?");
+        params.add(offset);
+
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement ps = con.prepareStatement(sql.toString())) {
+            bindParams(ps, params);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getInt(1);
+                }
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return -1;
+    }
+
+    public ProductSummary summarize(ProductFilter filter) {
+        StringBuilder sql = new StringBuilder(
+                "SELECT COUNT(*), COALESCE(SUM(no_of_items), 0), COALESCE(SUM(price * no_of_items), 0)"
+                        + " FROM products WHERE 1=1");
+        List<Object> params = new ArrayList<>();
+        filter.appendSql(sql, params);
+
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement ps = con.prepareStatement(sql.toString())) {
+            bindParams(ps, params);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return new ProductSummary(rs.getInt(1), rs.getLong(2), rs.getDouble(3));
+                }
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return new ProductSummary(0, 0, 0);
+    }
+
+    private static Product mapProduct(ResultSet rs) throws SQLException {
+        return new Product(
+                rs.getInt("id"),
+                rs.getString("name"),
+                rs.getString("category"),
+                rs.getString("shade"),
+                rs.getDouble("price"),
+                rs.getInt("no_of_items")
+        );
+    }
+
+    private static void bindParams(PreparedStatement ps, List<Object> params) throws SQLException {
+        for (int i = 0; i < params.size(); i++) {
+            ps.setObject(i + 1, params.get(i));
+        }
+    }
+
+    /**
+     * Streams every product row to the handler over a forward-only, read-only
+     * cursor. On MySQL the default fetch size of Integer.MIN_VALUE makes the
+     * driver stream row by row instead of buffering the whole result.
+     */
+    public int forEachProduct(ProductRowHandler handler) throws Exception {
+        String sql = "SELECT id, name, category, shade, price, no_of_items FROM products ORDER BY id";
+        int count = 0;
+        try (Connection con = DBConnection.getConnection();
+             Statement st = con.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            applyStreamingFetchSize(st);
+            try (ResultSet rs = st.executeQuery(sql)) {
+                while (rs.next()) {
+                    handler.row(rs.getInt(1), rs.getString(2), rs.getString(3), rs.getString(4),
+                            rs.getBigDecimal(5), rs.getInt(6));
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /** The database clock, which change timestamps are compared against. */
+    public Timestamp databaseTime() throws Exception {
+        try (Connection con = DBConnection.getConnection();
+             Statement st = con.createStatement();
+             ResultSet rs = st.executeQuery("SELECT CURRENT_TIMESTAMP(3)")) {
+            rs.next();
+            return rs.getTimestamp(1);
+        }
+    }
+
+    /**
+     * Rows updated and ids deleted at or after since, oldest first. If more
+     * than limit rows changed, the result is only marked truncated.
+     */
+    public ProductChanges findChangesSince(Timestamp since, int limit) throws Exception {
+        ProductChanges changes = new ProductChanges();
+        String rowsSql = "SELECT id, name, category, shade, price, no_of_items, updated_at FROM products"
+                + " WHERE updated_at >= ? ORDER BY updated_at LIMIT ?";
+        String deletesSql = "SELECT product_id, deleted_at FROM product_tombstones"
+                + " WHERE deleted_at >= ? ORDER BY deleted_at LIMIT ?";
+        try (Connection con = DBConnection.getConnection()) {
+            try (PreparedStatement ps = con.prepareStatement(deletesSql)) {
+                ps.setTimestamp(1, since);
+                ps.setInt(2, limit + 1);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        changes.addDeleted(rs.getInt(1), rs.getTimestamp(2).getTime());
+                    }
+                }
+            }
+            try (PreparedStatement ps = con.prepareStatement(rowsSql)) {
+                ps.setTimestamp(1, since);
+                ps.setInt(2, limit + 1);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        changes.addUpserted(mapProduct(rs), rs.getTimestamp("updated_at").getTime());
+                    }
+                }
+            }
+        }
+        changes.setTruncated(changes.getUpserted().size() > limit || changes.getDeletedIds().size() > limit);
+        return changes;
+    }
+
+    /** Drops tombstones older than the given age; terminals that far behind reload anyway. */
+    public int purgeTombstones(int days) {
+        String sql = "DELETE FROM product_tombstones WHERE deleted_at < CURRENT_TIMESTAMP(3) - INTERVAL ? DAY";
+        try (Connection con = DBConnection.getConnection();
+             PreparedStatement ps = con.prepareStatement(sql)) {
+            ps.setInt(1, days);
+            return ps.executeUpdate();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return 0;
+    }
+
+    public int exportProducts(Path file, ExportFormat format) throws Exception {
+        try (ChannelTextWriter out = new ChannelTextWriter(file)) {
+            out.write(format.header());
+            StringBuilder sb = new StringBuilder(256);
+            return forEachProduct((id, name, category, shade, price, items) -> {
+                sb.setLength(0);
+                format.appendRow(sb, id, name, category, shade, price, items);
+                out.write(sb);
+            });
+        }
+    }
+
+    private static void applyStreamingFetchSize(Statement st) {
+        int fetchSize = Integer.getInteger("export.fetchSize", Integer.MIN_VALUE);
+        try {
+            st.setFetchSize(fetchSize);
+        } catch (SQLException e) {
+            // Drivers other than MySQL reject the streaming hint; use a plain cursor batch.
+            try {
+                st.setFetchSize(1000);
+            } catch (SQLException ignored) {
+            }
+        }
+    }
+
+    /** Returns NOT_FOUND if the row no longer exists and DUPLICATE if its new name and shade are taken. */
+    public WriteResult updateProduct(Product p) {
+        if (!SchemaMigrations.hasUniqueNameShade() && existsByNameAndShade(p.getName(), p.getShade(), p.getId())) {
+            return WriteResult.duplicate();
+        }
         String sql = "UPDATE products SET name=?, category=?, shade=?, price=?, no_of_items=? WHERE id=?";
         try (Connection con = DBConnection.getConnection();
              PreparedStatement ps = con.prepareStatement(sql)) {
@@ -80,21 +485,254 @@ public class ProductDAO {
             ps.setInt(5, p.getNoOfItems());
             ps.setInt(6, p.getId());
 
-            ps.executeUpdate();
+            return ps.executeUpdate() == 0 ? WriteResult.notFound() : WriteResult.ok(p);
+        } catch (SQLException e) {
+            if (SchemaMigrations.isDuplicateKey(e)) return WriteResult.duplicate();
+            e.printStackTrace();
         } catch (Exception e) {
             e.printStackTrace();
         }
+        return WriteResult.failed();
     }
 
-    public void deleteProduct(int id) {
-        String sql = "DELETE FROM products WHERE id=?";
-        try (Connection con = DBConnection.getConnection();
-             PreparedStatement ps = con.prepareStatement(sql)) {
+    /**
+     * Adds delta (negative for a sale) to one product's stock in a single
+     * conditional UPDATE, so concurrent sales and deliveries never overwrite
+     * each other and stock never goes below zero. Returns the row with its
+     * new quantity, NOT_FOUND, or INSUFFICIENT_STOCK with the current row.
+     */
+    public WriteResult adjustStock(int id, int delta) {
+        String update = "UPDATE products SET no_of_items = no_of_items + ? WHERE id=? AND no_of_items + ? >= 0";
+        String select = "SELECT id, name, category, shade, price, no_of_items FROM products WHERE id=?";
+        try (Connection con = DBConnection.getConnection()) {
+            con.setAutoCommit(false);
+            try {
+                int count;
+                try (PreparedStatement ps = con.prepareStatement(update)) {
+                    ps.setInt(1, delta);
+                    ps.setInt(2, id);
+                    ps.setInt(3, delta);
+                    count = ps.executeUpdate();
+                }
+                // Our row lock is still held, so this reads exactly the quantity we left.
+                Product row = null;
+                try (PreparedStatement ps = con.prepareStatement(select)) {
+                    ps.setInt(1, id);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        if (rs.next()) row = mapProduct(rs);
+                    }
+                }
+                con.commit();
+                if (row == null) return WriteResult.notFound();
+                return count == 0 ? WriteResult.insufficientStock(row) : WriteResult.ok(row);
+            } catch (Exception e) {
+                con.rollback();
+                throw e;
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return WriteResult.failed();
+    }
 
-            ps.setInt(1, id);
-            ps.executeUpdate();
+    /** Deletes the row and returns it as it was, or NOT_FOUND if it was already gone. */
+    public WriteResult deleteProduct(int id) {
+        String select = "SELECT id, name, category, shade, price, no_of_items FROM products WHERE id=? FOR UPDATE";
+        try (Connection con = DBConnection.getConnection()) {
+            con.setAutoCommit(false);
+            try {
+                Product old = null;
+                try (PreparedStatement ps = con.prepareStatement(select)) {
+                    ps.setInt(1, id);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        if (rs.next()) old = mapProduct(rs);
+                    }
+                }
+                if (old == null) {
+                    con.rollback();
+                    return WriteResult.notFound();
+                }
+                try (PreparedStatement ps = con.prepareStatement("DELETE FROM products WHERE id=?")) {
+                    ps.setInt(1, id);
+                    ps.executeUpdate();
+                }
+                if (SchemaMigrations.hasChangeTracking()) {
+                    try (PreparedStatement ps = con.prepareStatement(TOMBSTONE_SQL)) {
+                        ps.setInt(1, id);
+                        ps.executeUpdate();
+                    }
+                }
+                con.commit();
+                return WriteResult.ok(old);
+            } catch (Exception e) {
+                con.rollback();
+                throw e;
+            }
         } catch (Exception e) {
             e.printStackTrace();
         }
+        return WriteResult.failed();
+    }
+
+    // ================= BULK =================
+
+    /**
+     * Inserts all products with multi-row INSERT statements in one
+     * transaction and returns them with their generated ids. A duplicate
+     * name and shade anywhere rolls the whole batch back.
+     */
+    public BulkResult addProducts(List<Product> products) {
+        if (!SchemaMigrations.hasUniqueNameShade()) {
+            Set<String> keys = new HashSet<>();
+            for (Product p : products) {
+                if (!keys.add(nameShadeKey(p.getName(), p.getShade()))
+                        || existsByNameAndShade(p.getName(), p.getShade(), null)) {
+                    return BulkResult.duplicate();
+                }
+            }
+        }
+        try (Connection con = DBConnection.getConnection()) {
+            con.setAutoCommit(false);
+            try {
+                for (int from = 0; from < products.size(); from += BULK_CHUNK) {
+                    List<Product> chunk = products.subList(from, Math.min(products.size(), from + BULK_CHUNK));
+                    StringBuilder sql = new StringBuilder(INSERT_SQL.substring(0, INSERT_SQL.indexOf("VALUES")))
+                            .append("VALUES ");
+                    for (int i = 0; i < chunk.size(); i++) {
+                        sql.append(i == 0 ? "(?,?,?,?,?)" : ",(?,?,?,?,?)");
+                    }
+                    try (PreparedStatement ps = con.prepareStatement(sql.toString(), Statement.RETURN_GENERATED_KEYS)) {
+                        for (int i = 0; i < chunk.size(); i++) {
+                            bindInsert(ps, i * 5, chunk.get(i));
+                        }
+                        ps.executeUpdate();
+                        try (ResultSet keys = ps.getGeneratedKeys()) {
+                            for (Product p : chunk) {
+                                if (keys.next()) p.setId(keys.getInt(1));
+                            }
+                        }
+                    }
+                }
+                con.commit();
+                return BulkResult.ok(new ArrayList<>(products), Collections.emptyList());
+            } catch (Exception e) {
+                con.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            if (SchemaMigrations.isDuplicateKey(e)) return BulkResult.duplicate();
+            e.printStackTrace();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return BulkResult.failed();
+    }
+
+    /** Updates all products as one JDBC batch in one transaction; ids that no longer exist are reported as missing. */
+    public BulkResult updateProducts(List<Product> products) {
+        if (!SchemaMigrations.hasUniqueNameShade()) {
+            for (Product p : products) {
+                if (existsByNameAndShade(p.getName(), p.getShade(), p.getId())) return BulkResult.duplicate();
+            }
+        }
+        String sql = "UPDATE products SET name=?, category=?, shade=?, price=?, no_of_items=? WHERE id=?";
+        try (Connection con = DBConnection.getConnection()) {
+            con.setAutoCommit(false);
+            try (PreparedStatement ps = con.prepareStatement(sql)) {
+                for (Product p : products) {
+                    bindInsert(ps, p);
+                    ps.setInt(6, p.getId());
+                    ps.addBatch();
+                }
+                int[] counts = ps.executeBatch();
+                con.commit();
+                List<Product> updated = new ArrayList<>();
+                List<Integer> missing = new ArrayList<>();
+                for (int i = 0; i < products.size(); i++) {
+                    if (counts[i] == 0) {
+                        missing.add(products.get(i).getId());
+                    } else {
+                        updated.add(products.get(i));
+                    }
+                }
+                return BulkResult.ok(updated, missing);
+            } catch (Exception e) {
+                con.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            if (SchemaMigrations.isDuplicateKey(e)) return BulkResult.duplicate();
+            e.printStackTrace();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return BulkResult.failed();
+    }
+
+    /**
+     * Deletes the ids with DELETE ... WHERE id IN (...) in one transaction
+     * and returns the rows as they were; ids already gone are reported as
+     * missing.
+     */
+    public BulkResult deleteProducts(Collection<Integer> ids) {
+        List<Integer> all = new ArrayList<>(new LinkedHashSet<>(ids));
+        try (Connection con = DBConnection.getConnection()) {
+            con.setAutoCommit(false);
+            try {
+                List<Product> deleted = new ArrayList<>();
+                for (int from = 0; from < all.size(); from += BULK_CHUNK) {
+                    List<Integer> chunk = all.subList(from, Math.min(all.size(), from + BULK_CHUNK));
+                    String in = placeholders(chunk.size());
+                    try (PreparedStatement ps = con.prepareStatement("SELECT id, name, category, shade, price, no_of_items"
+                            + " FROM products WHERE id IN (" + in + ") FOR UPDATE")) {
+                        bindIds(ps, chunk);
+                        try (ResultSet rs = ps.executeQuery()) {
+                            while (rs.next()) deleted.add(mapProduct(rs));
+                        }
+                    }
+                    try (PreparedStatement ps = con.prepareStatement("DELETE FROM products WHERE id IN (" + in + ")")) {
+                        bindIds(ps, chunk);
+                        ps.executeUpdate();
+                    }
+                }
+                if (SchemaMigrations.hasChangeTracking() && !deleted.isEmpty()) {
+                    try (PreparedStatement ps = con.prepareStatement(TOMBSTONE_SQL)) {
+                        for (Product p : deleted) {
+                            ps.setInt(1, p.getId());
+                            ps.addBatch();
+                        }
+                        ps.executeBatch();
+                    }
+                }
+                con.commit();
+                Set<Integer> found = new HashSet<>();
+                for (Product p : deleted) found.add(p.getId());
+                List<Integer> missing = new ArrayList<>();
+                for (int id : all) {
+                    if (!found.contains(id)) missing.add(id);
+                }
+                return BulkResult.ok(deleted, missing);
+            } catch (Exception e) {
+                con.rollback();
+                throw e;
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return BulkResult.failed();
+    }
+
+    private static String placeholders(int n) {
+        StringBuilder sb = new StringBuilder(n * 2);
+        for (int i = 0; i < n; i++) {
+            sb.append(i == 0 ? "?" : ",?");
+        }
+        return sb.toString();
+    }
+
+    private static void bindIds(PreparedStatement ps, List<Integer> ids) throws SQLException {
+        for (int i = 0; i < ids.size(); i++) {
+            ps.setInt(i + 1, ids.get(i));
+        }
     }
 }
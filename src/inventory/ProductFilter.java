@@ -0,0 +1,74 @@
+package inventory;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Search key, category and price range chosen in the filter bar.
+ * Null fields mean "no restriction".
+ */
+public class ProductFilter {
+    public static final ProductFilter ALL = new ProductFilter(null, null, null, null);
+
+    private final String searchKey;
+    private final String category;
+    private final Double minPrice;
+    private final Double maxPrice;
+
+    public ProductFilter(String searchKey, String category, Double minPrice, Double maxPrice) {
+        this.searchKey = searchKey == null || searchKey.isBlank()
+                ? null : searchKey.trim().toLowerCase(Locale.ROOT);
+        this.category = category == null || category.isBlank() || category.equals("All")
+                ? null : category;
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+    }
+
+    public String getSearchKey() { return searchKey; }
+    public String getCategory() { return category; }
+    public Double getMinPrice() { return minPrice; }
+    public Double getMaxPrice() { return maxPrice; }
+
+    public boolean matches(Product p) {
+        if (searchKey != null
+                && !p.getName().toLowerCase(Locale.ROOT).contains(searchKey)
+                && !p.getCategory().toLowerCase(Locale.ROOT).contains(searchKey)
+                && !p.getShade().toLowerCase(Locale.ROOT).contains(searchKey)) {
+            return false;
+        }
+        if (category != null && !p.getCategory().equalsIgnoreCase(category)) {
+            return false;
+        }
+        if (minPrice != null && p.getPrice() < minPrice) {
+            return false;
+        }
+        return maxPrice == null || p.getPrice() <= maxPrice;
+    }
+
+    // Appends " AND ..." conditions for this filter and collects their parameters.
+    void appendSql(StringBuilder sql, List<Object> params) {
+        if (searchKey != null) {
+            String like = "%" + escapeLike(searchKey) + "%";
+            sql.append(" AND (LOWER(name) LIKE ? OR LOWER(category) LIKE ? OR LOWER(shade) LIKE ?)");
+            params.add(like);
+            params.add(like);
+            params.add(like);
+        }
+        if (category != null) {
+            sql.append(" AND category = ?");
+            params.add(category);
+        }
+        if (minPrice != null) {
+            sql.append(" AND price >= ?");
+            params.add(minPrice);
+        }
+        if (maxPrice != null) {
+            sql.append(" AND price <= ?");
+            params.add(maxPrice);
+        }
+    }
+
+    private static String escapeLike(String s) {
+        return s.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,13 @@
+package inventory;
+
+import java.math.BigDecimal;
+
+/**
+ * Receives product rows column by column while a query result is streamed,
+ * so callers can consume the table without materialising Product objects.
+ */
+@FunctionalInterface
+public interface ProductRowHandler {
+    void row(int id, String name, String category, String shade,
+             BigDecimal price, int noOfItems) throws Exception;
+}
@@ -0,0 +1,328 @@
+package inventory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Column-per-field storage for the catalog's products: parallel primitive
+ * arrays indexed by slot, with category and shade dictionary-encoded to int
+ * codes and equal names sharing one String. Filters and totals scan the
+ * arrays they need instead of chasing a Product object and its strings per
+ * row, and a million products take roughly a third of the heap that
+ * Product objects plus a HashMap id lookup do.
+ *
+ * A slot whose id is 0 is empty (removed); negative ids are products added
+ * offline that the database has not numbered yet. Product objects are built on
+ * demand by get(), so callers must not rely on identity. Not thread-safe.
+ */
+public class ProductStore {
+    private static final int EMPTY = 0;
+
+    private int[] ids = new int[16];
+    private String[] names = new String[16];
+    private int[] categories = new int[16];
+    private int[] shades = new int[16];
+    private double[] prices = new double[16];
+    private int[] quantities = new int[16];
+    private int slots = 0;
+
+    private final Dictionary categoryCodes = new Dictionary();
+    private final Dictionary shadeCodes = new Dictionary();
+    private final IdIndex slotById = new IdIndex();
+    // Canonical instance per distinct name, so a name repeated across shades is stored once.
+    private Map<String, String> internedNames = new HashMap<>();
+
+    public void clear() {
+        ids = new int[16];
+        names = new String[16];
+        categories = new int[16];
+        shades = new int[16];
+        prices = new double[16];
+        quantities = new int[16];
+        slots = 0;
+        categoryCodes.clear();
+        shadeCodes.clear();
+        slotById.clear();
+        internedNames = new HashMap<>();
+    }
+
+    /** Drops the name-interning table once a bulk load is done; later adds are stored as given. */
+    public void trimAfterLoad() {
+        internedNames = null;
+    }
+
+    /** Appends the product in a new slot and returns it. The id must be non-zero and not stored yet. */
+    public int append(Product p) {
+        if (p.getId() == EMPTY) {
+            throw new IllegalArgumentException("Only products with an id can be added");
+        }
+        if (slots == ids.length) grow();
+        int slot = slots++;
+        ids[slot] = p.getId();
+        write(slot, p);
+        slotById.put(p.getId(), slot);
+        return slot;
+    }
+
+    /** Overwrites the slot's fields (the id stays). */
+    public void set(int slot, Product p) {
+        write(slot, p);
+    }
+
+    /** Empties the slot. */
+    public void clear(int slot) {
+        slotById.remove(ids[slot]);
+        ids[slot] = EMPTY;
+        names[slot] = null;
+    }
+
+    private void write(int slot, Product p) {
+        String name = p.getName();
+        if (internedNames != null) {
+            String shared = internedNames.putIfAbsent(name, name);
+            if (shared != null) name = shared;
+        }
+        names[slot] = name;
+        categories[slot] = categoryCodes.code(p.getCategory());
+        shades[slot] = shadeCodes.code(p.getShade());
+        prices[slot] = p.getPrice();
+        quantities[slot] = p.getNoOfItems();
+    }
+
+    private void grow() {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        names = Arrays.copyOf(names, capacity);
+        categories = Arrays.copyOf(categories, capacity);
+        shades = Arrays.copyOf(shades, capacity);
+        prices = Arrays.copyOf(prices, capacity);
+        quantities = Arrays.copyOf(quantities, capacity);
+    }
+
+    /** Number of slots handed out, including emptied ones. */
+    public int slotCount() {
+        return slots;
+    }
+
+    /** Slot holding the id, or -1. */
+    public int slotOf(int id) {
+        return slotById.get(id);
+    }
+
+    public boolean isLive(int slot) {
+        return slot >= 0 && slot < slots && ids[slot] != EMPTY;
+    }
+
+    /** A new Product with the slot's values, or null if the slot is empty. */
+    public Product get(int slot) {
+        if (!isLive(slot)) return null;
+        return new Product(ids[slot], names[slot], categoryCodes.value(categories[slot]),
+                shadeCodes.value(shades[slot]), prices[slot], quantities[slot]);
+    }
+
+    public int id(int slot) { return ids[slot]; }
+    public double price(int slot) { return prices[slot]; }
+    public int quantity(int slot) { return quantities[slot]; }
+
+    /** Product count, item count and stock value over the given slots. */
+    public ProductSummary summarize(int[] matches) {
+        long items = 0;
+        double value = 0;
+        for (int slot : matches) {
+            int q = quantities[slot];
+            items += q;
+            value += prices[slot] * q;
+        }
+        return new ProductSummary(matches.length, items, value);
+    }
+
+    /** Live products in slot order, for rebuilding the store after removals. */
+    public List<Product> liveProducts() {
+        List<Product> list = new ArrayList<>(slotById.size());
+        for (int slot = 0; slot < slots; slot++) {
+            if (ids[slot] != EMPTY) list.add(get(slot));
+        }
+        return list;
+    }
+
+    // ================= FILTERING =================
+
+    /**
+     * A ProductFilter compiled against this store. Category and shade tests
+     * are decided once per dictionary code and memoized, so a scan reads the
+     * code arrays and prices and only touches a name string when a search
+     * key is set.
+     */
+    public Matcher matcher(ProductFilter filter) {
+        return new Matcher(filter);
+    }
+
+    public class Matcher {
+        private final String key;
+        private final double minPrice;
+        private final double maxPrice;
+        // Per dictionary code: 0 = not decided yet, 1 = yes, 2 = no.
+        private final byte[] categoryAllowed;
+        private final byte[] categoryHasKey;
+        private final byte[] shadeHasKey;
+        private final String category;
+
+        Matcher(ProductFilter filter) {
+            key = filter.getSearchKey();
+            category = filter.getCategory();
+            minPrice = filter.getMinPrice() == null ? Double.NEGATIVE_INFINITY : filter.getMinPrice();
+            maxPrice = filter.getMaxPrice() == null ? Double.POSITIVE_INFINITY : filter.getMaxPrice();
+            categoryAllowed = category == null ? null : new byte[categoryCodes.size()];
+            categoryHasKey = key == null ? null : new byte[categoryCodes.size()];
+            shadeHasKey = key == null ? null : new byte[shadeCodes.size()];
+        }
+
+        public boolean matches(int slot) {
+            if (ids[slot] == EMPTY) return false;
+            double price = prices[slot];
+            if (price < minPrice || price > maxPrice) return false;
+            int c = categories[slot];
+            if (category != null && !decide(categoryAllowed, c, categoryCodes.value(c), false)) return false;
+            return key == null
+                    || decide(categoryHasKey, c, categoryCodes.lower(c), true)
+                    || decide(shadeHasKey, shades[slot], shadeCodes.lower(shades[slot]), true)
+                    || containsLowerCase(names[slot], key);
+        }
+
+        private boolean decide(byte[] memo, int code, String value, boolean contains) {
+            if (code >= memo.length) { // a code added after the matcher was built
+                return contains ? value.contains(key) : value.equalsIgnoreCase(category);
+            }
+            if (memo[code] == 0) {
+                boolean yes = contains ? value.contains(key) : value.equalsIgnoreCase(category);
+                memo[code] = yes ? (byte) 1 : (byte) 2;
+            }
+            return memo[code] == 1;
+        }
+    }
+
+    // text.toLowerCase(Locale.ROOT).contains(lowerKey) without building the lower-cased copy
+    // (the same answer except for the few characters whose lower case is two chars long).
+    static boolean containsLowerCase(String text, String lowerKey) {
+        int n = lowerKey.length();
+        outer:
+        for (int i = 0, last = text.length() - n; i <= last; i++) {
+            for (int j = 0; j < n; j++) {
+                if (Character.toLowerCase(text.charAt(i + j)) != lowerKey.charAt(j)) continue outer;
+            }
+            return true;
+        }
+        return false;
+    }
+
+    // ================= DICTIONARY =================
+
+    // Distinct strings numbered in order of first appearance; codes are never reused.
+    private static class Dictionary {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+        private final List<String> lowerValues = new ArrayList<>();
+
+        int code(String value) {
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = values.size();
+                codes.put(value, code);
+                values.add(value);
+                lowerValues.add(value.toLowerCase(Locale.ROOT));
+            }
+            return code;
+        }
+
+        String value(int code) { return values.get(code); }
+        String lower(int code) { return lowerValues.get(code); }
+        int size() { return values.size(); }
+
+        void clear() {
+            codes.clear();
+            values.clear();
+            lowerValues.clear();
+        }
+    }
+
+    // ================= ID INDEX =================
+
+    // Open-addressing id -> slot map over two int arrays; ids are never 0, which marks a free cell.
+    static class IdIndex {
+        private int[] keys = new int[32];
+        private int[] values = new int[32];
+        private int size = 0;
+
+        int get(int id) {
+            int mask = keys.length - 1;
+            for (int i = mix(id) & mask; ; i = (i + 1) & mask) {
+                int k = keys[i];
+                if (k == id) return values[i];
+                if (k == 0) return -1;
+            }
+        }
+
+        void put(int id, int slot) {
+            if ((size + 1) * 2 > keys.length) rehash(keys.length * 2);
+            int mask = keys.length - 1;
+            int i = mix(id) & mask;
+            while (keys[i] != 0 && keys[i] != id) i = (i + 1) & mask;
+            if (keys[i] == 0) size++;
+            keys[i] = id;
+            values[i] = slot;
+        }
+
+        // Backward-shift deletion keeps probe chains intact without tombstones.
+        void remove(int id) {
+            int mask = keys.length - 1;
+            int i = mix(id) & mask;
+            while (keys[i] != id) {
+                if (keys[i] == 0) return;
+                i = (i + 1) & mask;
+            }
+            size--;
+            int gap = i;
+            for (int j = (gap + 1) & mask; keys[j] != 0; j = (j + 1) & mask) {
+                int home = mix(keys[j]) & mask;
+                // Move j into the gap unless its home lies cyclically in (gap, j].
+                boolean stays = gap <= j ? (home > gap && home <= j) : (home > gap || home <= j);
+                if (!stays) {
+                    keys[gap] = keys[j];
+                    values[gap] = values[j];
+                    gap = j;
+                }
+            }
+            keys[gap] = 0;
+        }
+
+        int size() {
+            return size;
+        }
+
+        void clear() {
+            keys = new int[32];
+            values = new int[32];
+            size = 0;
+        }
+
+        private void rehash(int capacity) {
+            int[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new int[capacity];
+            values = new int[capacity];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) put(oldKeys[i], oldValues[i]);
+            }
+        }
+
+        static int mix(int id) {
+            int h = id * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
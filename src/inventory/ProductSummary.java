@@ -0,0 +1,17 @@
+package inventory;
+
+public class ProductSummary {
+    private final int products;
+    private final long items;
+    private final double value;
+
+    public ProductSummary(int products, long items, double value) {
+        this.products = products;
+        this.items = items;
+        this.value = value;
+    }
+
+    public int getProducts() { return products; }
+    public long getItems() { return items; }
+    public double getValue() { return value; }
+}
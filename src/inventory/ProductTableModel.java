@@ -0,0 +1,302 @@
+package inventory;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Table model over the rows matching a ProductFilter that only keeps a few
+ * pages in memory. Pages are fetched in the background the first time the
+ * table asks for one of their cells, and evicted least-recently-used.
+ *
+ * Pages are located by keyset: the model remembers the last id of every page
+ * it has seen, so scrolling forward is a plain "id > ?" seek. Jumping ahead
+ * to an unseen page first looks up its starting id with a single OFFSET probe
+ * from the nearest known page.
+ *
+ * When the whole catalog is held locally the model instead shows a list of
+ * ProductCatalog slots and never touches the database.
+ */
+public class ProductTableModel extends AbstractTableModel {
+    public static final int PAGE_SIZE = 100;
+    private static final int MAX_CACHED_PAGES = 8;
+
+    private static final String[] COLUMNS = {
+            "ID", "Name", "Category", "Shade", "Price", "No. of Items"
+    };
+    private static final Class<?>[] TYPES = {
+            Integer.class, String.class, String.class, String.class, Double.class, Integer.class
+    };
+
+    private final ProductDAO dao;
+    private final BackgroundTasks tasks;
+
+    private ProductFilter filter = ProductFilter.ALL;
+    private ProductCatalog catalog;
+    private int[] localSlots;
+    private int rowCount = 0;
+    private int generation = 0;
+    private final TreeMap<Integer, Integer> pageAfterIds = new TreeMap<>();
+    private final Set<Integer> loading = new HashSet<>();
+    private final Map<Integer, List<Product>> pages =
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, List<Product>> eldest) {
+                    return size() > MAX_CACHED_PAGES;
+                }
+            };
+
+    public ProductTableModel(ProductDAO dao, BackgroundTasks tasks) {
+        this.dao = dao;
+        this.tasks = tasks;
+    }
+
+    /** Replaces the contents with a new result set, firing one structure-preserving data change. */
+    public void reset(ProductFilter filter, int rowCount, List<Product> firstPage) {
+        this.filter = filter;
+        this.rowCount = rowCount;
+        this.catalog = null;
+        this.localSlots = null;
+        generation++;
+        pages.clear();
+        loading.clear();
+        pageAfterIds.clear();
+        pageAfterIds.put(0, 0);
+        if (firstPage != null) {
+            storePage(0, firstPage);
+        }
+        fireTableDataChanged();
+    }
+
+    /** Shows the given catalog slots, in order, firing one data change. */
+    public void showLocal(ProductFilter filter, ProductCatalog catalog, int[] slots) {
+        this.filter = filter;
+        this.catalog = catalog;
+        this.localSlots = slots;
+        this.rowCount = slots.length;
+        generation++;
+        pages.clear();
+        loading.clear();
+        pageAfterIds.clear();
+        fireTableDataChanged();
+    }
+
+    /**
+     * Re-checks one catalog slot after it was added, changed or removed and
+     * inserts, repaints or drops just that row. Slots are shown in slot order,
+     * so the row is found by binary search.
+     */
+    public void localSlotChanged(int slot) {
+        if (localSlots == null) return;
+        int row = Arrays.binarySearch(localSlots, slot);
+        Product p = catalog.get(slot);
+        boolean matches = p != null && filter.matches(p);
+        if (row >= 0) {
+            if (matches) {
+                fireTableRowsUpdated(row, row);
+            } else {
+                int[] shrunk = new int[localSlots.length - 1];
+                System.arraycopy(localSlots, 0, shrunk, 0, row);
+                System.arraycopy(localSlots, row + 1, shrunk, row, shrunk.length - row);
+                localSlots = shrunk;
+                rowCount--;
+                fireTableRowsDeleted(row, row);
+            }
+        } else if (matches) {
+            int at = -row - 1;
+            int[] grown = new int[localSlots.length + 1];
+            System.arraycopy(localSlots, 0, grown, 0, at);
+            grown[at] = slot;
+            System.arraycopy(localSlots, at, grown, at + 1, localSlots.length - at);
+            localSlots = grown;
+            rowCount++;
+            fireTableRowsInserted(at, at);
+        }
+    }
+
+    /** The catalog slots currently shown, or null in server mode. */
+    int[] getLocalSlots() {
+        return localSlots;
+    }
+
+    /** Swaps an updated product into whichever cached page holds it; false if none does. */
+    public boolean replaceLoaded(Product p) {
+        for (Map.Entry<Integer, List<Product>> e : pages.entrySet()) {
+            List<Product> rows = e.getValue();
+            for (int i = 0; i < rows.size(); i++) {
+                if (rows.get(i).getId() == p.getId()) {
+                    rows.set(i, p);
+                    int row = e.getKey() * PAGE_SIZE + i;
+                    fireTableRowsUpdated(row, row);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds a newly inserted product as the last row. Rows are in id order and
+     * new ids are the largest, so it belongs at the end; it goes straight into
+     * the last page if that page is cached, otherwise it is fetched on demand.
+     */
+    public void appendLoaded(Product p) {
+        int row = rowCount++;
+        int page = row / PAGE_SIZE;
+        List<Product> rows = pages.get(page);
+        if (rows != null && rows.size() == row % PAGE_SIZE) {
+            List<Product> grown = new ArrayList<>(rows);
+            grown.add(p);
+            storePage(page, grown);
+        }
+        fireTableRowsInserted(row, row);
+    }
+
+    /**
+     * Server mode: takes a new total after changes that fell outside the
+     * cached pages. Rows are added or dropped at the end, so the rows in view
+     * and the scroll position stay put; a partial last page is refetched.
+     */
+    public void resize(int newCount) {
+        if (localSlots != null || newCount == rowCount) {
+            return;
+        }
+        int oldCount = rowCount;
+        rowCount = newCount;
+        int lastPage = Math.max(0, oldCount - 1) / PAGE_SIZE;
+        List<Product> last = pages.get(lastPage);
+        if (last != null && last.size() < PAGE_SIZE) {
+            pages.remove(lastPage);
+        }
+        if (newCount > oldCount) {
+            fireTableRowsInserted(oldCount, newCount - 1);
+        } else {
+            fireTableRowsDeleted(newCount, oldCount - 1);
+        }
+    }
+
+    public ProductFilter getFilter() {
+        return filter;
+    }
+
+    /** The product shown at the row, or null if its page is not loaded yet. */
+    public Product getRow(int row) {
+        if (row < 0 || row >= rowCount) {
+            return null;
+        }
+        if (localSlots != null) {
+            return catalog.get(localSlots[row]);
+        }
+        int page = row / PAGE_SIZE;
+        List<Product> rows = pages.get(page);
+        if (rows == null) {
+            requestPage(page);
+            return null;
+        }
+        int index = row % PAGE_SIZE;
+        return index < rows.size() ? rows.get(index) : null;
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return TYPES[column];
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        Product p = getRow(row);
+        if (p == null) {
+            return null;
+        }
+        switch (column) {
+            case 0: return p.getId();
+            case 1: return p.getName();
+            case 2: return p.getCategory();
+            case 3: return p.getShade();
+            case 4: return p.getPrice();
+            default: return p.getNoOfItems();
+        }
+    }
+
+    private void requestPage(int page) {
+        if (!loading.add(page)) {
+            return;
+        }
+        int gen = generation;
+        ProductFilter f = filter;
+        Map.Entry<Integer, Integer> known = pageAfterIds.floorEntry(page);
+        int knownPage = known.getKey();
+        int knownAfterId = known.getValue();
+
+        try {
+            loadPage(page, gen, f, knownPage, knownAfterId);
+        } catch (RejectedExecutionException e) {
+            // Workers are saturated; the next repaint asks again.
+            loading.remove(page);
+        }
+    }
+
+    private void loadPage(int page, int gen, ProductFilter f, int knownPage, int knownAfterId) {
+        tasks.run("page-" + gen + "-" + page, () -> {
+            int afterId = knownAfterId;
+            if (knownPage < page) {
+                afterId = dao.findIdAtOffset(f, knownAfterId, (page - knownPage) * PAGE_SIZE - 1);
+                if (afterId < 0) {
+                    return Collections.<Product>emptyList();
+                }
+            }
+            return dao.findProducts(f, afterId, PAGE_SIZE);
+        }, rows -> {
+            if (gen != generation) {
+                return;
+            }
+            loading.remove(page);
+            storePage(page, rows);
+            int first = page * PAGE_SIZE;
+            int last = Math.min(rowCount, first + PAGE_SIZE) - 1;
+            if (last >= first) {
+                fireTableRowsUpdated(first, last);
+            }
+        }, e -> {
+            if (gen == generation) {
+                loading.remove(page);
+            }
+            e.printStackTrace();
+        });
+    }
+
+    private void storePage(int page, List<Product> rows) {
+        pages.put(page, rows);
+        if (rows.size() == PAGE_SIZE) {
+            pageAfterIds.put(page + 1, rows.get(rows.size() - 1).getId());
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package inventory;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Rebuilds inventory state from the newest snapshot plus the activity log
+ * written after it. Every logged action carries the product's full fields,
+ * so replay is idempotent: ADDED/UPDATED/RESTORED (and any other action) set
+ * the product to the logged values and DELETED removes it. Re-applying an
+ * entry the snapshot already contains is therefore harmless, which is what
+ * lets a snapshot be cut from the live database without stopping writers.
+ */
+public class RecoveryEngine {
+    private static final int KEEP_SNAPSHOTS = 3;
+    private static final int MAP_WINDOW = 64 * 1024 * 1024;
+
+    private final Path log;
+    private final Path snapshotDir;
+    private final ProductDAO dao;
+    private ScheduledExecutorService scheduler;
+
+    public static class Result {
+        private final Map<Integer, Product> products;
+        private final boolean fromSnapshot;
+        private final long snapshotOffset;
+        private final long logOffset;
+        private final int replayed;
+        private final int skipped;
+        private final int unreadable;
+
+        Result(Map<Integer, Product> products, boolean fromSnapshot, long snapshotOffset, long logOffset,
+               int replayed, int skipped, int unreadable) {
+            this.products = products;
+            this.fromSnapshot = fromSnapshot;
+            this.snapshotOffset = snapshotOffset;
+            this.logOffset = logOffset;
+            this.replayed = replayed;
+            this.skipped = skipped;
+            this.unreadable = unreadable;
+        }
+
+        public Map<Integer, Product> getProducts() { return products; }
+        /** False when no readable snapshot existed and the log was replayed onto an empty inventory. */
+        public boolean isFromSnapshot() { return fromSnapshot; }
+        public long getSnapshotOffset() { return snapshotOffset; }
+        public long getLogOffset() { return logOffset; }
+        public int getReplayed() { return replayed; }
+        public int getSkipped() { return skipped; }
+        /** Complete log lines that could not be parsed at all. */
+        public int getUnreadable() { return unreadable; }
+
+        @Override
+        public String toString() {
+            return String.format("%d products (snapshot at byte %d, %d log entries replayed, %d skipped, %d unreadable)",
+                    products.size(), snapshotOffset, replayed, skipped, unreadable);
+        }
+    }
+
+    public RecoveryEngine(ProductDAO dao) {
+        this(Paths.get(ActivityLog.DEFAULT_FILE), Paths.get("snapshots"), dao);
+    }
+
+    public RecoveryEngine(Path log, Path snapshotDir, ProductDAO dao) {
+        this.log = log;
+        this.snapshotDir = snapshotDir;
+        this.dao = dao;
+    }
+
+    /** Snapshots the live products table at the current end of the log. */
+    public synchronized InventorySnapshot checkpointFromDatabase() throws Exception {
+        ActivityLog.get().flush();
+        long offset = Files.exists(log) ? Files.size(log) : 0;
+        Map<Integer, Product> products = new TreeMap<>();
+        dao.forEachProduct((id, name, category, shade, price, items) ->
+                products.put(id, new Product(id, name, category, shade,
+                        price == null ? 0 : price.doubleValue(), items)));
+        return save(new InventorySnapshot(offset, System.currentTimeMillis(), products));
+    }
+
+    /** Rolls the newest snapshot forward over the log tail and saves the result as a new snapshot. */
+    public synchronized InventorySnapshot checkpoint() throws IOException {
+        ActivityLog.get().flush();
+        Result r = recover();
+        if (r.getReplayed() == 0 && r.getSnapshotOffset() == r.getLogOffset() && latestSnapshot() != null) {
+            return null; // nothing new since the last snapshot
+        }
+        return save(new InventorySnapshot(r.getLogOffset(), System.currentTimeMillis(), r.getProducts()));
+    }
+
+    /** Reconstructs the inventory in memory. */
+    public synchronized Result recover() throws IOException {
+        InventorySnapshot snapshot = latestSnapshot();
+        Map<Integer, Product> products = snapshot == null ? new TreeMap<>() : snapshot.getProducts();
+        long start = snapshot == null ? 0 : snapshot.getLogOffset();
+        long length = Files.exists(log) ? Files.size(log) : 0;
+        if (length < start) {
+            // The log was truncated or rotated after the snapshot; the snapshot is all we have.
+            return new Result(products, snapshot != null, start, start, 0, 0, 0);
+        }
+        int[] counts = new int[3];
+        long end = replay(start, length, entry -> {
+            if (entry == null) {
+                counts[2]++;
+                return;
+            }
+            Product p = entry.getProduct();
+            if (p.getId() <= 0) {
+                counts[1]++; // entries logged without a database id cannot be keyed
+                return;
+            }
+            if ("DELETED".equals(entry.getAction())) {
+                products.remove(p.getId());
+            } else {
+                products.put(p.getId(), p);
+            }
+            counts[0]++;
+        });
+        return new Result(products, snapshot != null, start, end, counts[0], counts[1], counts[2]);
+    }
+
+    /**
+     * Replaces the products table with the recovered inventory, in one
+     * transaction. Refuses, leaving the table untouched, when there is no
+     * snapshot to start from or when log entries had to be skipped or could
+     * not be read, since
+     * either way the recovered inventory would be missing products.
+     */
+    public Result restoreDatabase() throws Exception {
+        Result r = recover();
+        if (!r.isFromSnapshot()) {
+            throw new IllegalStateException("There is no inventory snapshot to restore from.");
+        }
+        if (r.getSkipped() > 0) {
+            throw new IllegalStateException(r.getSkipped()
+                    + " activity log entries have no product id and cannot be replayed.");
+        }
+        if (r.getUnreadable() > 0) {
+            throw new IllegalStateException(r.getUnreadable()
+                    + " activity log lines could not be read and cannot be replayed.");
+        }
+        dao.replaceAllProducts(r.getProducts().values());
+        return r;
+    }
+
+    public synchronized void startPeriodicCheckpoints(long intervalMinutes) {
+        if (scheduler != null || intervalMinutes <= 0) return;
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "inventory-checkpoint");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                checkpoint();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }, intervalMinutes, intervalMinutes, TimeUnit.MINUTES);
+    }
+
+    private interface EntryHandler {
+        /** Called with null for a complete, non-blank line that does not parse. */
+        void apply(LogEntry entry);
+    }
+
+    // Parses complete lines in [from, to); returns the offset just past the last one.
+    private long replay(long from, long to, EntryHandler handler) throws IOException {
+        if (from >= to) return from;
+        try (FileChannel ch = FileChannel.open(log, StandardOpenOption.READ)) {
+            long base = from;
+            while (base < to) {
+                int window = (int) Math.min(MAP_WINDOW, to - base);
+                MappedByteBuffer map = ch.map(FileChannel.MapMode.READ_ONLY, base, window);
+                int lineStart = 0;
+                for (int i = 0; i < window; i++) {
+                    if (map.get(i) != '\n') continue;
+                    byte[] bytes = new byte[i - lineStart];
+                    map.position(lineStart);
+                    map.get(bytes);
+                    String line = new String(bytes, StandardCharsets.UTF_8);
+                    if (line.endsWith("\r")) line = line.substring(0, line.length() - 1);
+                    LogEntry entry = LogEntry.parse(line, base + lineStart);
+                    if (entry != null || !line.trim().isEmpty()) handler.apply(entry);
+                    lineStart = i + 1;
+                }
+                if (lineStart == 0) break; // partial trailing line
+                base += lineStart;
+            }
+            return base;
+        }
+    }
+
+    private InventorySnapshot save(InventorySnapshot snapshot) throws IOException {
+        Files.createDirectories(snapshotDir);
+        snapshot.write(snapshotDir.resolve(String.format("inventory-%016d.snap", snapshot.getLogOffset())));
+        List<Path> all = listSnapshots();
+        for (int i = 0; i < all.size() - KEEP_SNAPSHOTS; i++) {
+            Files.deleteIfExists(all.get(i));
+        }
+        return snapshot;
+    }
+
+    private InventorySnapshot latestSnapshot() throws IOException {
+        List<Path> all = listSnapshots();
+        for (int i = all.size() - 1; i >= 0; i--) {
+            try {
+                return InventorySnapshot.read(all.get(i));
+            } catch (IOException e) {
+                // Damaged or half-written; fall back to the previous one.
+                e.printStackTrace();
+            }
+        }
+        return null;
+    }
+
+    // Oldest first; the zero-padded offset in the name makes lexical order offset order.
+    private List<Path> listSnapshots() throws IOException {
+        if (!Files.isDirectory(snapshotDir)) return new ArrayList<>();
+        try (Stream<Path> files = Files.list(snapshotDir)) {
+            return files.filter(f -> f.getFileName().toString().endsWith(".snap"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package inventory;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Brings the database schema up to what this build expects. Applied
+ * migrations are recorded in schema_version, and each statement tolerates
+ * having already run, so a migration interrupted halfway is simply retried
+ * on the next run.
+ *
+ * DDL only runs when the process is started with -Ddb.migrate=true, normally
+ * once by an administrator whose account may alter tables. Every other client
+ * just reads the recorded version and leaves newer features off until then.
+ */
+final class SchemaMigrations {
+
+    // MySQL errors meaning "already there": duplicate column, duplicate key name, table exists.
+    private static final int[] ALREADY_APPLIED = {1060, 1061, 1050};
+
+    private static final String[][] MIGRATIONS = {
+            // 1: change tracking so terminals can poll for each other's edits
+            {
+                    "ALTER TABLE products ADD COLUMN updated_at TIMESTAMP(3) NOT NULL"
+                            + " DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3)",
+                    "CREATE INDEX idx_products_updated_at ON products(updated_at)",
+                    "CREATE TABLE IF NOT EXISTS product_tombstones ("
+                            + "product_id INT PRIMARY KEY, "
+                            + "deleted_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3), "
+                            + "INDEX idx_tombstones_deleted_at (deleted_at))"
+            },
+            // 2: case-insensitive unique name + shade, so duplicate checks are one indexed statement
+            {
+                    "ALTER TABLE products ADD COLUMN name_key VARCHAR(255) GENERATED ALWAYS AS (LOWER(name)) STORED",
+                    "ALTER TABLE products ADD COLUMN shade_key VARCHAR(255) GENERATED ALWAYS AS (LOWER(shade)) STORED",
+                    "CREATE UNIQUE INDEX uq_products_name_shade ON products(name_key, shade_key)"
+            },
+    };
+
+    private static volatile int version = -1;
+
+    private SchemaMigrations() {
+    }
+
+    /** Schema version this process is running against, or -1 if it could not be read. */
+    static int version() {
+        return version;
+    }
+
+    static boolean hasChangeTracking() {
+        return version >= 1;
+    }
+
+    static boolean hasUniqueNameShade() {
+        return version >= 2;
+    }
+
+    /**
+     * True for a unique-key violation (MySQL error 1062). Other integrity
+     * violations (NOT NULL, foreign keys) share SQLState 23000 and are not
+     * duplicates, so only the error code is trusted.
+     */
+    static boolean isDuplicateKey(SQLException e) {
+        return e.getErrorCode() == 1062;
+    }
+
+    /** Reads the recorded schema version without changing anything; 0 if nothing was ever migrated. */
+    static synchronized void check(Connection con) {
+        try (Statement st = con.createStatement();
+             ResultSet rs = st.executeQuery("SELECT COALESCE(MAX(version), 0) FROM schema_version")) {
+            version = rs.next() ? rs.getInt(1) : 0;
+        } catch (SQLException e) {
+            version = 0; // no schema_version table yet
+        }
+        if (version < MIGRATIONS.length) {
+            System.err.println("The database schema is at version " + version + " but this build expects "
+                    + MIGRATIONS.length + ". Start once with -Ddb.migrate=true using an account that may "
+                    + "alter tables; until then change tracking and the unique name/shade key stay off.");
+        }
+    }
+
+    static synchronized void apply(Connection con) {
+        try (Statement st = con.createStatement()) {
+            st.executeUpdate("CREATE TABLE IF NOT EXISTS schema_version ("
+                    + "version INT PRIMARY KEY, applied_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP)");
+            int current = 0;
+            try (ResultSet rs = st.executeQuery("SELECT COALESCE(MAX(version), 0) FROM schema_version")) {
+                if (rs.next()) current = rs.getInt(1);
+            }
+            version = current;
+            for (int v = current + 1; v <= MIGRATIONS.length; v++) {
+                for (String sql : MIGRATIONS[v - 1]) {
+                    execute(st, sql);
+                }
+                st.executeUpdate("INSERT IGNORE INTO schema_version(version) VALUES(" + v + ")");
+                version = v;
+            }
+        } catch (SQLException e) {
+            // Features that need a later migration stay off; everything earlier keeps working.
+            if (isDuplicateKey(e)) {
+                System.err.println("Cannot add the unique name/shade key: the products table already has "
+                        + "duplicate name and shade pairs. Remove them and restart.");
+            }
+            e.printStackTrace();
+        }
+    }
+
+    private static void execute(Statement st, String sql) throws SQLException {
+        try {
+            st.executeUpdate(sql);
+        } catch (SQLException e) {
+            for (int code : ALREADY_APPLIED) {
+                if (e.getErrorCode() == code) return;
+            }
+            throw e;
+        }
+    }
+}
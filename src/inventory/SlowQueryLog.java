@@ -0,0 +1,128 @@
+package inventory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Append-only text log of slow statements, written by one background
+ * thread so DAO threads never wait on the disk. When the file passes
+ * sql.slowLog.maxBytes it is renamed to .1 (older files shift up, keeping
+ * sql.slowLog.files of them) and a fresh one is started. If the queue is
+ * full, entries are dropped and counted rather than blocking the caller.
+ */
+public class SlowQueryLog implements AutoCloseable {
+    public static final String DEFAULT_FILE = "slow_queries.log";
+
+    private final Path file;
+    private final long maxBytes;
+    private final int keepFiles;
+    private final BlockingQueue<String> queue = new ArrayBlockingQueue<>(10_000);
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread writer;
+    private volatile boolean closed = false;
+
+    public SlowQueryLog() {
+        this(Paths.get(System.getProperty("sql.slowLog.file", DEFAULT_FILE)),
+                Long.getLong("sql.slowLog.maxBytes", 10L * 1024 * 1024),
+                Integer.getInteger("sql.slowLog.files", 5));
+    }
+
+    public SlowQueryLog(Path file, long maxBytes, int keepFiles) {
+        this.file = file;
+        this.maxBytes = Math.max(1024, maxBytes);
+        this.keepFiles = Math.max(1, keepFiles);
+        this.writer = new Thread(this::writeLoop, "slow-query-log-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /** Queues one complete line (including its line separator) without blocking. */
+    public void append(String entry) {
+        if (closed || !queue.offer(entry)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true; // the writer drains the queue and exits within a poll interval
+        try {
+            writer.join(5_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeLoop() {
+        FileChannel channel = null;
+        StringBuilder pending = new StringBuilder();
+        try {
+            channel = open();
+            while (!closed || !queue.isEmpty()) {
+                String entry = queue.poll(1, TimeUnit.SECONDS);
+                if (entry == null) continue;
+                pending.setLength(0);
+                do {
+                    pending.append(entry);
+                } while (pending.length() < 64 * 1024 && (entry = queue.poll()) != null);
+
+                ByteBuffer buf = ByteBuffer.wrap(pending.toString().getBytes(StandardCharsets.UTF_8));
+                while (buf.hasRemaining()) {
+                    channel.write(buf);
+                }
+                if (channel.size() >= maxBytes) {
+                    channel.close();
+                    rotate();
+                    channel = open();
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    private FileChannel open() throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    // slow_queries.log -> .1 -> .2 ...; the oldest beyond keepFiles is deleted.
+    private void rotate() throws IOException {
+        Files.deleteIfExists(rotated(keepFiles));
+        for (int i = keepFiles - 1; i >= 1; i--) {
+            Path from = rotated(i);
+            if (Files.exists(from)) {
+                Files.move(from, rotated(i + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Files.move(file, rotated(1), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private Path rotated(int n) {
+        return file.resolveSibling(file.getFileName() + "." + n);
+    }
+}
@@ -0,0 +1,422 @@
+package inventory;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Wraps the connections DBConnection hands out so every statement they run
+ * is timed: execution (the execute call) and fetch (walking the result set)
+ * separately, with the rows read or changed. Timings feed the JDBC.execute
+ * and JDBC.fetch metrics and per-statement aggregates keyed by the SQL text
+ * (with IN lists and multi-row VALUES collapsed). Statements whose total
+ * time reaches sql.slowMs are written to the SlowQueryLog with the shape of
+ * their bound parameters (types and string lengths, never values), and the
+ * aggregates are appended to that log every sql.slowLog.summaryMinutes and
+ * at exit. Set -Dsql.trace=false to hand out unwrapped connections.
+ */
+final class SqlTracer {
+    static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("sql.trace", "true"));
+
+    private static final long SLOW_NANOS = TimeUnit.MILLISECONDS.toNanos(Long.getLong("sql.slowMs", 250));
+    private static final long SUMMARY_MINUTES = Long.getLong("sql.slowLog.summaryMinutes", 15);
+    static final int MAX_STATEMENTS = 2_000;
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bIN\\s*\\(\\s*\\?(\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern REPEATED_ROWS =
+            Pattern.compile("(?i)\\bVALUES\\s*(\\(\\?(?:\\s*,\\s*\\?)*\\))(?:\\s*,\\s*\\1)*");
+
+    private static final Map<String, StatementStats> statements = new ConcurrentHashMap<>();
+    private static final OperationMetrics EXECUTE = MetricsRegistry.get().operation("JDBC.execute");
+    private static final OperationMetrics FETCH = MetricsRegistry.get().operation("JDBC.fetch");
+    private static volatile SlowQueryLog slowLog;
+
+    private SqlTracer() {
+    }
+
+    static Connection wrap(Connection con) {
+        if (slowLog == null) {
+            log(); // start the summary schedule with the first traced connection, not the first slow statement
+        }
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new ConnectionHandler(con));
+    }
+
+    // ================= AGGREGATES =================
+
+    private static class StatementStats {
+        final String sql;
+        long count;
+        long errors;
+        long slow;
+        long rows;
+        long totalNanos;
+        long maxNanos;
+
+        StatementStats(String sql) {
+            this.sql = sql;
+        }
+
+        synchronized void record(long nanos, long rowCount, boolean failed, boolean isSlow) {
+            count++;
+            rows += rowCount;
+            totalNanos += nanos;
+            maxNanos = Math.max(maxNanos, nanos);
+            if (failed) errors++;
+            if (isSlow) slow++;
+        }
+
+        synchronized String row() {
+            return String.format("%8d %6d %6d %11d %10.3f %10.3f %11.1f  %s%n",
+                    count, errors, slow, rows, count == 0 ? 0 : totalNanos / 1e6 / count,
+                    maxNanos / 1e6, totalNanos / 1e6, sql);
+        }
+
+        synchronized long total() {
+            return totalNanos;
+        }
+    }
+
+    /** Appends the statements with the most total time, up to limit of them. */
+    static void appendReport(StringBuilder sb, int limit) {
+        List<StatementStats> list = new ArrayList<>(statements.values());
+        if (list.isEmpty()) return;
+        list.sort((a, b) -> Long.compare(b.total(), a.total()));
+        sb.append(String.format("%8s %6s %6s %11s %10s %10s %11s  %s%n",
+                "count", "errors", "slow", "rows", "mean ms", "max ms", "total ms", "statement"));
+        for (int i = 0; i < Math.min(limit, list.size()); i++) {
+            sb.append(list.get(i).row());
+        }
+    }
+
+    // Same statement, whatever the IN list length or rows per INSERT (one included).
+    static String normalize(String sql) {
+        String s = WHITESPACE.matcher(sql.trim()).replaceAll(" ");
+        s = IN_LIST.matcher(s).replaceAll("IN (?, ...)");
+        return REPEATED_ROWS.matcher(s).replaceAll("VALUES $1, ...");
+    }
+
+    // Adds to the statement's aggregate; new statements past MAX_STATEMENTS are not tracked.
+    static void aggregate(String sql, long nanos, long rows, boolean failed, boolean isSlow) {
+        StatementStats stats = statements.get(sql);
+        if (stats == null && statements.size() < MAX_STATEMENTS) {
+            stats = statements.computeIfAbsent(sql, StatementStats::new);
+        }
+        if (stats != null) stats.record(nanos, rows, failed, isSlow);
+    }
+
+    static int statementCount() {
+        return statements.size();
+    }
+
+    private static void finish(Execution e) {
+        if (e.finished) return;
+        e.finished = true;
+        long total = e.executeNanos + e.fetchNanos;
+        boolean isSlow = total >= SLOW_NANOS;
+        EXECUTE.record(e.executeNanos, 0, e.failed);
+        if (e.query) FETCH.record(e.fetchNanos, e.rows, false);
+
+        aggregate(e.sql, total, e.rows, e.failed, isSlow);
+        if (isSlow) {
+            log().append(String.format("%s [%s] %.1f ms (execute %.1f + fetch %.1f) rows=%d%s%s params=%s%n  %s%n",
+                    LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS), Thread.currentThread().getName(), total / 1e6,
+                    e.executeNanos / 1e6, e.fetchNanos / 1e6, e.rows,
+                    e.batch > 0 ? " batch=" + e.batch : "", e.failed ? " FAILED" : "",
+                    Arrays.toString(e.params), e.sql));
+        }
+    }
+
+    private static synchronized SlowQueryLog log() {
+        if (slowLog == null) {
+            slowLog = new SlowQueryLog();
+            if (SUMMARY_MINUTES > 0) {
+                ScheduledExecutorService summaries = Executors.newSingleThreadScheduledExecutor(r -> {
+                    Thread t = new Thread(r, "slow-query-summary");
+                    t.setDaemon(true);
+                    return t;
+                });
+                summaries.scheduleAtFixedRate(SqlTracer::writeSummary, SUMMARY_MINUTES, SUMMARY_MINUTES, TimeUnit.MINUTES);
+            }
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                writeSummary();
+                slowLog.close();
+            }, "slow-query-log-shutdown"));
+        }
+        return slowLog;
+    }
+
+    private static void writeSummary() {
+        if (statements.isEmpty()) return;
+        StringBuilder sb = new StringBuilder();
+        sb.append("=== Statement aggregates at ").append(LocalDateTime.now().withNano(0)).append(" ===\n");
+        appendReport(sb, 50);
+        if (slowLog.getDropped() > 0) {
+            sb.append("(").append(slowLog.getDropped()).append(" slow entries dropped while the log was backed up)\n");
+        }
+        slowLog.append(sb.toString());
+    }
+
+    // One statement execution, open until its result set is read to the end or closed.
+    private static class Execution {
+        final String sql;
+        final String[] params;
+        final int batch;
+        final boolean query;
+        long executeNanos;
+        long fetchNanos;
+        long rows;
+        boolean failed;
+        boolean finished;
+
+        Execution(String sql, String[] params, int batch, boolean query) {
+            this.sql = sql;
+            this.params = params;
+            for (int i = 0; i < params.length; i++) {
+                if (params[i] == null) params[i] = "?"; // never bound
+            }
+            this.batch = batch;
+            this.query = query;
+        }
+    }
+
+    // ================= PROXIES =================
+
+    private static Object call(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "createStatement":
+                    return statement(proxy, Statement.class, call(target, method, args), null);
+                case "prepareStatement":
+                    return statement(proxy, PreparedStatement.class, call(target, method, args), (String) args[0]);
+                case "prepareCall":
+                    return statement(proxy, CallableStatement.class, call(target, method, args), (String) args[0]);
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    return call(target, method, args);
+            }
+        }
+
+        private static Object statement(Object connection, Class<?> type, Object target, String sql) {
+            return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                    new StatementHandler((Statement) target, (Connection) connection, sql));
+        }
+    }
+
+    private static class StatementHandler implements InvocationHandler {
+        private static final String[] NO_PARAMS = new String[0];
+
+        private final Statement target;
+        private final Connection connection;
+        private final String sql;
+        private String[] params = NO_PARAMS;
+        private int paramCount = 0;
+        private int batch = 0;
+        private Execution open;
+
+        StatementHandler(Statement target, Connection connection, String sql) {
+            this.target = target;
+            this.connection = connection;
+            this.sql = sql == null ? null : normalize(sql);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("execute")) {
+                return execute(proxy, method, args);
+            }
+            switch (name) {
+                case "getResultSet": {
+                    Object rs = call(target, method, args);
+                    return rs != null && open != null && !open.finished ? resultSet(proxy, (ResultSet) rs, open) : rs;
+                }
+                case "addBatch":
+                    batch++;
+                    return call(target, method, args);
+                case "clearBatch":
+                    batch = 0;
+                    return call(target, method, args);
+                case "clearParameters":
+                    params = NO_PARAMS;
+                    paramCount = 0;
+                    return call(target, method, args);
+                case "close":
+                    if (open != null) finish(open);
+                    return call(target, method, args);
+                case "getConnection":
+                    return connection;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                        recordShape((Integer) args[0], name, args[1]);
+                    }
+                    return call(target, method, args);
+            }
+        }
+
+        private Object execute(Object proxy, Method method, Object[] args) throws Throwable {
+            if (open != null) finish(open);
+            boolean hasSql = args != null && args.length > 0 && args[0] instanceof String;
+            String text = hasSql ? normalize((String) args[0]) : sql;
+            String name = method.getName();
+            boolean query = name.equals("executeQuery");
+            Execution e = new Execution(text == null ? "(batch)" : text,
+                    paramCount == 0 ? NO_PARAMS : Arrays.copyOf(params, paramCount), name.contains("Batch") ? batch : 0, query);
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = call(target, method, args);
+            } catch (Throwable t) {
+                e.executeNanos = System.nanoTime() - start;
+                e.failed = true;
+                MetricsRegistry.noteFailure();
+                finish(e);
+                throw t;
+            }
+            e.executeNanos = System.nanoTime() - start;
+            if (name.contains("Batch")) batch = 0;
+
+            if (query) {
+                open = e;
+                return resultSet(proxy, (ResultSet) result, e);
+            }
+            if (result instanceof Boolean && (Boolean) result) {
+                open = e; // execute() produced a result set; it is read through getResultSet
+                return result;
+            }
+            e.rows = updateCount(result);
+            finish(e);
+            return result;
+        }
+
+        private long updateCount(Object result) throws Exception {
+            if (result instanceof Integer) return (Integer) result;
+            if (result instanceof Long) return (Long) result;
+            long total = 0;
+            if (result instanceof int[]) {
+                for (int n : (int[]) result) if (n > 0) total += n;
+            } else if (result instanceof long[]) {
+                for (long n : (long[]) result) if (n > 0) total += n;
+            } else if (result instanceof Boolean) {
+                total = Math.max(0, target.getUpdateCount());
+            }
+            return total;
+        }
+
+        private void recordShape(int index, String setter, Object value) {
+            if (index < 1 || index > 10_000) return;
+            if (index > params.length) {
+                params = Arrays.copyOf(params, Math.max(index, params.length * 2));
+            }
+            paramCount = Math.max(paramCount, index);
+            String type = setter.substring(3);
+            if (value == null || setter.equals("setNull")) {
+                params[index - 1] = "NULL";
+            } else if (value instanceof String) {
+                params[index - 1] = "String(" + ((String) value).length() + ")";
+            } else if (value instanceof byte[]) {
+                params[index - 1] = "bytes(" + ((byte[]) value).length + ")";
+            } else if (setter.equals("setObject")) {
+                params[index - 1] = value.getClass().getSimpleName();
+            } else {
+                params[index - 1] = type;
+            }
+        }
+
+        private static Object resultSet(Object statement, ResultSet rs, Execution e) {
+            return Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                    new ResultSetHandler(rs, (Statement) statement, e));
+        }
+    }
+
+    private static class ResultSetHandler implements InvocationHandler {
+        private final ResultSet target;
+        private final Statement statement;
+        private final Execution execution;
+
+        ResultSetHandler(ResultSet target, Statement statement, Execution execution) {
+            this.target = target;
+            this.statement = statement;
+            this.execution = execution;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "next": {
+                    long start = System.nanoTime();
+                    boolean more;
+                    try {
+                        more = (Boolean) call(target, method, args);
+                    } catch (Throwable t) {
+                        execution.fetchNanos += System.nanoTime() - start;
+                        execution.failed = true;
+                        MetricsRegistry.noteFailure();
+                        finish(execution);
+                        throw t;
+                    }
+                    execution.fetchNanos += System.nanoTime() - start;
+                    if (more) {
+                        execution.rows++;
+                    } else {
+                        finish(execution);
+                    }
+                    return more;
+                }
+                case "close":
+                    finish(execution);
+                    return call(target, method, args);
+                case "getStatement":
+                    return statement;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    return call(target, method, args);
+            }
+        }
+    }
+}
@@ -1,10 +1,12 @@
 package inventory;
 
+import java.sql.Connection;
+
 public class TestDB {
     public static void main(String[] args) {
-        try {
-            DBConnection.getConnection();
-            System.out.println("✅ Connected to MySQL successfully!");
+        try (Connection con = DBConnection.getConnection()) {
+            System.out.println("✅ Connected to MySQL " + con.getMetaData().getDatabaseProductVersion() + " successfully!");
+            System.out.println("Pool: " + DBConnection.getPoolStats());
         } catch (Exception e) {
             System.out.println("❌ Connection failed.");
             e.printStackTrace();
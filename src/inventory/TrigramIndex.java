@@ -0,0 +1,145 @@
+package inventory;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Inverted index from every three-character substring of the lower-cased
+ * name, category and shade to the catalog slots containing it. A "contains"
+ * query is answered by intersecting the posting lists of the key's trigrams;
+ * the result is a candidate set that callers still confirm with
+ * String.contains, since trigrams can match out of order.
+ *
+ * Posting lists are kept sorted by slot so intersections are linear merges
+ * and results come back in slot order.
+ */
+public class TrigramIndex {
+    private static final int[] EMPTY = new int[0];
+
+    private final Map<Long, Postings> postings = new HashMap<>();
+
+    public void add(int slot, Product p) {
+        for (long gram : trigramsOf(p)) {
+            postings.computeIfAbsent(gram, k -> new Postings()).add(slot);
+        }
+    }
+
+    public void remove(int slot, Product p) {
+        for (long gram : trigramsOf(p)) {
+            Postings list = postings.get(gram);
+            if (list != null && list.remove(slot) && list.size == 0) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    public void clear() {
+        postings.clear();
+    }
+
+    /** True when the key is long enough to be answered from the index. */
+    public static boolean canSearch(String key) {
+        return key != null && key.length() >= 3;
+    }
+
+    /** Candidate slots (sorted) whose fields contain every trigram of the lower-cased key. */
+    public int[] candidates(String key) {
+        long[] grams = distinctTrigrams(key, new long[0]);
+        Postings[] lists = new Postings[grams.length];
+        for (int i = 0; i < grams.length; i++) {
+            lists[i] = postings.get(grams[i]);
+            if (lists[i] == null) {
+                return EMPTY;
+            }
+        }
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+
+        int[] result = Arrays.copyOf(lists[0].slots, lists[0].size);
+        int n = result.length;
+        for (int i = 1; i < lists.length && n > 0; i++) {
+            n = intersect(result, n, lists[i]);
+        }
+        return n == result.length ? result : Arrays.copyOf(result, n);
+    }
+
+    // Keeps the entries of acc[0..n) that also occur in other; returns the new length.
+    private static int intersect(int[] acc, int n, Postings other) {
+        int out = 0;
+        int j = 0;
+        for (int i = 0; i < n && j < other.size; i++) {
+            int slot = acc[i];
+            while (j < other.size && other.slots[j] < slot) j++;
+            if (j < other.size && other.slots[j] == slot) {
+                acc[out++] = slot;
+            }
+        }
+        return out;
+    }
+
+    private static long[] trigramsOf(Product p) {
+        long[] grams = distinctTrigrams(p.getName().toLowerCase(Locale.ROOT), new long[0]);
+        grams = distinctTrigrams(p.getCategory().toLowerCase(Locale.ROOT), grams);
+        return distinctTrigrams(p.getShade().toLowerCase(Locale.ROOT), grams);
+    }
+
+    // Appends the trigrams of text to into, dropping duplicates.
+    private static long[] distinctTrigrams(String text, long[] into) {
+        if (text.length() < 3) {
+            return into;
+        }
+        long[] grams = Arrays.copyOf(into, into.length + text.length() - 2);
+        int n = into.length;
+        for (int i = 0; i + 2 < text.length(); i++) {
+            grams[n++] = pack(text.charAt(i), text.charAt(i + 1), text.charAt(i + 2));
+        }
+        Arrays.sort(grams, 0, n);
+        int distinct = 0;
+        for (int i = 0; i < n; i++) {
+            if (distinct == 0 || grams[distinct - 1] != grams[i]) {
+                grams[distinct++] = grams[i];
+            }
+        }
+        return Arrays.copyOf(grams, distinct);
+    }
+
+    private static long pack(char a, char b, char c) {
+        return ((long) a << 32) | ((long) b << 16) | c;
+    }
+
+    private static class Postings {
+        int[] slots = new int[4];
+        int size;
+
+        void add(int slot) {
+            // Slots are handed out in increasing order, so this is almost always an append.
+            if (size == 0 || slots[size - 1] < slot) {
+                ensureCapacity();
+                slots[size++] = slot;
+                return;
+            }
+            int pos = Arrays.binarySearch(slots, 0, size, slot);
+            if (pos >= 0) return;
+            pos = -pos - 1;
+            ensureCapacity();
+            System.arraycopy(slots, pos, slots, pos + 1, size - pos);
+            slots[pos] = slot;
+            size++;
+        }
+
+        boolean remove(int slot) {
+            int pos = Arrays.binarySearch(slots, 0, size, slot);
+            if (pos < 0) return false;
+            System.arraycopy(slots, pos + 1, slots, pos, size - pos - 1);
+            size--;
+            return true;
+        }
+
+        private void ensureCapacity() {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+        }
+    }
+}
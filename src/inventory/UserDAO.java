@@ -10,6 +10,11 @@ import java.util.List;
 
 public class UserDAO {
 
+    /** A MeteredUserDAO unless metrics are disabled. */
+    public static UserDAO create() {
+        return MetricsRegistry.ENABLED ? new MeteredUserDAO(new UserDAO()) : new UserDAO();
+    }
+
     public User loginUser(String username, String password) {
         String sql = "SELECT id, username, password, role FROM users WHERE username=?";
 
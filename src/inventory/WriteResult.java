@@ -0,0 +1,29 @@
+package inventory;
+
+/**
+ * Outcome of a single-row product write. On success it carries the row as
+ * it now stands in the database (with its generated id for inserts, or the
+ * removed values for deletes) so callers can patch their copy in place.
+ */
+public class WriteResult {
+    public enum Status { OK, NOT_FOUND, DUPLICATE, INSUFFICIENT_STOCK, FAILED }
+
+    private final Status status;
+    private final Product product;
+
+    private WriteResult(Status status, Product product) {
+        this.status = status;
+        this.product = product;
+    }
+
+    static WriteResult ok(Product product) { return new WriteResult(Status.OK, product); }
+    static WriteResult notFound() { return new WriteResult(Status.NOT_FOUND, null); }
+    static WriteResult duplicate() { return new WriteResult(Status.DUPLICATE, null); }
+    /** Carries the row as it stands, so the caller can show what is left. */
+    static WriteResult insufficientStock(Product current) { return new WriteResult(Status.INSUFFICIENT_STOCK, current); }
+    static WriteResult failed() { return new WriteResult(Status.FAILED, null); }
+
+    public Status getStatus() { return status; }
+    public Product getProduct() { return product; }
+    public boolean isOk() { return status == Status.OK; }
+}
@@ -0,0 +1,151 @@
+package inventory;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ActivityLogIndexTest {
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 12, 11, 21, 0, 0);
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    @TempDir
+    Path dir;
+
+    private static String line(LocalDateTime time, String action, int id, String name) {
+        return String.format("%s | %s | ID:%d | %s | Lipstick | Shade:001 | Price:12.50 | Items:3",
+                time.format(TIME_FORMAT), action, id, name);
+    }
+
+    // Entry i is logged at T0 + i minutes for product id (i % 3) + 1.
+    private static List<String> lines(int count) {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            lines.add(line(T0.plusMinutes(i), "UPDATED", i % 3 + 1, "Product " + i));
+        }
+        return lines;
+    }
+
+    private static List<Integer> ids(List<LogEntry> entries) {
+        List<Integer> ids = new ArrayList<>();
+        for (LogEntry e : entries) ids.add(e.getProduct().getId());
+        return ids;
+    }
+
+    private static List<String> names(List<LogEntry> entries) {
+        List<String> names = new ArrayList<>();
+        for (LogEntry e : entries) names.add(e.getProduct().getName());
+        return names;
+    }
+
+    @Test
+    void reopensFromSidecarAndIndexesAppends() throws IOException {
+        Path log = dir.resolve("log.txt");
+        Files.write(log, lines(6), StandardCharsets.UTF_8);
+        ActivityLogIndex first = ActivityLogIndex.open(log);
+        assertEquals(6, first.size());
+        assertTrue(Files.exists(dir.resolve("log.txt.idx")));
+
+        ActivityLogIndex reopened = ActivityLogIndex.open(log);
+        assertEquals(6, reopened.size());
+        assertEquals(Files.size(log), reopened.getIndexedLength());
+
+        Files.write(log, List.of(line(T0.plusMinutes(6), "DELETED", 7, "Late")), StandardCharsets.UTF_8,
+                StandardOpenOption.APPEND);
+        reopened.refresh();
+        assertEquals(7, reopened.size());
+        assertEquals(Files.size(log), reopened.getIndexedLength());
+        assertEquals(List.of("Late"), names(reopened.forProduct(7, null, null)));
+        assertEquals(7, ActivityLogIndex.open(log).size());
+    }
+
+    @Test
+    void partialTrailingLineWaitsForItsNewline() throws IOException {
+        Path log = dir.resolve("log.txt");
+        String partial = line(T0.plusMinutes(3), "ADDED", 9, "Half");
+        Files.write(log, (String.join("\n", lines(3)) + "\n" + partial).getBytes(StandardCharsets.UTF_8));
+        ActivityLogIndex index = ActivityLogIndex.open(log);
+        assertEquals(3, index.size());
+
+        Files.write(log, "\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        index.refresh();
+        assertEquals(4, index.size());
+        assertEquals(List.of("Half"), names(index.forProduct(9, null, null)));
+    }
+
+    @Test
+    void truncatedLogIsReindexed() throws IOException {
+        Path log = dir.resolve("log.txt");
+        Files.write(log, lines(10), StandardCharsets.UTF_8);
+        ActivityLogIndex index = ActivityLogIndex.open(log);
+        assertEquals(10, index.size());
+
+        Files.write(log, List.of(line(T0, "ADDED", 5, "Fresh")), StandardCharsets.UTF_8);
+        index.refresh();
+        assertEquals(1, index.size());
+        assertEquals(List.of("Fresh"), names(index.between(null, null)));
+    }
+
+    @Test
+    void replacedLogIsDetectedByHeadChecksum() throws IOException {
+        Path log = dir.resolve("log.txt");
+        Files.write(log, lines(4), StandardCharsets.UTF_8);
+        ActivityLogIndex.open(log);
+
+        // A different log that is longer than the indexed one: only the head checksum gives it away.
+        List<String> replacement = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            replacement.add(line(T0.plusHours(1).plusMinutes(i), "ADDED", 20 + i, "New " + i));
+        }
+        Files.write(log, replacement, StandardCharsets.UTF_8);
+
+        ActivityLogIndex reopened = ActivityLogIndex.open(log);
+        assertEquals(8, reopened.size());
+        assertEquals(List.of(20, 21, 22, 23, 24, 25, 26, 27), ids(reopened.between(null, null)));
+        assertTrue(reopened.forProduct(1, null, null).isEmpty());
+    }
+
+    @Test
+    void betweenIncludesFromAndExcludesTo() throws IOException {
+        Path log = dir.resolve("log.txt");
+        Files.write(log, lines(10), StandardCharsets.UTF_8);
+        ActivityLogIndex index = ActivityLogIndex.open(log);
+
+        assertEquals(List.of("Product 2", "Product 3", "Product 4"),
+                names(index.between(T0.plusMinutes(2), T0.plusMinutes(5))));
+        assertEquals(List.of("Product 9"), names(index.between(T0.plusMinutes(9), null)));
+        assertEquals(List.of("Product 0"), names(index.between(null, T0.plusMinutes(1))));
+        assertTrue(index.between(T0.plusMinutes(10), null).isEmpty());
+        assertTrue(index.between(T0.plusMinutes(5), T0.plusMinutes(5)).isEmpty());
+        assertEquals(List.of("Product 7", "Product 8", "Product 9"), names(index.between(null, null, 3)));
+        assertTrue(index.between(null, null, 0).isEmpty());
+    }
+
+    @Test
+    void forProductKeepsToItsIdAndPeriod() throws IOException {
+        Path log = dir.resolve("log.txt");
+        Files.write(log, lines(10), StandardCharsets.UTF_8);
+        ActivityLogIndex index = ActivityLogIndex.open(log);
+
+        // Product 1 is entries 0, 3, 6, 9; product 3 (the largest id) is entries 2, 5, 8.
+        assertEquals(List.of("Product 0", "Product 3", "Product 6", "Product 9"),
+                names(index.forProduct(1, null, null)));
+        assertEquals(List.of("Product 2", "Product 5", "Product 8"), names(index.forProduct(3, null, null)));
+        assertEquals(List.of("Product 3", "Product 6"),
+                names(index.forProduct(1, T0.plusMinutes(3), T0.plusMinutes(9))));
+        assertEquals(List.of("Product 6", "Product 9"), names(index.forProduct(1, null, null, 2)));
+        assertTrue(index.forProduct(0, null, null).isEmpty());
+        assertTrue(index.forProduct(4, null, null).isEmpty());
+        assertTrue(index.forProduct(Integer.MAX_VALUE, null, null).isEmpty());
+    }
+}
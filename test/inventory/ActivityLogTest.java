@@ -0,0 +1,44 @@
+package inventory;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ActivityLogTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void flushWaitsForAppendedEntries() throws IOException {
+        Path file = dir.resolve("log.txt");
+        try (ActivityLog log = new ActivityLog(file, 4, 1000, 60_000, false)) {
+            for (int i = 0; i < 50; i++) {
+                log.append("entry " + i + "\n");
+            }
+            log.flush();
+            assertEquals(50, Files.readAllLines(file, StandardCharsets.UTF_8).size());
+        }
+    }
+
+    @Test
+    void stoppedWriterFailsFast() throws Exception {
+        // A directory cannot be opened for appending, so the writer dies at startup.
+        ActivityLog log = new ActivityLog(dir, 2, 1, 10, false);
+        Thread.sleep(200);
+
+        IllegalStateException refused = assertThrows(IllegalStateException.class, () -> {
+            for (int i = 0; i < 10; i++) {
+                log.append("entry " + i + "\n"); // would block forever once the queue is full
+            }
+        });
+        assertInstanceOf(IOException.class, refused.getCause());
+        log.flush(); // nothing was accepted, so nothing is owed
+        log.close();
+    }
+}
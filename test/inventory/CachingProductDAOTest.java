@@ -0,0 +1,112 @@
+package inventory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingProductDAOTest {
+    // Serves lookups from an in-memory table and counts how often the cache had to load.
+    private static class FakeDAO extends CachingProductDAO {
+        final Map<Integer, Product> rows = new TreeMap<>();
+        int idLoads;
+        int nameShadeLoads;
+        Runnable duringLoad;
+
+        FakeDAO() {
+            super(100, 60_000);
+        }
+
+        @Override
+        Product loadById(int id) {
+            idLoads++;
+            if (duringLoad != null) duringLoad.run();
+            return rows.get(id);
+        }
+
+        @Override
+        int[] findIdsByNameAndShade(String name, String shade) {
+            nameShadeLoads++;
+            if (duringLoad != null) duringLoad.run();
+            List<Integer> ids = new ArrayList<>();
+            for (Product p : rows.values()) {
+                if (p.getName().equalsIgnoreCase(name) && p.getShade().equalsIgnoreCase(shade)) ids.add(p.getId());
+            }
+            return ids.stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    @Test
+    void renameDropsOldAndNewNameShadeKeys() {
+        FakeDAO dao = new FakeDAO();
+        dao.rows.put(1, new Product(1, "Velvet Rose", "Lipstick", "001", 12.5, 3));
+        assertTrue(dao.existsByNameAndShade("Velvet Rose", "001", null));
+        assertFalse(dao.existsByNameAndShade("Ruby Kiss", "002", null));
+        assertEquals(2, dao.nameShadeLoads);
+
+        Product renamed = new Product(1, "Ruby Kiss", "Lipstick", "002", 12.5, 3);
+        dao.rows.put(1, renamed);
+        dao.invalidate(1, renamed); // what updateProduct does after the write
+
+        assertFalse(dao.existsByNameAndShade("velvet rose", "001", null));
+        assertTrue(dao.existsByNameAndShade("RUBY KISS", "002", null));
+        assertEquals(4, dao.nameShadeLoads);
+    }
+
+    @Test
+    void cachedNoneIsDroppedAfterAdd() {
+        FakeDAO dao = new FakeDAO();
+        assertFalse(dao.existsByNameAndShade("Glow", "003", null));
+        assertFalse(dao.existsByNameAndShade("Glow", "003", null));
+        assertEquals(1, dao.nameShadeLoads);
+
+        Product added = new Product(5, "Glow", "Blush", "003", 9, 2);
+        dao.rows.put(5, added);
+        dao.invalidate(added.getId(), added);
+
+        assertTrue(dao.existsByNameAndShade("Glow", "003", null));
+        assertFalse(dao.existsByNameAndShade("Glow", "003", 5));
+        assertEquals(2, dao.nameShadeLoads);
+    }
+
+    @Test
+    void loadThatRacesWithInvalidationIsNotCached() {
+        FakeDAO dao = new FakeDAO();
+        dao.rows.put(1, new Product(1, "Matte", "Blush", "002", 5, 1));
+        dao.duringLoad = () -> dao.invalidate(1, null);
+        assertNotNull(dao.findById(1));
+        assertTrue(dao.existsByNameAndShade("Matte", "002", null));
+
+        dao.duringLoad = null;
+        assertNotNull(dao.findById(1));
+        assertTrue(dao.existsByNameAndShade("Matte", "002", null));
+        assertEquals(2, dao.idLoads);
+        assertEquals(2, dao.nameShadeLoads);
+
+        // With nothing racing, the second load was cached.
+        assertNotNull(dao.findById(1));
+        assertTrue(dao.existsByNameAndShade("Matte", "002", null));
+        assertEquals(2, dao.idLoads);
+        assertEquals(2, dao.nameShadeLoads);
+    }
+
+    @Test
+    void statsAreReportedByTheRegistry() {
+        FakeDAO dao = new FakeDAO();
+        dao.rows.put(1, new Product(1, "Matte", "Blush", "002", 5, 1));
+        dao.findById(1);
+        dao.findById(1);
+
+        CachingProductDAO.Stats stats = dao.getStats();
+        assertEquals(1, stats.hits);
+        assertEquals(1, stats.misses);
+        assertEquals(1, stats.entries);
+        assertTrue(MetricsRegistry.get().getCacheStatsIfStarted().hits >= 1);
+        assertTrue(MetricsRegistry.get().getReport().contains("Cache: "));
+        assertFalse(MetricsRegistry.get().getCacheStats().isEmpty());
+    }
+}
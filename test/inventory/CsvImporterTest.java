@@ -0,0 +1,114 @@
+package inventory;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvImporterTest {
+    @TempDir
+    Path dir;
+
+    // Takes every parsed row instead of inserting it.
+    private static class CollectingDAO extends ProductDAO {
+        final List<Product> rows = new ArrayList<>();
+
+        @Override
+        public void importProducts(Iterator<Product> rows, int chunkSize, ImportResult result) {
+            rows.forEachRemaining(this.rows::add);
+            result.addInserted(this.rows.size());
+        }
+    }
+
+    private ImportResult importLines(CollectingDAO dao, String... lines) throws Exception {
+        Path file = dir.resolve("import.csv");
+        Files.write(file, List.of(lines), StandardCharsets.UTF_8);
+        return new CsvImporter(dao, 10).importFile(file);
+    }
+
+    @Test
+    void splitsPlainFields() {
+        assertEquals(List.of("1", "Velvet Rose", "Lipstick", "001", "12.50", "3"),
+                CsvImporter.splitCsv("1,Velvet Rose,Lipstick,001,12.50,3"));
+        assertEquals(List.of("", "a", ""), CsvImporter.splitCsv(",a,"));
+        assertEquals(List.of(""), CsvImporter.splitCsv(""));
+    }
+
+    @Test
+    void keepsCommasInsideQuotes() {
+        assertEquals(List.of("1", "Rose, Velvet", "Lipstick"), CsvImporter.splitCsv("1,\"Rose, Velvet\",Lipstick"));
+    }
+
+    @Test
+    void unescapesDoubledQuotes() {
+        assertEquals(List.of("The \"Red\" One", "x"), CsvImporter.splitCsv("\"The \"\"Red\"\" One\",x"));
+        assertEquals(List.of("\"", ""), CsvImporter.splitCsv("\"\"\"\","));
+    }
+
+    @Test
+    void unterminatedQuoteRunsToEndOfLine() {
+        assertEquals(List.of("1", "Rose,Lipstick,001"), CsvImporter.splitCsv("1,\"Rose,Lipstick,001"));
+    }
+
+    @Test
+    void importSkipsHeaderAndBlankLines() throws Exception {
+        CollectingDAO dao = new CollectingDAO();
+        ImportResult r = importLines(dao,
+                "id,name,category,shade,price,no_of_items",
+                "1,Velvet Rose,Lipstick,001,12.50,3",
+                "",
+                "   ",
+                "2,\"Glow, Deluxe\",Blush,003, 9.00 , 2 ");
+
+        assertEquals(0, r.getRejected());
+        assertEquals(2, dao.rows.size());
+        assertTrue(new Product("Velvet Rose", "Lipstick", "001", 12.5, 3).sameValues(dao.rows.get(0)));
+        assertTrue(new Product("Glow, Deluxe", "Blush", "003", 9, 2).sameValues(dao.rows.get(1)));
+    }
+
+    @Test
+    void rejectedLinesAreCountedWithLineNumbers() throws Exception {
+        CollectingDAO dao = new CollectingDAO();
+        ImportResult r = importLines(dao,
+                "id,name,category,shade,price,no_of_items",
+                "1,Velvet Rose,Lipstick,001",
+                "",
+                "2,,Lipstick,001,12.50,3",
+                "3,Matte,Blush,002,cheap,1",
+                "4,Matte,Blush,002,-1,1",
+                "5,\"Matte,Blush,002,5,1",
+                "6,Matte,Blush,002,5,1");
+
+        assertEquals(5, r.getRejected());
+        assertEquals(1, dao.rows.size());
+        assertEquals(List.of(
+                "line 2: expected 6 columns, found 4",
+                "line 4: name, category and shade are required",
+                "line 5: bad price or item count",
+                "line 6: price and item count must be non-negative",
+                "line 7: expected 6 columns, found 2"), r.getRejectSamples());
+    }
+
+    @Test
+    void rejectSamplesAreCappedButAllAreCounted() throws Exception {
+        List<String> lines = new ArrayList<>();
+        lines.add("id,name,category,shade,price,no_of_items");
+        for (int i = 0; i < 50; i++) lines.add("bad line " + i);
+        lines.add("1,Velvet Rose,Lipstick,001,12.50,3");
+        CollectingDAO dao = new CollectingDAO();
+        ImportResult r = importLines(dao, lines.toArray(new String[0]));
+
+        assertEquals(50, r.getRejected());
+        assertEquals(20, r.getRejectSamples().size());
+        assertEquals("line 2: expected 6 columns, found 1", r.getRejectSamples().get(0));
+        assertEquals("line 21: expected 6 columns, found 1", r.getRejectSamples().get(19));
+        assertEquals(1, dao.rows.size());
+    }
+}
@@ -0,0 +1,104 @@
+package inventory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InventoryAggregatesTest {
+
+    // Recomputes every total from scratch and compares with the running aggregates.
+    private static void assertMatchesScan(InventoryAggregates aggregates, Map<Integer, Product> products) {
+        long items = 0;
+        long cents = 0;
+        double min = Double.MAX_VALUE;
+        double max = -Double.MAX_VALUE;
+        Map<String, long[]> byCategory = new HashMap<>();
+        for (Product p : products.values()) {
+            long value = Math.round(p.getPrice() * 100) * p.getNoOfItems();
+            items += p.getNoOfItems();
+            cents += value;
+            min = Math.min(min, p.getPrice());
+            max = Math.max(max, p.getPrice());
+            long[] t = byCategory.computeIfAbsent(p.getCategory().toLowerCase(), k -> new long[3]);
+            t[0]++;
+            t[1] += p.getNoOfItems();
+            t[2] += value;
+        }
+        assertEquals(products.size(), aggregates.getProductCount());
+        assertEquals(items, aggregates.getTotalItems());
+        assertEquals(cents / 100.0, aggregates.getTotalValue());
+        assertEquals(products.isEmpty() ? 0 : min, aggregates.getMinPrice());
+        assertEquals(products.isEmpty() ? 0 : max, aggregates.getMaxPrice());
+
+        assertEquals(byCategory.size(), aggregates.getByCategory().size());
+        for (Map.Entry<String, long[]> e : byCategory.entrySet()) {
+            ProductSummary s = aggregates.summary(e.getKey().toUpperCase());
+            assertEquals(e.getValue()[0], s.getProducts(), e.getKey());
+            assertEquals(e.getValue()[1], s.getItems(), e.getKey());
+            assertEquals(e.getValue()[2] / 100.0, s.getValue(), e.getKey());
+        }
+    }
+
+    @Test
+    void runningTotalsMatchScan() {
+        Random random = new Random(6);
+        InventoryAggregates aggregates = new InventoryAggregates();
+        Map<Integer, Product> products = new HashMap<>();
+        for (int step = 0; step < 20_000; step++) {
+            int id = 1 + random.nextInt(500);
+            Product old = products.get(id);
+            int op = random.nextInt(3);
+            if (old == null) {
+                Product p = TestProducts.random(random, id);
+                aggregates.add(p);
+                products.put(id, p);
+            } else if (op == 0) {
+                aggregates.remove(old);
+                products.remove(id);
+            } else {
+                Product p = TestProducts.random(random, id);
+                aggregates.replace(old, p);
+                products.put(id, p);
+            }
+            if (step % 1000 == 0) assertMatchesScan(aggregates, products);
+        }
+        assertMatchesScan(aggregates, products);
+
+        for (Product p : products.values()) aggregates.remove(p);
+        products.clear();
+        assertMatchesScan(aggregates, products);
+    }
+
+    @Test
+    void centsDoNotDrift() {
+        InventoryAggregates aggregates = new InventoryAggregates();
+        for (int i = 0; i < 1000; i++) {
+            aggregates.add("Blush", 0.1, 3);
+            aggregates.remove("Blush", 0.1, 3);
+        }
+        aggregates.add("Blush", 0.1, 3);
+        assertEquals(0.3, aggregates.getTotalValue());
+        assertEquals(0.3, aggregates.summary("blush").getValue());
+    }
+
+    @Test
+    void emptyCategoriesDisappear() {
+        InventoryAggregates aggregates = new InventoryAggregates();
+        aggregates.add("Lipstick", 5, 2);
+        aggregates.add("Blush", 7, 1);
+        aggregates.remove("lipstick", 5, 2);
+
+        assertEquals(1, aggregates.getByCategory().size());
+        assertEquals(0, aggregates.summary("Lipstick").getProducts());
+        assertEquals(7, aggregates.getMinPrice());
+        assertEquals(7, aggregates.getMaxPrice());
+
+        aggregates.clear();
+        assertEquals(0, aggregates.getProductCount());
+        assertEquals(0, aggregates.getMaxPrice());
+    }
+}
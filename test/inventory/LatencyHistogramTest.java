@@ -0,0 +1,75 @@
+package inventory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void bucketsRoundTripWithinPrecision() {
+        for (long v = 0; v < 64; v++) {
+            assertEquals(v, LatencyHistogram.valueOf(LatencyHistogram.bucketOf(v)));
+        }
+        Random random = new Random(8);
+        for (int i = 0; i < 100_000; i++) {
+            long v = random.nextLong() >>> (1 + random.nextInt(63));
+            long back = LatencyHistogram.valueOf(LatencyHistogram.bucketOf(v));
+            assertTrue(Math.abs(back - v) <= v / 64, v + " came back as " + back);
+        }
+        assertTrue(LatencyHistogram.bucketOf(Long.MAX_VALUE) > LatencyHistogram.bucketOf(Long.MAX_VALUE / 2));
+    }
+
+    @Test
+    void percentilesMatchSortedValues() {
+        Random random = new Random(9);
+        LatencyHistogram histogram = new LatencyHistogram();
+        long[] values = new long[50_000];
+        long sum = 0;
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long) Math.exp(8 + 3 * random.nextGaussian()); // spans nanoseconds to seconds
+            histogram.record(values[i]);
+            sum += values[i];
+        }
+        Arrays.sort(values);
+
+        assertEquals(values.length, histogram.getCount());
+        assertEquals(sum, histogram.getTotalNanos());
+        assertEquals(values[values.length - 1], histogram.getMaxNanos());
+        for (double q : new double[]{0.0, 0.5, 0.9, 0.99, 0.999, 1.0}) {
+            long exact = values[(int) Math.max(0, Math.ceil(q * values.length) - 1)];
+            long reported = histogram.percentile(q);
+            assertTrue(Math.abs(reported - exact) <= exact * 0.016 + 1, q + ": " + reported + " vs " + exact);
+        }
+    }
+
+    @Test
+    void addResetAndConcurrentRecording() throws InterruptedException {
+        LatencyHistogram shared = new LatencyHistogram();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 1; i <= 100_000; i++) shared.record(i);
+            });
+            threads[t].start();
+        }
+        for (Thread t : threads) t.join();
+        assertEquals(400_000, shared.getCount());
+        assertEquals(4 * 100_000L * 100_001 / 2, shared.getTotalNanos());
+        assertEquals(100_000, shared.getMaxNanos());
+
+        LatencyHistogram total = new LatencyHistogram();
+        total.record(-5); // clamped to zero
+        total.add(shared);
+        assertEquals(400_001, total.getCount());
+        assertEquals(0, total.percentile(0.000001));
+
+        total.reset();
+        assertEquals(0, total.getCount());
+        assertEquals(0, total.percentile(0.5));
+        assertEquals(0, total.getMeanNanos());
+    }
+}
@@ -0,0 +1,47 @@
+package inventory;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LruCacheTest {
+    @Test
+    void evictsLeastRecentlyUsed() {
+        LruCache<Integer, String> cache = new LruCache<>(2, 60_000);
+        cache.put(1, "a");
+        cache.put(2, "b");
+        assertEquals("a", cache.get(1)); // 2 is now the eldest
+        cache.put(3, "c");
+
+        assertNull(cache.get(2));
+        assertEquals("a", cache.get(1));
+        assertEquals("c", cache.get(3));
+        assertEquals(1, cache.getEvictions());
+        assertEquals(3, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    void expiredEntriesAreMisses() {
+        LruCache<Integer, String> cache = new LruCache<>(10, 0);
+        cache.put(1, "a");
+
+        assertNull(cache.get(1));
+        assertEquals(1, cache.getExpirations());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void removeIfDropsMatchingEntries() {
+        LruCache<String, int[]> cache = new LruCache<>(10, 60_000);
+        cache.put("rose", new int[] {1, 4});
+        cache.put("ruby", new int[] {2});
+        cache.put("glow", new int[0]);
+
+        cache.removeIf((key, ids) -> ids.length > 0 && ids[0] == 1);
+
+        assertNull(cache.get("rose"));
+        assertNotNull(cache.get("ruby"));
+        assertNotNull(cache.get("glow"));
+    }
+}
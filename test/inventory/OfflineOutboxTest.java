@@ -0,0 +1,175 @@
+package inventory;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OfflineOutboxTest {
+    @TempDir
+    Path dir;
+
+    // An in-memory products table; calls are recorded, and the one numbered crashAt dies mid-replay.
+    private static class FakeDAO extends ProductDAO {
+        final Map<Integer, Product> rows = new TreeMap<>();
+        final List<String> calls = new ArrayList<>();
+        int nextId = 100;
+        int crashAt = -1;
+
+        private void call(String what) {
+            calls.add(what);
+            if (calls.size() == crashAt) throw new AssertionError("simulated crash");
+        }
+
+        @Override
+        public WriteResult addProduct(Product p) {
+            call("add " + p.getName());
+            Product added = new Product(nextId++, p.getName(), p.getCategory(), p.getShade(), p.getPrice(), p.getNoOfItems());
+            rows.put(added.getId(), added);
+            return WriteResult.ok(added);
+        }
+
+        @Override
+        Product loadById(int id) {
+            return rows.get(id);
+        }
+
+        @Override
+        public WriteResult updateProduct(Product p) {
+            call("update " + p.getId());
+            if (!rows.containsKey(p.getId())) return WriteResult.notFound();
+            rows.put(p.getId(), p);
+            return WriteResult.ok(p);
+        }
+
+        @Override
+        public WriteResult adjustStock(int id, int delta) {
+            call("stock " + id + " " + delta);
+            Product old = rows.get(id);
+            if (old == null) return WriteResult.notFound();
+            Product p = new Product(id, old.getName(), old.getCategory(), old.getShade(), old.getPrice(), old.getNoOfItems() + delta);
+            rows.put(id, p);
+            return WriteResult.ok(p);
+        }
+
+        @Override
+        public WriteResult deleteProduct(int id) {
+            call("delete " + id);
+            Product old = rows.remove(id);
+            return old == null ? WriteResult.notFound() : WriteResult.ok(old);
+        }
+    }
+
+    private OfflineOutbox open() throws IOException {
+        return new OfflineOutbox(dir.resolve("outbox.bin"), dir.resolve("conflicts.txt"));
+    }
+
+    private static final Product PENDING = new Product(-1, "Velvet Rose", "Lipstick", "001", 12.5, 10);
+    private static final Product RENAMED = new Product(-1, "Velvet Rouge", "Lipstick", "001", 12.5, 10);
+
+    // An offline add, then an update and a sale of the same not-yet-numbered product.
+    private OfflineOutbox queueAddUpdateSale() throws IOException {
+        OfflineOutbox outbox = open();
+        outbox.append(OfflineOutbox.Entry.add(PENDING));
+        outbox.append(OfflineOutbox.Entry.update(PENDING, RENAMED));
+        outbox.append(OfflineOutbox.Entry.stock(RENAMED, -3));
+        return outbox;
+    }
+
+    @Test
+    void entriesSurviveReopenAndTornTailIsCut() throws IOException {
+        queueAddUpdateSale();
+        Path file = dir.resolve("outbox.bin");
+        long valid = Files.size(file);
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ch.write(ByteBuffer.wrap(new byte[]{0, 0, 0, 50, 1, 2, 3})); // a record cut off mid-write
+        }
+
+        OfflineOutbox reopened = open();
+
+        assertEquals(3, reopened.size());
+        assertEquals(valid, Files.size(file));
+        List<OfflineOutbox.Entry> entries = reopened.entries();
+        assertEquals(OfflineOutbox.Op.STOCK, entries.get(2).getOp());
+        assertEquals(-3, entries.get(2).getDelta());
+        assertTrue(RENAMED.sameValues(entries.get(1).getAfter()));
+    }
+
+    @Test
+    void corruptRecordEndsTheQueue() throws IOException {
+        queueAddUpdateSale();
+        Path file = dir.resolve("outbox.bin");
+        byte[] bytes = Files.readAllBytes(file);
+        int second = 4 + ByteBuffer.wrap(bytes).getInt() + 4;
+        bytes[second + 10] ^= 0x40; // flips a bit inside the second record's payload
+        Files.write(file, bytes);
+
+        assertEquals(1, open().size());
+        assertEquals(second, Files.size(file));
+    }
+
+    @Test
+    void replayMapsPendingIdsToTheDatabaseId() throws IOException {
+        OfflineOutbox outbox = queueAddUpdateSale();
+        FakeDAO dao = new FakeDAO();
+
+        OfflineOutbox.Replay replay = outbox.replay(dao);
+
+        assertEquals(List.of("add Velvet Rose", "update 100", "stock 100 -3"), dao.calls);
+        assertEquals(3, replay.getApplied().size());
+        assertTrue(replay.getConflicts().isEmpty());
+        assertEquals(7, dao.rows.get(100).getNoOfItems());
+        assertEquals(0, outbox.size());
+        assertEquals(0, Files.size(dir.resolve("outbox.bin")));
+    }
+
+    @Test
+    void crashDuringReplayResendsNothingThatWasDone() throws IOException {
+        OfflineOutbox outbox = queueAddUpdateSale();
+        FakeDAO dao = new FakeDAO();
+        dao.crashAt = 3; // dies inside the sale, after the add and update were recorded as done
+
+        assertThrows(AssertionError.class, () -> outbox.replay(dao));
+
+        OfflineOutbox reopened = open();
+        assertEquals(1, reopened.size());
+        assertEquals(100, reopened.entries().get(0).getId()); // the pending id survived the restart as 100
+
+        dao.crashAt = -1;
+        dao.calls.clear();
+        OfflineOutbox.Replay replay = reopened.replay(dao);
+        assertEquals(List.of("stock 100 -3"), dao.calls);
+        assertEquals(1, replay.getApplied().size());
+        assertEquals("Velvet Rouge", dao.rows.get(100).getName());
+    }
+
+    @Test
+    void changesToAnAddThatWasRefusedAreConflicts() throws IOException {
+        OfflineOutbox outbox = queueAddUpdateSale();
+        FakeDAO dao = new FakeDAO() {
+            @Override
+            public WriteResult addProduct(Product p) {
+                calls.add("add " + p.getName());
+                return WriteResult.duplicate();
+            }
+        };
+
+        OfflineOutbox.Replay replay = outbox.replay(dao);
+
+        assertEquals(List.of("add Velvet Rose"), dao.calls);
+        assertEquals(3, replay.getConflicts().size());
+        assertEquals(3, Files.readAllLines(dir.resolve("conflicts.txt")).size());
+        assertEquals(0, open().size());
+    }
+}
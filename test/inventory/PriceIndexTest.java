@@ -0,0 +1,96 @@
+package inventory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PriceIndexTest {
+    private static final Double[] BOUNDS = {null, 0.0, -0.0, 0.5, 3.0, 7.25, 10.0, 99.0};
+
+    // Brute force: slot -> price, scanned in full for every query.
+    private static void assertMatchesScan(PriceIndex index, TreeMap<Integer, Double> expected, int slotCount) {
+        assertEquals(expected.size(), index.size());
+        for (Double min : BOUNDS) {
+            for (Double max : BOUNDS) {
+                List<Integer> bySlot = new ArrayList<>();
+                for (var e : expected.entrySet()) {
+                    double price = e.getValue();
+                    if ((min == null || price >= min) && (max == null || price <= max)) bySlot.add(e.getKey());
+                }
+                String range = min + ".." + max;
+                assertEquals(bySlot.size(), index.count(min, max), range);
+
+                int[] slots = index.rangeInSlotOrder(min, max, slotCount);
+                List<Integer> got = new ArrayList<>();
+                for (int slot : slots) got.add(slot);
+                assertEquals(bySlot, got, range);
+
+                int[] byPrice = index.range(min, max);
+                assertEquals(bySlot.size(), byPrice.length, range);
+                for (int i = 1; i < byPrice.length; i++) {
+                    int cmp = Double.compare(expected.get(byPrice[i - 1]), expected.get(byPrice[i]));
+                    assertTrue(cmp < 0 || cmp == 0 && byPrice[i - 1] < byPrice[i], range);
+                }
+            }
+        }
+    }
+
+    private static double price(Random random) {
+        return random.nextInt(5) == 0 ? 0.0 : random.nextInt(1000) / 100.0;
+    }
+
+    @Test
+    void rebuildMatchesScan() {
+        Random random = new Random(4);
+        int n = 5000;
+        int[] slots = new int[n];
+        double[] prices = new double[n];
+        TreeMap<Integer, Double> expected = new TreeMap<>();
+        for (int i = 0; i < n; i++) {
+            slots[i] = n - 1 - i;
+            prices[i] = price(random);
+            expected.put(slots[i], prices[i]);
+        }
+        PriceIndex index = new PriceIndex();
+        index.rebuild(slots, prices, n);
+
+        assertMatchesScan(index, expected, n);
+        assertEquals(0.0, index.minPrice());
+        assertEquals(expected.values().stream().mapToDouble(Double::doubleValue).max().orElseThrow(), index.maxPrice());
+    }
+
+    @Test
+    void addsAndRemovesMatchScan() {
+        Random random = new Random(5);
+        int slotCount = 300;
+        PriceIndex index = new PriceIndex();
+        TreeMap<Integer, Double> expected = new TreeMap<>();
+        for (int step = 0; step < 5000; step++) {
+            int slot = random.nextInt(slotCount);
+            Double old = expected.remove(slot);
+            if (old != null) {
+                index.remove(slot, old);
+            } else {
+                double price = price(random);
+                index.add(slot, price);
+                expected.put(slot, price);
+            }
+            if (step % 500 == 0) assertMatchesScan(index, expected, slotCount);
+        }
+        assertMatchesScan(index, expected, slotCount);
+    }
+
+    @Test
+    void emptyIndex() {
+        PriceIndex index = new PriceIndex();
+        index.rebuild(new int[0], new double[0], 0);
+        assertEquals(0, index.size());
+        assertArrayEquals(new int[0], index.rangeInSlotOrder(null, null, 0));
+        assertEquals(0, index.minPrice());
+    }
+}
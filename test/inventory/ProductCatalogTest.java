@@ -0,0 +1,130 @@
+package inventory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** ProductCatalog.filter and summarize against a brute-force ProductFilter.matches scan. */
+class ProductCatalogTest {
+    private static final String[] KEYS = {null, "", "ro", "velvet", "äö", "001", "lip", "e b", "zz"};
+    private static final String[] CATEGORIES = {null, "Lipstick", "blush"};
+    private static final Double[][] PRICES = {{null, null}, {10.0, 50.0}, {null, 5.0}, {150.0, null}, {60.0, 40.0}};
+
+    static void assertMatchesScan(ProductCatalog catalog, Map<Integer, Product> expected) {
+        for (String key : KEYS) {
+            for (String category : CATEGORIES) {
+                for (Double[] price : PRICES) {
+                    ProductFilter filter = new ProductFilter(key, category, price[0], price[1]);
+                    List<Integer> want = new ArrayList<>();
+                    long items = 0;
+                    for (Product p : expected.values()) {
+                        if (filter.matches(p)) {
+                            want.add(p.getId());
+                            items += p.getNoOfItems();
+                        }
+                    }
+                    int[] slots = catalog.filter(filter);
+                    List<Integer> got = new ArrayList<>();
+                    for (int i = 0; i < slots.length; i++) {
+                        if (i > 0) assertTrue(slots[i - 1] < slots[i], "slots out of order for " + describe(filter));
+                        got.add(catalog.get(slots[i]).getId());
+                    }
+                    got.sort(null);
+                    assertEquals(want, got, describe(filter));
+
+                    ProductSummary summary = catalog.summarize(filter, slots);
+                    assertEquals(want.size(), summary.getProducts(), describe(filter));
+                    assertEquals(items, summary.getItems(), describe(filter));
+                }
+            }
+        }
+    }
+
+    private static String describe(ProductFilter f) {
+        return f.getSearchKey() + "/" + f.getCategory() + "/" + f.getMinPrice() + ".." + f.getMaxPrice();
+    }
+
+    @Test
+    void filterMatchesScanAfterLoad() {
+        List<Product> products = TestProducts.list(new Random(2), 5000);
+        ProductCatalog catalog = new ProductCatalog();
+        catalog.load(products);
+        Map<Integer, Product> expected = new TreeMap<>();
+        for (Product p : products) expected.put(p.getId(), p);
+
+        assertEquals(expected.size(), catalog.size());
+        assertMatchesScan(catalog, expected);
+    }
+
+    @Test
+    void filterMatchesScanAfterAddsUpdatesAndRemoves() {
+        Random random = new Random(3);
+        List<Product> products = TestProducts.list(random, 4000);
+        ProductCatalog catalog = new ProductCatalog();
+        catalog.load(products);
+        Map<Integer, Product> expected = new TreeMap<>();
+        for (Product p : products) expected.put(p.getId(), p);
+
+        int nextId = products.size() + 1;
+        int generation = catalog.getGeneration();
+        for (int step = 0; step < 20_000; step++) {
+            int op = random.nextInt(5);
+            if (op == 0) {
+                Product p = TestProducts.random(random, nextId++);
+                catalog.add(p);
+                expected.put(p.getId(), p);
+            } else if (op == 1) {
+                int id = 1 + random.nextInt(nextId - 1);
+                Product p = TestProducts.random(random, id);
+                assertEquals(expected.containsKey(id), catalog.update(p));
+                if (expected.containsKey(id)) expected.put(id, p);
+            } else {
+                int id = 1 + random.nextInt(nextId - 1);
+                Product removed = catalog.remove(id);
+                assertEquals(expected.remove(id) != null, removed != null);
+            }
+        }
+        assertTrue(catalog.getGeneration() > generation, "heavy removal should have compacted the catalog");
+        assertEquals(expected.size(), catalog.size());
+        for (Product p : expected.values()) {
+            Product stored = catalog.getById(p.getId());
+            assertNotNull(stored);
+            assertTrue(p.sameValues(stored));
+        }
+        assertMatchesScan(catalog, expected);
+    }
+
+    @Test
+    void parallelFilterMatchesSequential() {
+        List<Product> products = TestProducts.list(new Random(11), 100_000);
+        ProductCatalog sequential = new ProductCatalog(Integer.MAX_VALUE, ForkJoinPool.commonPool());
+        sequential.load(products);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            ProductCatalog parallel = new ProductCatalog(1, pool);
+            parallel.load(products);
+            for (int id = 1; id <= products.size(); id += 7) parallel.remove(id); // leave empty slots behind
+            for (int id = 1; id <= products.size(); id += 7) sequential.remove(id);
+
+            long stolenBefore = pool.getStealCount();
+            for (String key : KEYS) {
+                for (String category : CATEGORIES) {
+                    for (Double[] price : PRICES) {
+                        ProductFilter filter = new ProductFilter(key, category, price[0], price[1]);
+                        assertArrayEquals(sequential.filter(filter), parallel.filter(filter), describe(filter));
+                    }
+                }
+            }
+            assertTrue(pool.getStealCount() > stolenBefore, "the filters should have been split across workers");
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package inventory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductStoreTest {
+    private static final int INITIAL_CAPACITY = 32;
+
+    // The first count ids (searching upward from 1) whose home cell in a fresh index is home.
+    private static List<Integer> idsHomedAt(int home, int count) {
+        List<Integer> ids = new ArrayList<>();
+        for (int id = 1; ids.size() < count; id++) {
+            if ((ProductStore.IdIndex.mix(id) & (INITIAL_CAPACITY - 1)) == home) ids.add(id);
+        }
+        return ids;
+    }
+
+    @Test
+    void removalKeepsChainsThatWrapAroundTheTable() {
+        // Five ids homed at the last cell fill it and wrap into cells 0..3; two homed at 0 queue behind them.
+        List<Integer> last = idsHomedAt(INITIAL_CAPACITY - 1, 5);
+        List<Integer> first = idsHomedAt(0, 2);
+        for (int removeAt = 0; removeAt < last.size() + first.size(); removeAt++) {
+            ProductStore.IdIndex index = new ProductStore.IdIndex();
+            List<Integer> all = new ArrayList<>(last);
+            all.addAll(first);
+            for (int i = 0; i < all.size(); i++) index.put(all.get(i), i);
+
+            int removed = all.get(removeAt);
+            index.remove(removed);
+
+            assertEquals(all.size() - 1, index.size());
+            assertEquals(-1, index.get(removed));
+            for (int i = 0; i < all.size(); i++) {
+                if (i != removeAt) assertEquals(i, index.get(all.get(i)), "id " + all.get(i) + " after removing " + removed);
+            }
+        }
+    }
+
+    @Test
+    void idIndexMatchesHashMap() {
+        Random random = new Random(10);
+        ProductStore.IdIndex index = new ProductStore.IdIndex();
+        Map<Integer, Integer> expected = new HashMap<>();
+        for (int step = 0; step < 200_000; step++) {
+            int id = random.nextInt(4000) - 1000;
+            if (id == 0) continue;
+            if (random.nextInt(3) == 0) {
+                index.remove(id);
+                expected.remove(id);
+            } else {
+                index.put(id, step);
+                expected.put(id, step);
+            }
+        }
+        assertEquals(expected.size(), index.size());
+        for (int id = -1000; id < 3000; id++) {
+            if (id == 0) continue;
+            assertEquals(expected.getOrDefault(id, -1).intValue(), index.get(id), "id " + id);
+        }
+    }
+
+    @Test
+    void removedSlotsAreEmptyAndIdsCanComeBack() {
+        ProductStore store = new ProductStore();
+        Product velvet = new Product(5, "Velvet", "Lipstick", "001", 12.5, 3);
+        Product pending = new Product(-1, "Matte", "Blush", "002", 4, 1);
+        int a = store.append(velvet);
+        int b = store.append(pending);
+        assertEquals(a, store.slotOf(5));
+        assertEquals(b, store.slotOf(-1));
+        assertTrue(velvet.sameValues(store.get(a)));
+
+        store.clear(a);
+        assertNull(store.get(a));
+        assertEquals(-1, store.slotOf(5));
+
+        int again = store.append(velvet);
+        assertNotEquals(a, again);
+        assertEquals(again, store.slotOf(5));
+        assertThrows(IllegalArgumentException.class, () -> store.append(new Product(0, "x", "y", "z", 1, 1)));
+    }
+}
@@ -0,0 +1,105 @@
+package inventory;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecoveryEngineTest {
+    @TempDir
+    Path dir;
+
+    // Records restores instead of touching a database.
+    private static class RecordingDAO extends ProductDAO {
+        final List<List<Product>> restores = new ArrayList<>();
+
+        @Override
+        public void replaceAllProducts(Collection<Product> products) {
+            restores.add(new ArrayList<>(products));
+        }
+    }
+
+    private Path log(String... lines) throws IOException {
+        Path log = dir.resolve("log.txt");
+        Files.write(log, List.of(lines), StandardCharsets.UTF_8);
+        return log;
+    }
+
+    private Path snapshot(Product... products) throws IOException {
+        Path snapshots = dir.resolve("snapshots");
+        Files.createDirectories(snapshots);
+        Map<Integer, Product> byId = new TreeMap<>();
+        for (Product p : products) byId.put(p.getId(), p);
+        new InventorySnapshot(0, System.currentTimeMillis(), byId).write(snapshots.resolve("inventory-0000000000000000.snap"));
+        return snapshots;
+    }
+
+    @Test
+    void restoreWithoutSnapshotLeavesTableUntouched() throws Exception {
+        Path log = log("2025-12-11 21:21:53 | ADDED | ID:8 | Velvet Rose | Lipstick | Shade:001 | Price:12.50 | Items:3");
+        RecordingDAO dao = new RecordingDAO();
+        RecoveryEngine engine = new RecoveryEngine(log, dir.resolve("snapshots"), dao);
+
+        assertThrows(IllegalStateException.class, engine::restoreDatabase);
+        assertTrue(dao.restores.isEmpty());
+    }
+
+    @Test
+    void restoreWithSkippedEntriesLeavesTableUntouched() throws Exception {
+        Path log = log("2025-12-11 21:21:53 | ADDED | ID:0 | Velvet Rose | Lipstick | Shade:001 | Price:12.50 | Items:3");
+        RecordingDAO dao = new RecordingDAO();
+        RecoveryEngine engine = new RecoveryEngine(log, snapshot(new Product(1, "Matte", "Blush", "002", 5, 1)), dao);
+
+        assertThrows(IllegalStateException.class, engine::restoreDatabase);
+        assertTrue(dao.restores.isEmpty());
+    }
+
+    @Test
+    void restoreWithUnreadableLinesLeavesTableUntouched() throws Exception {
+        Path log = log(
+                "2025-12-11 21:21:53 | ADDED | ID:8 | Velvet Rose | Lipstick | Shade:001 | Price:12,50 | Items:3",
+                "",
+                "2025-12-11 21:22:00 | UPDATED | ID:1 | Matte | Blush | Shade:002 | Price:6.00 | Items:4");
+        RecordingDAO dao = new RecordingDAO();
+        RecoveryEngine engine = new RecoveryEngine(log, snapshot(new Product(1, "Matte", "Blush", "002", 5, 1)), dao);
+
+        RecoveryEngine.Result r = engine.recover();
+        assertEquals(1, r.getReplayed());
+        assertEquals(1, r.getUnreadable());
+        assertThrows(IllegalStateException.class, engine::restoreDatabase);
+        assertTrue(dao.restores.isEmpty());
+    }
+
+    @Test
+    void restoreReplaysLogOverSnapshot() throws Exception {
+        Path log = log(
+                "2025-12-11 21:21:53 | ADDED | ID:8 | Velvet Rose | Lipstick | Shade:001 | Price:12.50 | Items:3",
+                "2025-12-11 21:22:00 | UPDATED | ID:1 | Matte | Blush | Shade:002 | Price:6.00 | Items:4",
+                "2025-12-11 21:23:00 | DELETED | ID:2 | Glow | Blush | Shade:003 | Price:9.00 | Items:0");
+        RecordingDAO dao = new RecordingDAO();
+        RecoveryEngine engine = new RecoveryEngine(log, snapshot(
+                new Product(1, "Matte", "Blush", "002", 5, 1),
+                new Product(2, "Glow", "Blush", "003", 9, 2)), dao);
+
+        RecoveryEngine.Result r = engine.restoreDatabase();
+
+        assertEquals(3, r.getReplayed());
+        assertEquals(1, dao.restores.size());
+        List<Product> restored = dao.restores.get(0);
+        assertEquals(2, restored.size());
+        assertEquals(1, restored.get(0).getId());
+        assertEquals(8, restored.get(1).getId());
+        assertTrue(new Product(1, "Matte", "Blush", "002", 6, 4).sameValues(restored.get(0)));
+        assertTrue(new Product(8, "Velvet Rose", "Lipstick", "001", 12.5, 3).sameValues(restored.get(1)));
+    }
+}
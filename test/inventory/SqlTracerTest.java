@@ -0,0 +1,70 @@
+package inventory;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlTracerTest {
+    private static String placeholders(int n) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < n; i++) sb.append(i == 0 ? "?" : ",?");
+        return sb.toString();
+    }
+
+    private static String insertRows(int n) {
+        StringBuilder sb = new StringBuilder("INSERT INTO products(name, category, shade, price, no_of_items) VALUES ");
+        for (int i = 0; i < n; i++) sb.append(i == 0 ? "(?,?,?,?,?)" : ",(?,?,?,?,?)");
+        return sb.toString();
+    }
+
+    @Test
+    void inListsOfAnyLengthShareOneKey() {
+        String one = SqlTracer.normalize("DELETE FROM products WHERE id IN (" + placeholders(1) + ")");
+        assertEquals("DELETE FROM products WHERE id IN (?, ...)", one);
+        for (int n : new int[] {2, 3, 17, 500}) {
+            assertEquals(one, SqlTracer.normalize("DELETE FROM products WHERE id IN (" + placeholders(n) + ")"));
+        }
+        assertEquals(one, SqlTracer.normalize("DELETE FROM products\n  WHERE id in ( ?, ?,  ? )"));
+    }
+
+    @Test
+    void multiRowInsertsShareOneKey() {
+        String one = SqlTracer.normalize(insertRows(1));
+        assertEquals("INSERT INTO products(name, category, shade, price, no_of_items) VALUES (?,?,?,?,?), ...", one);
+        assertEquals(one, SqlTracer.normalize(insertRows(2)));
+        assertEquals(one, SqlTracer.normalize(insertRows(500)));
+        assertEquals(one, SqlTracer.normalize(
+                "INSERT INTO products(name, category, shade, price, no_of_items) VALUES(?,?,?,?,?)"));
+    }
+
+    @Test
+    void differentStatementsStayDistinct() {
+        String delete = SqlTracer.normalize("DELETE FROM products WHERE id IN (?,?)");
+        String select = SqlTracer.normalize("SELECT id FROM products WHERE id IN (?,?) FOR UPDATE");
+        String users = SqlTracer.normalize("INSERT INTO users(username, password) VALUES(?, ?)");
+        String usersWithRole = SqlTracer.normalize("INSERT INTO users(username, password, role) VALUES(?, ?, ?)");
+        assertNotEquals(delete, select);
+        assertNotEquals(users, usersWithRole);
+        assertNotEquals(SqlTracer.normalize(insertRows(3)), users);
+        assertEquals("SELECT COALESCE(?, ?) FROM products WHERE name_key=LOWER(?)",
+                SqlTracer.normalize("SELECT COALESCE(?, ?) FROM products WHERE name_key=LOWER(?)"));
+    }
+
+    @Test
+    void newStatementsStopBeingTrackedAtTheCap() {
+        String known = "SELECT 'known' FROM products WHERE id=?";
+        SqlTracer.aggregate(known, 1, 0, false, false);
+        for (int i = 0; SqlTracer.statementCount() < SqlTracer.MAX_STATEMENTS; i++) {
+            SqlTracer.aggregate("SELECT " + i + " FROM products", 1, 0, false, false);
+        }
+        SqlTracer.aggregate("SELECT 'one too many' FROM products", 1, 0, false, false);
+        assertEquals(SqlTracer.MAX_STATEMENTS, SqlTracer.statementCount());
+
+        // Statements already tracked keep counting.
+        SqlTracer.aggregate(known, 1_000_000_000_000L, 0, false, false);
+        StringBuilder report = new StringBuilder();
+        SqlTracer.appendReport(report, 1);
+        assertTrue(report.toString().contains(known));
+        assertTrue(report.toString().split("\n")[1].trim().startsWith("2 "));
+    }
+}
@@ -0,0 +1,29 @@
+package inventory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/** Random products drawn from a small vocabulary, so searches and categories overlap a lot. */
+final class TestProducts {
+    static final String[] WORDS = {"Velvet", "Matte", "Rose", "Nude", "Coral", "Berry", "Satin", "Glow", "ÄÖ"};
+    static final String[] CATEGORIES = {"Lipstick", "Blush", "Foundation"};
+
+    private TestProducts() {
+    }
+
+    static Product random(Random random, int id) {
+        String name = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)]
+                + (random.nextInt(3) == 0 ? " " + id : "");
+        return new Product(id, name, CATEGORIES[random.nextInt(CATEGORIES.length)],
+                String.format("%03d", random.nextInt(300)), random.nextInt(20_000) / 100.0, random.nextInt(100));
+    }
+
+    static List<Product> list(Random random, int count) {
+        List<Product> list = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            list.add(random(random, i));
+        }
+        return list;
+    }
+}
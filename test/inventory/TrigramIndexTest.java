@@ -0,0 +1,61 @@
+package inventory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrigramIndexTest {
+
+    private static boolean contains(Product p, String lowerKey) {
+        return p.getName().toLowerCase(Locale.ROOT).contains(lowerKey)
+                || p.getCategory().toLowerCase(Locale.ROOT).contains(lowerKey)
+                || p.getShade().toLowerCase(Locale.ROOT).contains(lowerKey);
+    }
+
+    @Test
+    void candidatesCoverEveryMatchInSlotOrder() {
+        List<Product> products = TestProducts.list(new Random(1), 3000);
+        TrigramIndex index = new TrigramIndex();
+        for (int slot = 0; slot < products.size(); slot++) {
+            index.add(slot, products.get(slot));
+        }
+        for (String key : new String[]{"vel", "rose", "lip", "äö ", "012", "e b", "zzz"}) {
+            int[] candidates = index.candidates(key);
+            int[] sorted = candidates.clone();
+            Arrays.sort(sorted);
+            assertArrayEquals(sorted, candidates, key);
+            for (int slot = 0; slot < products.size(); slot++) {
+                if (contains(products.get(slot), key)) {
+                    assertTrue(Arrays.binarySearch(candidates, slot) >= 0, key + " misses slot " + slot);
+                }
+            }
+        }
+    }
+
+    @Test
+    void removedProductsAreNoLongerCandidates() {
+        TrigramIndex index = new TrigramIndex();
+        Product velvet = new Product(1, "Velvet Rose", "Lipstick", "001", 10, 1);
+        Product matte = new Product(2, "Matte Rose", "Lipstick", "002", 10, 1);
+        index.add(0, velvet);
+        index.add(1, matte);
+        assertArrayEquals(new int[]{0, 1}, index.candidates("rose"));
+
+        index.remove(0, velvet);
+        assertArrayEquals(new int[]{1}, index.candidates("rose"));
+        assertArrayEquals(new int[0], index.candidates("velvet"));
+    }
+
+    @Test
+    void shortKeysCannotBeSearched() {
+        assertFalse(TrigramIndex.canSearch(null));
+        assertFalse(TrigramIndex.canSearch("ro"));
+        assertTrue(TrigramIndex.canSearch("ros"));
+    }
+}